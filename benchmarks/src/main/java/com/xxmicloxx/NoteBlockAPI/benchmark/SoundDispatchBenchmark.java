@@ -0,0 +1,142 @@
+package com.xxmicloxx.NoteBlockAPI.benchmark;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.Sound;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.xxmicloxx.NoteBlockAPI.model.SoundCategory;
+import com.xxmicloxx.NoteBlockAPI.utils.CompatibilityUtils;
+import com.xxmicloxx.NoteBlockAPI.utils.MathUtils;
+
+/**
+ * Compares sound dispatch of {@link CompatibilityUtils} through MethodHandles with the reflective
+ * dispatch it replaced. Player and Server are proxies, so no server is needed and both paths
+ * pay the same cost of the proxied Player#playSound call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SoundDispatchBenchmark {
+
+	@Param({"0", "2"})
+	private float distance;
+
+	private final HashMap<String, Method> playSoundMethod = new HashMap<>();
+
+	private Player player;
+	private Location location;
+	private int played;
+
+	@Setup
+	public void setup() {
+		if (Bukkit.getServer() == null) {
+			Bukkit.setServer(proxy(Server.class));
+		}
+		player = proxy(Player.class);
+		location = new Location(null, 0, 64, 0, 90, 0);
+		CompatibilityUtils.playSound(player, location, Sound.BLOCK_NOTE_BLOCK_HARP, SoundCategory.RECORDS, 1, 1, distance);
+	}
+
+	private <T> T proxy(Class<T> type) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+			Class<?> returnType = method.getReturnType();
+			if (method.getName().equals("playSound")) {
+				played++;
+			} else if (returnType == String.class) {
+				return "git-Spigot (MC: 1.16.1)";
+			} else if (returnType == Logger.class) {
+				return Logger.getLogger("Benchmark");
+			} else if (returnType == boolean.class) {
+				return false;
+			} else if (returnType.isPrimitive() && returnType != void.class) {
+				return returnType == float.class ? 0f : returnType == double.class ? 0d : returnType == long.class ? 0L : 0;
+			}
+			return null;
+		}));
+	}
+
+	@Benchmark
+	public int methodHandle() {
+		CompatibilityUtils.playSound(player, location, Sound.BLOCK_NOTE_BLOCK_HARP, SoundCategory.RECORDS, 1, 1, distance);
+		return played;
+	}
+
+	@Benchmark
+	public int methodHandleByName() {
+		CompatibilityUtils.playSound(player, location, "block.note_block.harp", SoundCategory.RECORDS, 1, 1, distance);
+		return played;
+	}
+
+	@Benchmark
+	public int reflection() {
+		playSoundReflective(player, location, Sound.BLOCK_NOTE_BLOCK_HARP, SoundCategory.RECORDS, 1, 1, distance);
+		return played;
+	}
+
+	@Benchmark
+	public int reflectionByName() {
+		playSoundReflective(player, location, "block.note_block.harp", SoundCategory.RECORDS, 1, 1, distance);
+		return played;
+	}
+
+	/**
+	 * Dispatch used by CompatibilityUtils before the MethodHandles
+	 */
+	private void playSoundReflective(Player player, Location location, Object sound,
+									 SoundCategory category, float volume, float pitch, float distance) {
+		try {
+			if (CompatibilityUtils.getServerVersion() >= 0.0111f) {
+				Method method = getPlaySoundMethod(sound.getClass(), true);
+				Enum<?> soundCategoryEnum = Enum.valueOf(org.bukkit.SoundCategory.class, category.name());
+				method.invoke(player, MathUtils.stereoPan(location, distance), sound, soundCategoryEnum, volume, pitch);
+			} else {
+				Method method = getPlaySoundMethod(sound.getClass(), false);
+				method.invoke(player, MathUtils.stereoPan(location, distance), sound, volume, pitch);
+			}
+		} catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private Method getPlaySoundMethod(Class<?> sound, boolean soundCategory) throws NoSuchMethodException {
+		String cacheKey = sound.getName() + soundCategory;
+		Method method = playSoundMethod.get(cacheKey);
+
+		if (method == null) {
+			Class<?> soundParameter = Sound.class.isAssignableFrom(sound) ? Sound.class : sound;
+			if (soundCategory) {
+				method = Player.class.getMethod("playSound", Location.class, soundParameter,
+						org.bukkit.SoundCategory.class, float.class, float.class);
+			} else {
+				method = Player.class.getMethod("playSound", Location.class, soundParameter,
+						float.class, float.class);
+			}
+			playSoundMethod.put(cacheKey, method);
+		}
+		return method;
+	}
+
+}
@@ -1,6 +1,9 @@
 package com.xxmicloxx.NoteBlockAPI;
 
+import com.xxmicloxx.NoteBlockAPI.songplayer.PlaybackClock;
 import com.xxmicloxx.NoteBlockAPI.songplayer.SongPlayer;
+import com.xxmicloxx.NoteBlockAPI.sound.BukkitSoundSink;
+import com.xxmicloxx.NoteBlockAPI.sound.SoundSink;
 import com.xxmicloxx.NoteBlockAPI.utils.MathUtils;
 import com.xxmicloxx.NoteBlockAPI.utils.Scheduler;
 import com.xxmicloxx.NoteBlockAPI.utils.Updater;
@@ -30,6 +33,9 @@ public class NoteBlockAPI extends JavaPlugin {
 	private Map<UUID, ArrayList<SongPlayer>> playingSongs = new ConcurrentHashMap<UUID, ArrayList<SongPlayer>>();
 	private Map<UUID, Byte> playerVolume = new ConcurrentHashMap<UUID, Byte>();
 
+	private PlaybackClock playbackClock;
+	private volatile SoundSink soundSink = new BukkitSoundSink();
+
 	private Scheduler.Task dependencyScanTask;
 	private Scheduler.Task updateCheckTask;
 
@@ -149,6 +155,8 @@ public class NoteBlockAPI extends JavaPlugin {
 		
 		
 		new NoteBlockPlayerMain().onEnable();
+
+		playbackClock = new PlaybackClock();
 		
 		dependencyScanTask = Scheduler.runLater(new Runnable() {
 
@@ -217,6 +225,11 @@ public class NoteBlockAPI extends JavaPlugin {
 			updateCheckTask = null;
 		}
 
+		if (playbackClock != null) {
+			playbackClock.shutdown();
+			playbackClock = null;
+		}
+
 		if (!Scheduler.isFolia()) {
 			Bukkit.getScheduler().cancelTasks(this);
 			List<BukkitWorker> workers = Bukkit.getScheduler().getActiveWorkers();
@@ -237,6 +250,30 @@ public class NoteBlockAPI extends JavaPlugin {
 		Scheduler.runAsync(runnable);
 	}
 
+	/**
+	 * Returns the clock driving playback of all {@link SongPlayer}s
+	 * @return PlaybackClock
+	 */
+	public PlaybackClock getPlaybackClock() {
+		return playbackClock;
+	}
+
+	/**
+	 * Returns the {@link SoundSink} all sounds of {@link SongPlayer}s are played through
+	 * @return SoundSink
+	 */
+	public SoundSink getSoundSink() {
+		return soundSink;
+	}
+
+	/**
+	 * Sets the {@link SoundSink} all sounds of {@link SongPlayer}s are played through
+	 * @param soundSink SoundSink or null to use the default {@link BukkitSoundSink}
+	 */
+	public void setSoundSink(SoundSink soundSink) {
+		this.soundSink = soundSink == null ? new BukkitSoundSink() : soundSink;
+	}
+
 	public boolean isDisabling() {
 		return disabling;
 	}
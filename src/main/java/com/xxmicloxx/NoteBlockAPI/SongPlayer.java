@@ -70,9 +70,9 @@ public abstract class SongPlayer {
 		for (Integer i : s.getLayerHashMap().keySet()){
 			com.xxmicloxx.NoteBlockAPI.model.Layer l = s.getLayerHashMap().get(i);
 			HashMap<Integer, Note> noteHashMap = new HashMap<Integer, Note>();
-			for (Integer iL : l.getNotesAtTicks().keySet()){
-				com.xxmicloxx.NoteBlockAPI.model.Note note = l.getNotesAtTicks().get(iL);
-				noteHashMap.put(iL, new Note(note.getInstrument(), note.getKey()));
+			for (Map.Entry<Integer, com.xxmicloxx.NoteBlockAPI.model.Note> entry : l.getNotesAtTicks().entrySet()){
+				com.xxmicloxx.NoteBlockAPI.model.Note note = entry.getValue();
+				noteHashMap.put(entry.getKey(), new Note(note.getInstrument(), note.getKey()));
 			}
 			Layer layer = new Layer();
 			layer.setHashMap(noteHashMap);
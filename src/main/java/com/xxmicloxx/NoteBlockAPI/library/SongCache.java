@@ -0,0 +1,384 @@
+package com.xxmicloxx.NoteBlockAPI.library;
+
+import com.xxmicloxx.NoteBlockAPI.model.Layer;
+import com.xxmicloxx.NoteBlockAPI.model.Song;
+import com.xxmicloxx.NoteBlockAPI.songplayer.SongPlayer;
+import com.xxmicloxx.NoteBlockAPI.utils.NBSDecoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Cache of decoded Songs shared by plugins, bounded by the estimated heap size of the Songs.
+ * <p>
+ * Songs are identified by their file, its size and modification time, a changed file is decoded again.
+ * When the cache exceeds its size, least recently used Songs are evicted. Songs played by a {@link SongPlayer}
+ * or in its Playlist are never evicted until the SongPlayer is destroyed. Songs used in other ways can be
+ * {@link #acquire(Path) acquired} and {@link #release(Song) released} once they are no longer used,
+ * acquired Songs are never evicted either, even after their file changed. Evicted Songs are kept softly reachable,
+ * so they are returned again without decoding unless the garbage collector needs the memory.
+ */
+public class SongCache {
+
+	private static final long SONG_OVERHEAD = 512;
+	private static final long LAYER_OVERHEAD = 128;
+	private static final long BYTES_PER_NOTE = 4 + 2; // Layer ticks and palette indexes
+	private static final long BYTES_PER_COMPILED_NOTE = 12; // CompiledSong arrays unless they are in a NoteArena
+	private static final long BYTES_PER_TICK = 4;
+
+	private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<Path, SoftEntry> softEntries = new HashMap<>();
+	private final ReferenceQueue<Song> clearedEntries = new ReferenceQueue<>();
+	private final Map<Song, Entry> entriesBySong = new IdentityHashMap<>();
+	private final Set<Entry> pinnedEntries = Collections.newSetFromMap(new IdentityHashMap<>()); // acquired, file changed
+
+	private long maxSize;
+	private long size;
+
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+
+	/**
+	 * Creates cache
+	 * @param maxSize maximal estimated size of cached Songs in bytes
+	 */
+	public SongCache(long maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Returns Song of the file, decoding it if it's not cached
+	 * @param file .nbs file
+	 * @return Song or null if the file can't be decoded
+	 */
+	public Song get(File file) {
+		return get(file.toPath());
+	}
+
+	/**
+	 * Returns Song of the file, decoding it if it's not cached
+	 * @param path .nbs file in any file system
+	 * @return Song or null if the file can't be decoded
+	 */
+	public Song get(Path path) {
+		return get(path, false);
+	}
+
+	/**
+	 * Returns Song of the file and prevents its eviction until it is {@link #release(Song) released}
+	 * @param path .nbs file in any file system
+	 * @return Song or null if the file can't be decoded
+	 */
+	public Song acquire(Path path) {
+		return get(path, true);
+	}
+
+	/**
+	 * Returns Song of the file, decoding it on the {@link NBSDecoder#getExecutor() decoding executor}
+	 * if it's not cached
+	 * @param path .nbs file in any file system
+	 * @return future of the Song, completed exceptionally if the file can't be decoded
+	 */
+	public CompletableFuture<Song> getAsync(Path path) {
+		Path key = path.toAbsolutePath().normalize();
+		Stamp stamp = Stamp.of(key);
+		Song song = lookup(key, stamp, false);
+		if (song != null) {
+			return CompletableFuture.completedFuture(song);
+		}
+		return NBSDecoder.parseAsync(key).thenApply(decoded -> put(key, stamp, decoded, false));
+	}
+
+	private Song get(Path path, boolean acquire) {
+		Path key = path.toAbsolutePath().normalize();
+		Stamp stamp = Stamp.of(key);
+		Song song = lookup(key, stamp, acquire);
+		if (song != null) {
+			return song;
+		}
+
+		song = NBSDecoder.parse(key);
+		if (song == null) {
+			return null;
+		}
+		return put(key, stamp, song, acquire);
+	}
+
+	private synchronized Song lookup(Path key, Stamp stamp, boolean acquire) {
+		Entry entry = entries.get(key);
+		if (entry != null && !entry.stamp.equals(stamp)) {
+			remove(key); // file was changed
+			entry = null;
+		}
+
+		if (entry == null) {
+			SoftEntry softEntry = softEntries.remove(key);
+			Song song = softEntry == null ? null : softEntry.get();
+			if (song == null || !softEntry.stamp.equals(stamp)) {
+				missCount++;
+				return null;
+			}
+			entry = insert(key, softEntry.stamp, song);
+		}
+
+		hitCount++;
+		if (acquire) {
+			entry.references++;
+		}
+		evict(); // after acquiring, so the Song isn't evicted right away
+		return entry.song;
+	}
+
+	private synchronized Song put(Path key, Stamp stamp, Song song, boolean acquire) {
+		Entry entry = entries.get(key);
+		if (entry == null || !entry.stamp.equals(stamp)) {
+			remove(key);
+			entry = insert(key, stamp, song);
+		} // otherwise the same file was decoded concurrently, the cached Song is used
+
+		if (acquire) {
+			entry.references++;
+		}
+		evict();
+		return entry.song;
+	}
+
+	private Entry insert(Path key, Stamp stamp, Song song) {
+		Entry entry = new Entry(key, stamp, song, estimateSize(song));
+		entries.put(key, entry);
+		entriesBySong.put(song, entry);
+		size += entry.size;
+		return entry;
+	}
+
+	private void remove(Path key) {
+		Entry entry = entries.remove(key);
+		if (entry != null) {
+			if (entry.references > 0) {
+				pinnedEntries.add(entry); // kept until it's released as many times as it was acquired
+			} else {
+				entriesBySong.remove(entry.song);
+				size -= entry.size;
+			}
+		}
+		softEntries.remove(key);
+	}
+
+	/**
+	 * Evicts least recently used Songs which are neither acquired nor used by a SongPlayer until the cache fits
+	 * its maximal size
+	 */
+	private void evict() {
+		Iterator<Entry> iterator = entries.values().iterator();
+		Set<Song> usedSongs = null;
+		while (size > maxSize && iterator.hasNext()) {
+			Entry entry = iterator.next();
+			if (entry.references > 0) {
+				continue;
+			}
+			if (usedSongs == null) {
+				usedSongs = SongPlayer.getUsedSongs();
+			}
+			if (usedSongs.contains(entry.song)) {
+				continue;
+			}
+			iterator.remove();
+			entriesBySong.remove(entry.song);
+			size -= entry.size;
+			softEntries.put(entry.key, new SoftEntry(entry.key, entry.stamp, entry.song, clearedEntries));
+			evictionCount++;
+		}
+
+		SoftEntry cleared;
+		while ((cleared = (SoftEntry) clearedEntries.poll()) != null) {
+			softEntries.remove(cleared.key, cleared);
+		}
+	}
+
+	/**
+	 * Allows eviction of a Song returned by {@link #acquire(Path)} once it was released as many times as it was acquired
+	 * @param song
+	 */
+	public synchronized void release(Song song) {
+		Entry entry = entriesBySong.get(song);
+		if (entry != null && entry.references > 0) {
+			entry.references--;
+			if (entry.references == 0 && pinnedEntries.remove(entry)) {
+				entriesBySong.remove(song);
+				size -= entry.size;
+			}
+			evict();
+		}
+	}
+
+	/**
+	 * Removes Song of the file from the cache, an acquired Song is kept until it is released
+	 * @param path .nbs file
+	 */
+	public synchronized void invalidate(Path path) {
+		remove(path.toAbsolutePath().normalize());
+	}
+
+	/**
+	 * Removes all Songs from the cache, including acquired ones
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		entriesBySong.clear();
+		pinnedEntries.clear();
+		softEntries.clear();
+		size = 0;
+	}
+
+	/**
+	 * Estimates heap size of a Song, including its {@link com.xxmicloxx.NoteBlockAPI.model.CompiledSong}
+	 * @param song
+	 * @return estimated size in bytes
+	 */
+	static long estimateSize(Song song) {
+		long size = SONG_OVERHEAD + (long) Math.max(song.getLength(), 0) * BYTES_PER_TICK;
+		long bytesPerNote = song.getNoteArena() == null ? BYTES_PER_NOTE + BYTES_PER_COMPILED_NOTE : BYTES_PER_NOTE;
+		for (Layer layer : song.getLayers().values()) {
+			size += LAYER_OVERHEAD + layer.getNoteCount() * bytesPerNote;
+		}
+		return size;
+	}
+
+	/**
+	 * Returns estimated size of cached Songs
+	 * @return size in bytes
+	 */
+	public synchronized long getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns maximal estimated size of cached Songs
+	 * @return size in bytes
+	 */
+	public synchronized long getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Sets maximal estimated size of cached Songs, evicting Songs if needed
+	 * @param maxSize size in bytes
+	 */
+	public synchronized void setMaxSize(long maxSize) {
+		this.maxSize = maxSize;
+		evict();
+	}
+
+	/**
+	 * Returns number of cached Songs, not counting evicted ones
+	 * @return count of Songs
+	 */
+	public synchronized int getCount() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns number of requests returning a cached Song
+	 * @return count of hits
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Returns number of requests which had to decode the Song
+	 * @return count of misses
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Returns number of Songs evicted because the cache exceeded its size
+	 * @return count of evictions
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	private static final class Entry {
+
+		private final Path key;
+		private final Stamp stamp;
+		private final Song song;
+		private final long size;
+		private int references;
+
+		Entry(Path key, Stamp stamp, Song song, long size) {
+			this.key = key;
+			this.stamp = stamp;
+			this.song = song;
+			this.size = size;
+		}
+	}
+
+	private static final class SoftEntry extends SoftReference<Song> {
+
+		private final Path key;
+		private final Stamp stamp;
+
+		SoftEntry(Path key, Stamp stamp, Song song, ReferenceQueue<Song> queue) {
+			super(song, queue);
+			this.key = key;
+			this.stamp = stamp;
+		}
+	}
+
+	/**
+	 * Size and modification time of a file
+	 */
+	private static final class Stamp {
+
+		private static final Stamp MISSING = new Stamp(-1, -1);
+
+		private final long size;
+		private final long modified;
+
+		Stamp(long size, long modified) {
+			this.size = size;
+			this.modified = modified;
+		}
+
+		static Stamp of(Path path) {
+			try {
+				BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+				return new Stamp(attributes.size(), attributes.lastModifiedTime().toMillis());
+			} catch (IOException e) {
+				return MISSING;
+			}
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Stamp)) {
+				return false;
+			}
+			Stamp other = (Stamp) obj;
+			return this != MISSING && size == other.size && modified == other.modified;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(size) * 31 + Long.hashCode(modified);
+		}
+	}
+}
@@ -0,0 +1,288 @@
+package com.xxmicloxx.NoteBlockAPI.library;
+
+import com.xxmicloxx.NoteBlockAPI.model.Song;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Search index over titles and authors of Songs, used for searching and tab completion.
+ * <p>
+ * Text is folded to lower case without diacritics, so "Beyonce" finds "Beyonc&eacute;", and split into words.
+ * All suffixes of the words, at least 3 characters long, are kept in a sorted map which serves as a prefix
+ * tree: all suffixes starting with a part of a word are a single range of the map, so words are found by any
+ * part of them. Shorter parts are looked up without the map. Titles are kept in another sorted map for tab
+ * completion.
+ * Songs can be added and removed from any thread while the index is searched.
+ */
+public class SongIndex {
+
+	private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+	private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+	// shorter parts of words match most Songs, they are searched without the index
+	private static final int MIN_SUFFIX_LENGTH = 3;
+
+	private static final Comparator<Entry> ORDER = Comparator.comparing((Entry entry) -> entry.titleKey)
+			.thenComparingInt(entry -> System.identityHashCode(entry.song));
+
+	private final NavigableMap<String, Set<Entry>> suffixes = new ConcurrentSkipListMap<>();
+	private final NavigableMap<String, Set<Entry>> titles = new ConcurrentSkipListMap<>();
+	private final Map<Song, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * Adds Song to the index, using its file name when it has no title
+	 * @param song
+	 * @param fileName name of the .nbs file or null
+	 */
+	public synchronized void add(Song song, String fileName) {
+		String title = song.getTitle();
+		if ((title == null || title.trim().isEmpty()) && fileName != null) {
+			title = fileName.toLowerCase(Locale.ROOT).endsWith(".nbs")
+					? fileName.substring(0, fileName.length() - 4) : fileName;
+		}
+		title = title == null ? "" : title.trim();
+
+		Set<String> songWords = new LinkedHashSet<>();
+		addWords(songWords, title);
+		addWords(songWords, song.getAuthor());
+		addWords(songWords, song.getOriginalAuthor());
+		Set<String> songSuffixes = new HashSet<>();
+		for (String word : songWords) {
+			for (int i = 0; i <= word.length() - MIN_SUFFIX_LENGTH; i++) {
+				songSuffixes.add(word.substring(i));
+			}
+		}
+		Entry entry = new Entry(song, title, fold(title), songWords.toArray(new String[0]),
+				songSuffixes.toArray(new String[0]));
+
+		Entry previous = entries.put(song, entry);
+		if (previous != null) {
+			unindex(previous);
+		}
+		add(titles, entry.titleKey, entry);
+		for (String suffix : entry.suffixes) {
+			add(suffixes, suffix, entry);
+		}
+	}
+
+	/**
+	 * Removes Song from the index
+	 * @param song
+	 */
+	public synchronized void remove(Song song) {
+		Entry entry = entries.remove(song);
+		if (entry != null) {
+			unindex(entry);
+		}
+	}
+
+	private void unindex(Entry entry) {
+		remove(titles, entry.titleKey, entry);
+		for (String suffix : entry.suffixes) {
+			remove(suffixes, suffix, entry);
+		}
+	}
+
+	private static void add(Map<String, Set<Entry>> map, String key, Entry entry) {
+		map.compute(key, (k, entries) -> {
+			if (entries == null) {
+				entries = ConcurrentHashMap.newKeySet();
+			}
+			entries.add(entry);
+			return entries;
+		});
+	}
+
+	private static void remove(Map<String, Set<Entry>> map, String key, Entry entry) {
+		map.computeIfPresent(key, (k, entries) -> {
+			entries.remove(entry);
+			return entries.isEmpty() ? null : entries;
+		});
+	}
+
+	/**
+	 * Finds Songs whose title or author contains all words of the query as words or parts of words,
+	 * e.g. "stition wond" finds "Superstition" by "Stevie Wonder". Results are ordered by title.
+	 * @param query words or parts of words, an empty query matches all Songs
+	 * @param page index of the page, starting at 0
+	 * @param pageSize number of Songs per page
+	 * @return Songs on the page, empty if there are no more results
+	 */
+	public List<Song> search(String query, int page, int pageSize) {
+		List<Entry> results = find(query);
+		long from = (long) page * pageSize;
+		if (page < 0 || pageSize <= 0 || from >= results.size()) {
+			return Collections.emptyList();
+		}
+		int to = (int) Math.min(from + pageSize, results.size());
+
+		// keep only the first 'to' results instead of sorting all of them
+		PriorityQueue<Entry> first = new PriorityQueue<>(to + 1, ORDER.reversed());
+		for (Entry entry : results) {
+			if (first.size() < to) {
+				first.add(entry);
+			} else if (ORDER.compare(entry, first.peek()) < 0) {
+				first.poll();
+				first.add(entry);
+			}
+		}
+
+		Song[] songs = new Song[to - (int) from];
+		for (int i = songs.length - 1; i >= 0; i--) {
+			songs[i] = first.poll().song;
+		}
+		return Arrays.asList(songs);
+	}
+
+	/**
+	 * Counts Songs found by {@link #search(String, int, int)}
+	 * @param query
+	 * @return count of found Songs
+	 */
+	public int count(String query) {
+		return find(query).size();
+	}
+
+	/**
+	 * Returns titles starting with the prefix, for tab completion
+	 * @param prefix beginning of a title
+	 * @param limit maximal number of titles
+	 * @return titles ordered alphabetically
+	 */
+	public List<String> completeTitle(String prefix, int limit) {
+		String key = fold(prefix == null ? "" : prefix.trim());
+		List<String> results = new ArrayList<>();
+		for (Set<Entry> sameTitle : range(titles, key).values()) {
+			if (results.size() >= limit) {
+				break;
+			}
+			Iterator<Entry> iterator = sameTitle.iterator();
+			if (iterator.hasNext()) {
+				results.add(iterator.next().title); // one title for all Songs with the same title
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Returns number of indexed Songs
+	 * @return count of Songs
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	private List<Entry> find(String query) {
+		String[] queryWords = split(query);
+		if (queryWords.length == 0) {
+			return new ArrayList<>(entries.values());
+		}
+
+		// collect candidates by the longest word, which is usually the most selective one
+		String longest = queryWords[0];
+		for (String word : queryWords) {
+			if (word.length() > longest.length()) {
+				longest = word;
+			}
+		}
+		Collection<Entry> candidates;
+		if (longest.length() < MIN_SUFFIX_LENGTH) {
+			candidates = entries.values();
+			longest = null; // not indexed, all words are checked
+		} else {
+			Collection<Set<Entry>> matching = range(suffixes, longest).values();
+			if (matching.size() == 1) {
+				candidates = matching.iterator().next();
+			} else {
+				candidates = new HashSet<>();
+				for (Set<Entry> entries : matching) {
+					candidates.addAll(entries);
+				}
+			}
+		}
+
+		List<Entry> results = new ArrayList<>(candidates.size());
+		candidates:
+		for (Entry entry : candidates) {
+			for (String queryWord : queryWords) {
+				if (!queryWord.equals(longest) && !entry.hasWordContaining(queryWord)) {
+					continue candidates;
+				}
+			}
+			results.add(entry);
+		}
+		return results;
+	}
+
+	private static NavigableMap<String, Set<Entry>> range(NavigableMap<String, Set<Entry>> map, String prefix) {
+		return map.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+	}
+
+	private static void addWords(Set<String> words, String text) {
+		Collections.addAll(words, split(text));
+	}
+
+	private static String[] split(String text) {
+		if (text == null) {
+			return new String[0];
+		}
+		String folded = fold(text).trim();
+		if (folded.isEmpty()) {
+			return new String[0];
+		}
+		List<String> words = new ArrayList<>();
+		for (String word : SEPARATORS.split(folded)) {
+			if (!word.isEmpty()) {
+				words.add(word);
+			}
+		}
+		return words.toArray(new String[0]);
+	}
+
+	/**
+	 * Converts text to lower case without diacritics
+	 * @param text
+	 * @return folded text
+	 */
+	static String fold(String text) {
+		String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+		return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+	}
+
+	private static final class Entry {
+
+		private final Song song;
+		private final String title;
+		private final String titleKey;
+		private final String words; // separated by spaces, which are never part of a word
+		private final String[] suffixes;
+
+		Entry(Song song, String title, String titleKey, String[] words, String[] suffixes) {
+			this.song = song;
+			this.title = title;
+			this.titleKey = titleKey;
+			this.words = String.join(" ", words);
+			this.suffixes = suffixes;
+		}
+
+		boolean hasWordContaining(String part) {
+			return words.contains(part);
+		}
+	}
+}
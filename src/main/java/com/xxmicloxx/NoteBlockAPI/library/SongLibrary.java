@@ -0,0 +1,606 @@
+package com.xxmicloxx.NoteBlockAPI.library;
+
+import com.xxmicloxx.NoteBlockAPI.model.NoteArena;
+import com.xxmicloxx.NoteBlockAPI.model.Playlist;
+import com.xxmicloxx.NoteBlockAPI.model.Song;
+import com.xxmicloxx.NoteBlockAPI.utils.NBSDecoder;
+import com.xxmicloxx.NoteBlockAPI.utils.SongDeduplicator;
+import org.bukkit.Bukkit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Collection of all Note Block Studio project files (.nbs) in a directory and its subdirectories.
+ * The directory can be in any file system, so songs can be loaded straight from a zip file or a plugin jar
+ * without extracting them, see {@link #openArchive(File, String)}.
+ * <p>
+ * Songs are decoded in parallel by a bounded pool of threads owned by the library, so loading never
+ * blocks the server thread. Loaded songs are indexed by file, title and author. All methods are thread-safe,
+ * songs can be looked up while the library is still loading.
+ * <p>
+ * {@link #watch()} keeps the library up to date with the directory, decoding only files which changed.
+ * Reloaded songs replace the previous ones in the library and in all {@link Playlist}s added by
+ * {@link #addPlaylist(Playlist)}.
+ * <p>
+ * Titles and authors of all songs are searchable through {@link #getSearchIndex()}.
+ * <p>
+ * Files with identical notes, layers and instruments share a single frozen copy of them, see {@link SongDeduplicator}.
+ */
+public class SongLibrary {
+
+	private static final long WATCH_QUIET_MILLIS = 250;
+
+	private static final AtomicInteger threadCounter = new AtomicInteger();
+
+	private final Path root;
+	private final ExecutorService executor;
+	private final FileSystem archive;
+
+	private final Map<Path, Song> songsByPath = new ConcurrentHashMap<>();
+	private final Map<String, Set<Song>> songsByTitle = new ConcurrentHashMap<>();
+	private final Map<String, Set<Song>> songsByAuthor = new ConcurrentHashMap<>();
+
+	private final SongDeduplicator deduplicator = new SongDeduplicator();
+	private final SongIndex searchIndex = new SongIndex();
+	private final Set<Playlist> playlists = Collections.newSetFromMap(new WeakHashMap<>());
+	private final Map<Path, CompletableFuture<Boolean>> reloads = new ConcurrentHashMap<>();
+	private WatchService watchService;
+	private volatile NoteArena noteArena;
+
+	private final AtomicInteger totalCount = new AtomicInteger();
+	private final AtomicInteger loadedCount = new AtomicInteger();
+	private final AtomicInteger failedCount = new AtomicInteger();
+	private volatile CompletableFuture<SongLibrary> loading;
+
+	/**
+	 * Creates library of the directory using one loading thread per available processor
+	 * @param directory directory containing .nbs files
+	 */
+	public SongLibrary(File directory) {
+		this(directory, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates library of the directory
+	 * @param directory directory containing .nbs files
+	 * @param parallelism maximal number of songs decoded at once
+	 */
+	public SongLibrary(File directory, int parallelism) {
+		this(directory.toPath(), parallelism);
+	}
+
+	/**
+	 * Creates library of the directory using one loading thread per available processor
+	 * @param root directory containing .nbs files, in any file system
+	 */
+	public SongLibrary(Path root) {
+		this(root, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates library of the directory
+	 * @param root directory containing .nbs files, in any file system
+	 * @param parallelism maximal number of songs decoded at once
+	 */
+	public SongLibrary(Path root, int parallelism) {
+		this(root, parallelism, null);
+	}
+
+	private SongLibrary(Path root, int parallelism, FileSystem archive) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1");
+		}
+		this.root = root.toAbsolutePath().normalize();
+		this.archive = archive;
+		this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread thread = new Thread(runnable, "NoteBlockAPI Song Loader #" + threadCounter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Creates library of songs in a zip or jar file, e.g. a song pack or the jar of a plugin.
+	 * Songs are read from the archive without extracting it. The archive is closed by {@link #close()}.
+	 * @param archive zip or jar file
+	 * @param directory directory inside the archive containing .nbs files, "/" for the whole archive
+	 * @return SongLibrary of the archive, not loaded yet
+	 * @throws IOException if the archive can't be opened
+	 */
+	public static SongLibrary openArchive(File archive, String directory) throws IOException {
+		FileSystem fileSystem = FileSystems.newFileSystem(archive.toPath(), (ClassLoader) null);
+		return new SongLibrary(fileSystem.getPath(directory), Runtime.getRuntime().availableProcessors(), fileSystem);
+	}
+
+	/**
+	 * Scans the directory and decodes all songs in it. Songs of files which no longer exist are removed.
+	 * If the library is already loading, the running load is returned.
+	 * @return future completed when all songs are decoded
+	 */
+	public synchronized CompletableFuture<SongLibrary> load() {
+		if (loading != null && !loading.isDone()) {
+			return loading;
+		}
+
+		totalCount.set(0);
+		loadedCount.set(0);
+		failedCount.set(0);
+		loading = CompletableFuture.supplyAsync(this::scan, executor).thenCompose(files -> {
+			totalCount.set(files.size());
+
+			Set<Path> removed = new HashSet<>(songsByPath.keySet());
+			removed.removeAll(files);
+
+			List<CompletableFuture<?>> futures = new ArrayList<>(files.size() + removed.size());
+			for (Path file : removed) {
+				futures.add(scheduleReload(file)); // removes the Song unless the file appeared again
+			}
+			for (Path file : files) {
+				futures.add(scheduleReload(file).handle((loaded, e) -> {
+					if (e != null || !loaded) {
+						failedCount.incrementAndGet();
+					}
+					loadedCount.incrementAndGet();
+					return null;
+				}));
+			}
+			return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+		}).thenApply(ignored -> this);
+		return loading;
+	}
+
+	private static boolean isSongFile(Path path) {
+		return path.getFileName() != null && path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".nbs")
+				&& Files.isRegularFile(path);
+	}
+
+	private List<Path> scan() {
+		try (Stream<Path> paths = Files.walk(root)) {
+			return paths.filter(SongLibrary::isSongFile).collect(Collectors.toList());
+		} catch (IOException e) {
+			Bukkit.getLogger().log(Level.WARNING, "Cannot scan song directory " + root.toUri(), e);
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * Decodes the file and replaces its previous Song, only called by {@link #scheduleReload(Path)}
+	 * so updates of one file never run concurrently. The Song is removed only when its file was deleted,
+	 * if the file can't be decoded (e.g. it is still being written) the previous Song is kept.
+	 * @return false if the file can't be decoded
+	 */
+	private boolean reload(Path file) {
+		if (!Files.exists(file)) {
+			remove(file);
+			return false;
+		}
+
+		Song song = null;
+		try {
+			song = NBSDecoder.parse(file, deduplicator);
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+		}
+
+		if (song == null) {
+			if (songsByPath.containsKey(file)) {
+				Bukkit.getLogger().warning("Cannot decode " + file.toUri() + ", keeping its previous version");
+			}
+			return false;
+		}
+		compile(song, noteArena);
+		put(file, song);
+		return true;
+	}
+
+	private static void compile(Song song, NoteArena arena) {
+		if (arena != null) {
+			song.setNoteArena(arena);
+			song.getCompiledSong(); // compile while loading instead of when the Song is first played
+		}
+	}
+
+	private void put(Path file, Song song) {
+		Song previous = songsByPath.put(file, song);
+		if (previous != null) {
+			unindex(previous);
+			searchIndex.remove(previous);
+			for (Playlist playlist : getPlaylists()) {
+				playlist.replace(previous, song);
+			}
+		}
+		index(songsByTitle, song.getTitle(), song);
+		index(songsByAuthor, song.getAuthor(), song);
+		searchIndex.add(song, file.getFileName().toString());
+	}
+
+	private void remove(Path file) {
+		Song previous = songsByPath.remove(file);
+		if (previous != null) {
+			unindex(previous);
+			searchIndex.remove(previous);
+			for (Playlist playlist : getPlaylists()) {
+				playlist.removeUnlessLast(previous);
+			}
+		}
+	}
+
+	private List<Playlist> getPlaylists() {
+		synchronized (playlists) {
+			return new ArrayList<>(playlists);
+		}
+	}
+
+	/**
+	 * Adds Playlist whose Songs are replaced when they are reloaded and removed when their file is deleted.
+	 * The last Song of a Playlist is never removed. Playlists are held weakly.
+	 * @param playlist
+	 */
+	public void addPlaylist(Playlist playlist) {
+		synchronized (playlists) {
+			playlists.add(playlist);
+		}
+	}
+
+	/**
+	 * Stops updating the Playlist
+	 * @param playlist
+	 */
+	public void removePlaylist(Playlist playlist) {
+		synchronized (playlists) {
+			playlists.remove(playlist);
+		}
+	}
+
+	/**
+	 * Starts watching the directory. Created and modified files are decoded again on the loading threads,
+	 * Songs of deleted files are removed. Only directories in the default file system can be watched.
+	 * @throws IOException if the directory can't be watched
+	 */
+	public synchronized void watch() throws IOException {
+		if (watchService != null) {
+			return;
+		}
+		WatchService watchService;
+		try {
+			watchService = root.getFileSystem().newWatchService();
+		} catch (UnsupportedOperationException e) {
+			throw new IOException("Cannot watch song directory " + root.toUri(), e);
+		}
+		try {
+			register(watchService, root);
+		} catch (IOException e) {
+			watchService.close();
+			throw e;
+		} catch (RuntimeException e) {
+			watchService.close();
+			throw new IOException("Cannot watch song directory " + root.toUri(), e);
+		}
+		this.watchService = watchService;
+
+		Thread thread = new Thread(this::runWatcher, "NoteBlockAPI Song Watcher #" + threadCounter.incrementAndGet());
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private static void register(WatchService watchService, Path directory) throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			for (Path path : (Iterable<Path>) paths.filter(Files::isDirectory)::iterator) {
+				path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+						StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+			}
+		}
+	}
+
+	private void runWatcher() {
+		WatchService watchService = this.watchService;
+		try {
+			while (true) {
+				Set<Path> changed = new LinkedHashSet<>();
+				boolean overflow = false;
+
+				// collect events until files stay unchanged for a moment, files are often written in several steps
+				WatchKey key = watchService.take();
+				while (key != null) {
+					Path directory = (Path) key.watchable();
+					for (WatchEvent<?> event : key.pollEvents()) {
+						if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+							overflow = true;
+						} else {
+							changed.add(directory.resolve((Path) event.context()));
+						}
+					}
+					key.reset();
+					key = watchService.poll(WATCH_QUIET_MILLIS, TimeUnit.MILLISECONDS);
+				}
+
+				if (overflow) {
+					load();
+					continue;
+				}
+				for (Path path : changed) {
+					onChange(path);
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException | RejectedExecutionException e) {
+			// library closed
+		}
+	}
+
+	private void onChange(Path path) {
+		if (Files.isDirectory(path)) {
+			try {
+				register(watchService, path);
+				try (Stream<Path> paths = Files.walk(path)) {
+					paths.filter(SongLibrary::isSongFile).forEach(this::scheduleReload);
+				}
+			} catch (IOException e) {
+				Bukkit.getLogger().log(Level.WARNING, "Cannot watch song directory " + path, e);
+			}
+		} else if (Files.exists(path)) {
+			if (isSongFile(path)) {
+				scheduleReload(path);
+			}
+		} else {
+			// deleted file or directory
+			for (Path file : songsByPath.keySet()) {
+				if (file.startsWith(path)) {
+					scheduleReload(file);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reloads the file on the loading threads after any earlier reload of the same file is finished
+	 * @return future completed with the result of {@link #reload(Path)}
+	 */
+	private CompletableFuture<Boolean> scheduleReload(Path file) {
+		CompletableFuture<Boolean> reload = reloads.compute(file, (path, previous) -> previous == null
+				? CompletableFuture.supplyAsync(() -> reload(path), executor)
+				: previous.handle((loaded, e) -> null).thenApplyAsync(ignored -> reload(path), executor));
+		reload.whenComplete((loaded, e) -> reloads.remove(file, reload));
+		return reload;
+	}
+
+	private void unindex(Song song) {
+		unindex(songsByTitle, song.getTitle(), song);
+		unindex(songsByAuthor, song.getAuthor(), song);
+	}
+
+	private static void index(Map<String, Set<Song>> index, String key, Song song) {
+		index.compute(normalize(key), (k, songs) -> {
+			if (songs == null) {
+				songs = ConcurrentHashMap.newKeySet();
+			}
+			songs.add(song);
+			return songs;
+		});
+	}
+
+	private static void unindex(Map<String, Set<Song>> index, String key, Song song) {
+		index.computeIfPresent(normalize(key), (k, songs) -> {
+			songs.remove(song);
+			return songs.isEmpty() ? null : songs;
+		});
+	}
+
+	private static String normalize(String key) {
+		return key == null ? "" : key.trim().toLowerCase(Locale.ROOT);
+	}
+
+	private static List<Song> lookup(Map<String, Set<Song>> index, String key) {
+		Set<Song> songs = index.get(normalize(key));
+		return songs == null ? Collections.emptyList() : new ArrayList<>(songs);
+	}
+
+	/**
+	 * Returns Song decoded from the file
+	 * @param file .nbs file in the library
+	 * @return Song or null if the file is not loaded
+	 */
+	public Song getSong(File file) {
+		return getSong(file.toPath());
+	}
+
+	/**
+	 * Returns Song decoded from the file
+	 * @param path .nbs file in the library
+	 * @return Song or null if the file is not loaded
+	 */
+	public Song getSong(Path path) {
+		return songsByPath.get(path.toAbsolutePath().normalize());
+	}
+
+	/**
+	 * Returns Songs with the given title, ignoring case
+	 * @param title
+	 * @return list of Songs, empty if there is none
+	 */
+	public List<Song> getSongsByTitle(String title) {
+		return lookup(songsByTitle, title);
+	}
+
+	/**
+	 * Returns Songs of the given author, ignoring case
+	 * @param author
+	 * @return list of Songs, empty if there is none
+	 */
+	public List<Song> getSongsByAuthor(String author) {
+		return lookup(songsByAuthor, author);
+	}
+
+	/**
+	 * Returns all loaded Songs
+	 * @return unmodifiable view of loaded Songs
+	 */
+	public Collection<Song> getSongs() {
+		return Collections.unmodifiableCollection(songsByPath.values());
+	}
+
+	/**
+	 * Returns number of loaded Songs
+	 * @return count of Songs
+	 */
+	public int size() {
+		return songsByPath.size();
+	}
+
+	/**
+	 * Returns the directory of this library
+	 * @return directory or null if it is not in the default file system
+	 */
+	public File getDirectory() {
+		return root.getFileSystem() == FileSystems.getDefault() ? root.toFile() : null;
+	}
+
+	/**
+	 * Returns the directory of this library
+	 * @return directory in any file system
+	 */
+	public Path getRoot() {
+		return root;
+	}
+
+	/**
+	 * Returns index for searching Songs of this library by title and author
+	 * @return SongIndex
+	 */
+	public SongIndex getSearchIndex() {
+		return searchIndex;
+	}
+
+	/**
+	 * Returns the {@link SongDeduplicator} sharing content of identical songs in this library
+	 * @return SongDeduplicator
+	 */
+	public SongDeduplicator getDeduplicator() {
+		return deduplicator;
+	}
+
+	/**
+	 * Returns arena the notes of Songs in this library are compiled into
+	 * @return NoteArena or null if Songs are compiled on the heap when they are first played
+	 */
+	public NoteArena getNoteArena() {
+		return noteArena;
+	}
+
+	/**
+	 * Sets arena the notes of Songs in this library are compiled into, see {@link Song#setNoteArena(NoteArena)}.
+	 * Songs are compiled right after they are loaded, so notes of the whole library are kept outside of the heap.
+	 * Loaded Songs are compiled into the arena on the calling thread.
+	 * @param noteArena NoteArena or null to compile Songs on the heap when they are first played
+	 */
+	public void setNoteArena(NoteArena noteArena) {
+		this.noteArena = noteArena;
+		for (Song song : songsByPath.values()) {
+			if (noteArena != null) {
+				compile(song, noteArena);
+			} else {
+				song.setNoteArena(null);
+			}
+		}
+	}
+
+	/**
+	 * Returns number of .nbs files found by the last load, 0 while the directory is being scanned
+	 * @return count of files
+	 */
+	public int getTotalCount() {
+		return totalCount.get();
+	}
+
+	/**
+	 * Returns number of files processed by the last load, including failed ones
+	 * @return count of processed files
+	 */
+	public int getLoadedCount() {
+		return loadedCount.get();
+	}
+
+	/**
+	 * Returns number of files which could not be decoded by the last load
+	 * @return count of failed files
+	 */
+	public int getFailedCount() {
+		return failedCount.get();
+	}
+
+	/**
+	 * Returns progress of the last load
+	 * @return progress from 0 to 1
+	 */
+	public float getProgress() {
+		CompletableFuture<SongLibrary> loading = this.loading;
+		if (loading == null) {
+			return 0;
+		}
+		if (loading.isDone()) {
+			return 1;
+		}
+		int total = totalCount.get();
+		return total == 0 ? 0 : (float) loadedCount.get() / total;
+	}
+
+	/**
+	 * Returns whether the library is being loaded
+	 * @return true while loading
+	 */
+	public boolean isLoading() {
+		CompletableFuture<SongLibrary> loading = this.loading;
+		return loading != null && !loading.isDone();
+	}
+
+	/**
+	 * Stops loading threads and watching of this library and closes the archive opened by
+	 * {@link #openArchive(File, String)}. Loaded Songs stay available.
+	 */
+	public synchronized void close() {
+		executor.shutdownNow();
+		if (watchService != null) {
+			try {
+				watchService.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		if (archive != null) {
+			try {
+				archive.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+}
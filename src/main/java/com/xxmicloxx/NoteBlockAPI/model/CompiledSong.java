@@ -0,0 +1,356 @@
+package com.xxmicloxx.NoteBlockAPI.model;
+
+import com.xxmicloxx.NoteBlockAPI.utils.InstrumentUtils;
+import com.xxmicloxx.NoteBlockAPI.utils.NoteUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable tick-major representation of a {@link Song} used for playback.
+ * <p>
+ * Notes of all {@link Layer}s played at the same tick are stored next to each other, so playing a tick
+ * costs only as much as the number of notes in it. Each note is identified by its index, use
+ * {@link #getNotesStart(int)} and {@link #getNotesEnd(int)} to get the range of indexes played at a tick.
+ * Layer volume and panning are already merged into the values of each note and notes which can't be heard
+ * are left out.
+ * <p>
+ * Sound and pitch of every note are resolved once for each transpose mode when they are first needed,
+ * so playing a note does no lookups.
+ * <p>
+ * Notes can be stored in a {@link NoteArena} outside of the Java heap, see {@link #CompiledSong(Song, NoteArena)}.
+ */
+public class CompiledSong {
+
+	private static final int INSTRUMENT_SHIFT = 0;
+	private static final int KEY_SHIFT = 8;
+	private static final int PITCH_SHIFT = 16;
+	private static final int VOLUME_SHIFT = 32;
+	private static final int PANNING_SHIFT = 48;
+
+	private final IntBuffer tickStarts;
+	private final LongBuffer notes;
+	private final IntBuffer layerIndexes;
+	private final CustomInstrument[] customInstruments;
+
+	private volatile SoundTable transposedSounds;
+
+	// version of the Song content this was created from, set by Song before publishing
+	long contentVersion;
+	private volatile SoundTable octaveSounds;
+
+	/**
+	 * Compiles notes of the given Song
+	 * @param song
+	 */
+	public CompiledSong(Song song) {
+		this(song, null);
+	}
+
+	/**
+	 * Compiles notes of the given Song into the arena
+	 * @param song
+	 * @param arena arena storing the notes or null to store them on the heap
+	 */
+	public CompiledSong(Song song, NoteArena arena) {
+		Map<Integer, Layer> layers = song.getLayers();
+		Integer[] layerKeys = layers.keySet().toArray(new Integer[0]);
+		Arrays.sort(layerKeys);
+		customInstruments = song.getCustomInstruments() == null ? new CustomInstrument[0] : song.getCustomInstruments();
+
+		int lastTick = -1;
+		for (Layer layer : layers.values()) {
+			int count = layer.getNoteCount();
+			if (count > 0 && layer.getTickAt(count - 1) > lastTick) {
+				lastTick = layer.getTickAt(count - 1);
+			}
+		}
+
+		int[] tickStarts = new int[lastTick + 2];
+		for (Layer layer : layers.values()) {
+			for (int i = 0; i < layer.getNoteCount(); i++) {
+				int tick = layer.getTickAt(i);
+				if (tick >= 0 && isAudible(layer, layer.getPackedNoteAt(i))) {
+					tickStarts[tick + 1]++;
+				}
+			}
+		}
+		for (int i = 1; i < tickStarts.length; i++) {
+			tickStarts[i] += tickStarts[i - 1];
+		}
+
+		int count = tickStarts[tickStarts.length - 1];
+		long[] notes = new long[count];
+		int[] layerIndexes = new int[count];
+
+		int[] positions = Arrays.copyOf(tickStarts, tickStarts.length - 1);
+		for (Integer layerIndex : layerKeys) {
+			Layer layer = layers.get(layerIndex);
+			for (int i = 0; i < layer.getNoteCount(); i++) {
+				int tick = layer.getTickAt(i);
+				long note = layer.getPackedNoteAt(i);
+				if (tick < 0 || !isAudible(layer, note)) {
+					continue;
+				}
+
+				int position = positions[tick]++;
+				notes[position] = pack(Layer.getInstrument(note), Layer.getKey(note), Layer.getPitch(note),
+						layer.getVolume() * Layer.getVelocity(note), getPanning(layer, Layer.getPanning(note)));
+				layerIndexes[position] = layerIndex;
+			}
+		}
+
+		if (arena == null) {
+			this.tickStarts = IntBuffer.wrap(tickStarts);
+			this.notes = LongBuffer.wrap(notes);
+			this.layerIndexes = IntBuffer.wrap(layerIndexes);
+		} else {
+			// one allocation keeps all arrays of the Song next to each other, it's reused once this is collected
+			ByteBuffer buffer = arena.allocate(notes.length * 8 + tickStarts.length * 4 + layerIndexes.length * 4, this);
+			this.notes = slice(buffer, notes.length * 8).asLongBuffer().put(notes);
+			this.tickStarts = slice(buffer, tickStarts.length * 4).asIntBuffer().put(tickStarts);
+			this.layerIndexes = slice(buffer, layerIndexes.length * 4).asIntBuffer().put(layerIndexes);
+		}
+	}
+
+	private static ByteBuffer slice(ByteBuffer buffer, int length) {
+		ByteBuffer slice = buffer.slice().order(buffer.order());
+		slice.limit(length);
+		buffer.position(buffer.position() + length);
+		return slice;
+	}
+
+	private static boolean isAudible(Layer layer, long note) {
+		return layer.getVolume() > 0 && Layer.getVelocity(note) > 0;
+	}
+
+	private static long pack(byte instrument, byte key, short pitch, int volume, int panning) {
+		return ((long) (instrument & 0xFF) << INSTRUMENT_SHIFT)
+				| ((long) (key & 0xFF) << KEY_SHIFT)
+				| ((long) (pitch & 0xFFFF) << PITCH_SHIFT)
+				| ((long) (volume & 0xFFFF) << VOLUME_SHIFT)
+				| ((long) (panning & 0xFFFF) << PANNING_SHIFT);
+	}
+
+	/**
+	 * Merges panning of Layer and Note to 1/200 of the maximal stereo distance
+	 */
+	private static int getPanning(Layer layer, int notePanning) {
+		if (layer.getPanning() == 100) {
+			return (notePanning - 100) * 2;
+		}
+		return layer.getPanning() - 100 + notePanning - 100;
+	}
+
+	/**
+	 * Returns the last tick containing a note + 1
+	 * @return number of ticks
+	 */
+	public int getTickCount() {
+		return tickStarts.limit() - 1;
+	}
+
+	/**
+	 * Returns number of notes in the Song
+	 * @return count of notes
+	 */
+	public int getNoteCount() {
+		return notes.limit();
+	}
+
+	/**
+	 * Returns index of the first note played at the given tick
+	 * @param tick
+	 * @return note index
+	 */
+	public int getNotesStart(int tick) {
+		if (tick < 0 || tick >= tickStarts.limit() - 1) {
+			return 0;
+		}
+		return tickStarts.get(tick);
+	}
+
+	/**
+	 * Returns index after the last note played at the given tick
+	 * @param tick
+	 * @return note index
+	 */
+	public int getNotesEnd(int tick) {
+		if (tick < 0 || tick >= tickStarts.limit() - 1) {
+			return 0;
+		}
+		return tickStarts.get(tick + 1);
+	}
+
+	/**
+	 * Returns instrument of note
+	 * @param index note index
+	 * @return instrument number
+	 * @see Note#getInstrument()
+	 */
+	public byte getInstrument(int index) {
+		return (byte) (notes.get(index) >>> INSTRUMENT_SHIFT);
+	}
+
+	/**
+	 * Returns key of note
+	 * @param index note index
+	 * @return key number
+	 * @see Note#getKey()
+	 */
+	public byte getKey(int index) {
+		return (byte) (notes.get(index) >>> KEY_SHIFT);
+	}
+
+	/**
+	 * Returns pitch of note
+	 * @param index note index
+	 * @return pitch (100 = 1 key)
+	 * @see Note#getPitch()
+	 */
+	public short getPitch(int index) {
+		return (short) (notes.get(index) >>> PITCH_SHIFT);
+	}
+
+	/**
+	 * Returns volume of note multiplied by volume of its layer
+	 * @param index note index
+	 * @return volume (0 - 10000)
+	 */
+	public int getVolume(int index) {
+		return (short) (notes.get(index) >>> VOLUME_SHIFT);
+	}
+
+	/**
+	 * Returns stereo panning of note merged with panning of its layer
+	 * @param index note index
+	 * @return panning from -1 to 1, 0 is center
+	 */
+	public float getPanning(int index) {
+		return getPanningValue(index) / 200f;
+	}
+
+	/**
+	 * Returns stereo panning of note in 1/200 of the maximal stereo distance
+	 */
+	short getPanningValue(int index) {
+		return (short) (notes.get(index) >>> PANNING_SHIFT);
+	}
+
+	/**
+	 * Returns index of the {@link Layer} the note belongs to
+	 * @param index note index
+	 * @return layer index
+	 * @see Song#getLayers()
+	 */
+	public int getLayerIndex(int index) {
+		return layerIndexes.get(index);
+	}
+
+	/**
+	 * Returns Bukkit sound of note
+	 * @param index note index
+	 * @param doTranspose whether notes outside of 2 octave range are transposed
+	 * @return sound or null if note is played by its name
+	 * @see #getSoundName(int, boolean)
+	 */
+	public org.bukkit.Sound getSound(int index, boolean doTranspose) {
+		return getSoundTable(doTranspose).sounds[index];
+	}
+
+	/**
+	 * Returns name of sound of note, used for custom instruments and notes outside of 2 octave range
+	 * @param index note index
+	 * @param doTranspose whether notes outside of 2 octave range are transposed
+	 * @return sound name or null if note is played by {@link #getSound(int, boolean)}
+	 */
+	public String getSoundName(int index, boolean doTranspose) {
+		return getSoundTable(doTranspose).soundNames[index];
+	}
+
+	/**
+	 * Returns pitch the sound of note is played with
+	 * @param index note index
+	 * @param doTranspose whether notes outside of 2 octave range are transposed
+	 * @return pitch of sound
+	 */
+	public float getSoundPitch(int index, boolean doTranspose) {
+		return getSoundTable(doTranspose).pitches[index];
+	}
+
+	private SoundTable getSoundTable(boolean doTranspose) {
+		SoundTable table = doTranspose ? transposedSounds : octaveSounds;
+		if (table == null) {
+			table = new SoundTable(doTranspose);
+			if (doTranspose) {
+				transposedSounds = table;
+			} else {
+				octaveSounds = table;
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Sounds and pitches of all notes for one transpose mode
+	 */
+	private final class SoundTable {
+
+		private final org.bukkit.Sound[] sounds = new org.bukkit.Sound[notes.limit()];
+		private final String[] soundNames = new String[notes.limit()];
+		private final float[] pitches = new float[notes.limit()];
+
+		private SoundTable(boolean doTranspose) {
+			Map<String, String> names = new HashMap<>();
+			org.bukkit.Sound[] instrumentSounds = new org.bukkit.Sound[256]; // by unsigned instrument byte
+			for (int i = 0; i < notes.limit(); i++) {
+				byte instrument = getInstrument(i);
+				byte key = getKey(i);
+				short pitch = getPitch(i);
+
+				try {
+					pitches[i] = doTranspose ? NoteUtils.getPitchTransposed(key, pitch) : NoteUtils.getPitchInOctave(key, pitch);
+				} catch (ArrayIndexOutOfBoundsException e) {
+					continue; // key can't be played, leave the note silent
+				}
+
+				String name = null;
+				if (InstrumentUtils.isCustomInstrument(instrument)) {
+					int customIndex = instrument - InstrumentUtils.getCustomInstrumentFirstIndex();
+					if (customIndex >= customInstruments.length) {
+						continue;
+					}
+					CustomInstrument customInstrument = customInstruments[customIndex];
+					if (!doTranspose) {
+						name = InstrumentUtils.warpNameOutOfRange(customInstrument.getSoundFileName(), key, pitch);
+					} else if (customInstrument.getSound() != null) {
+						sounds[i] = customInstrument.getSound();
+					} else {
+						name = customInstrument.getSoundFileName();
+					}
+				} else if (!doTranspose && NoteUtils.isOutOfRange(key, pitch)) {
+					name = InstrumentUtils.warpNameOutOfRange(instrument, key, pitch);
+				} else {
+					int soundIndex = instrument & 0xFF;
+					if (instrumentSounds[soundIndex] == null) {
+						instrumentSounds[soundIndex] = InstrumentUtils.getInstrument(instrument);
+					}
+					sounds[i] = instrumentSounds[soundIndex];
+				}
+
+				if (name != null) {
+					String shared = names.get(name);
+					if (shared == null) {
+						names.put(name, name);
+						shared = name;
+					}
+					soundNames[i] = shared;
+				}
+			}
+		}
+	}
+}
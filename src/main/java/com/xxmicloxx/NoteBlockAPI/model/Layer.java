@@ -1,32 +1,208 @@
 package com.xxmicloxx.NoteBlockAPI.model;
 
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Represents a series of notes in Note Block Studio. 
+ * Represents a series of notes in Note Block Studio.
  * A Layer can have a maximum of one note per tick (20 ticks a second)
+ * <p>
+ * Notes are stored as primitives: ticks in a sorted int array and every note packed in a single long.
+ * Distinct packed notes are kept once in a palette of the Layer and each tick only stores the index of its note,
+ * a single byte for Layers with up to 256 distinct notes.
+ * <p>
+ * {@link Note} instances returned by this Layer are created on every call. For compatibility with older versions,
+ * which returned the stored Notes, changing a returned Note writes it back to its tick in this Layer. Relying on this
+ * is deprecated, use {@link #setNote(int, Note)} instead. Notes of frozen Layers throw
+ * {@link UnsupportedOperationException} when they are changed.
  *
  */
 public class Layer {
 
-	private HashMap<Integer, Note> notesAtTicks = new HashMap<Integer, Note>();
+	private static final int[] EMPTY_TICKS = new int[0];
+	private static final long[] EMPTY_NOTES = new long[0];
+	private static final byte[] EMPTY_INDEXES = new byte[0];
+
+	private static final int MAX_BYTE_PALETTE = 256;
+	private static final int MAX_CHAR_PALETTE = 65536;
+	private static final int LINEAR_SEARCH_PALETTE = 8;
+
+	static final int INSTRUMENT_SHIFT = 0;
+	static final int KEY_SHIFT = 8;
+	static final int VELOCITY_SHIFT = 16;
+	static final int PANNING_SHIFT = 24;
+	static final int PITCH_SHIFT = 40;
+
+	// changes of all watched Layers, lets Songs skip comparing their Layers while nothing changed
+	private static final AtomicLong MODIFICATIONS = new AtomicLong();
+
+	private int[] ticks = EMPTY_TICKS;
+	private int size = 0;
+
+	// exactly one of byteIndexes, charIndexes and notes is used, depending on the size of the palette
+	private long[] palette = EMPTY_NOTES;
+	private int paletteSize = 0;
+	private int[] paletteHash;
+	private byte[] byteIndexes = EMPTY_INDEXES;
+	private char[] charIndexes;
+	private long[] notes;
+
 	private byte volume = 100;
 	private int panning = 100;
 	private String name = "";
+	private boolean frozen = false;
+	private volatile int modCount = 0;
+	private volatile boolean watched = false;
+
+	public Layer() {
+	}
+
+	/**
+	 * Creates copy of other Layer, changes of the copy don't change the other Layer
+	 * @param other
+	 */
+	public Layer(Layer other) {
+		ticks = Arrays.copyOf(other.ticks, other.size);
+		size = other.size;
+		palette = Arrays.copyOf(other.palette, other.paletteSize);
+		paletteSize = other.paletteSize;
+		byteIndexes = other.byteIndexes == null ? null : Arrays.copyOf(other.byteIndexes, other.size);
+		charIndexes = other.charIndexes == null ? null : Arrays.copyOf(other.charIndexes, other.size);
+		notes = other.notes == null ? null : Arrays.copyOf(other.notes, other.size);
+		volume = other.volume;
+		panning = other.panning;
+		name = other.name;
+	}
+
+	/**
+	 * Returns copy of this Layer which can't be changed, or this Layer if it is already frozen
+	 */
+	Layer frozenCopy() {
+		if (frozen) {
+			return this;
+		}
+		Layer layer = new Layer(this);
+		layer.freeze();
+		return layer;
+	}
+
+	/**
+	 * Makes this Layer unchangeable, e.g. before it is shared by several Songs. Changing a frozen Layer
+	 * throws {@link UnsupportedOperationException}, change its copy made by {@link #Layer(Layer)} instead.
+	 */
+	public void freeze() {
+		if (!frozen) {
+			trimToSize();
+			frozen = true;
+		}
+	}
+
+	/**
+	 * Returns whether this Layer was frozen and can't be changed, Layers of {@link SongSnapshot}s and Songs
+	 * sharing content through {@link com.xxmicloxx.NoteBlockAPI.utils.SongDeduplicator} are frozen
+	 * @return true if the Layer can't be changed
+	 * @see #freeze()
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	/**
+	 * Checks that the Layer can be changed, called before every change
+	 */
+	private void modify() {
+		if (frozen) {
+			throw new UnsupportedOperationException("Frozen Layer can't be changed, change its copy or use SongSnapshot.Builder");
+		}
+	}
+
+	/**
+	 * Counts a change after it was made, so Songs notice it
+	 */
+	private void modified() {
+		modCount++;
+		if (watched) {
+			MODIFICATIONS.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Returns number of changes of this Layer, used by {@link Song} to detect a stale {@link CompiledSong}
+	 */
+	int getModCount() {
+		return modCount;
+	}
+
+	/**
+	 * Makes further changes of this Layer count in {@link #getModifications()}, called by Songs reading the Layer
+	 */
+	void watch() {
+		if (!watched) {
+			watched = true;
+		}
+	}
+
+	/**
+	 * Returns number of changes of all watched Layers
+	 */
+	static long getModifications() {
+		return MODIFICATIONS.get();
+	}
 
 	/**
-	 * Gets the notes in the Layer with the tick they are created as a hash map
+	 * Gets the notes in the Layer with the tick they are created as a hash map.
+	 * The map is a view of this Layer: it is created without copying the notes, reading it reads the Layer and
+	 * putting or removing notes changes the Layer. Like {@link #setNote(int, Note)}, putting null removes the note
+	 * at the tick. Changing a Note of the map writes it back to the Layer (deprecated, see {@link Layer}).
 	 * @return HashMap of notes with the tick they are played at
 	 */
 	public HashMap<Integer, Note> getNotesAtTicks() {
-		return notesAtTicks;
+		return new NoteMap();
 	}
 
 	/**
 	 * Sets the notes in the Layer with the tick they are created as a hash map
 	 */
 	public void setNotesAtTicks(HashMap<Integer, Note> notesAtTicks) {
-		this.notesAtTicks = notesAtTicks;
+		modify();
+		if (notesAtTicks instanceof NoteMap) {
+			notesAtTicks = new HashMap<>(notesAtTicks); // the view would be cleared below
+		}
+		ticks = EMPTY_TICKS;
+		palette = EMPTY_NOTES;
+		paletteSize = 0;
+		paletteHash = null;
+		byteIndexes = EMPTY_INDEXES;
+		charIndexes = null;
+		notes = null;
+		size = 0;
+		if (notesAtTicks != null) {
+			Integer[] keys = notesAtTicks.keySet().toArray(new Integer[0]);
+			Arrays.sort(keys);
+			ensureCapacity(keys.length);
+			for (Integer tick : keys) {
+				Note note = notesAtTicks.get(tick);
+				if (note != null) {
+					ticks[size] = tick;
+					setPackedNoteAt(size, pack(note.getInstrument(), note.getKey(), note.getVelocity(), note.getPanning(), note.getPitch()));
+					size++;
+				}
+			}
+		}
+		modified();
 	}
 
 	/**
@@ -40,21 +216,649 @@ public class Layer {
 	 * Sets the name of the Layer
 	 */
 	public void setName(String name) {
+		modify();
 		this.name = name;
+		modified();
 	}
 
 	/**
-	 * Gets the note played at a given tick
+	 * Gets the note played at a given tick. Changing the returned Note writes it back to the Layer
+	 * (deprecated, see {@link Layer}).
+	 * @return new note or null if there is no note at the tick
 	 */
 	public Note getNote(int tick) {
-		return notesAtTicks.get(tick);
+		int index = Arrays.binarySearch(ticks, 0, size, tick);
+		return index < 0 ? null : new LiveNote(tick, getPackedNoteAt(index));
 	}
 
 	/**
-	 * Sets the given note at the given tick in the Layer
+	 * Sets the given note at the given tick in the Layer. Null removes the note.
 	 */
 	public void setNote(int tick, Note note) {
-		notesAtTicks.put(tick, note);
+		if (note == null) {
+			removeNote(tick);
+			return;
+		}
+		setNote(tick, note.getInstrument(), note.getKey(), note.getVelocity(), note.getPanning(), note.getPitch());
+	}
+
+	/**
+	 * Sets note at the given tick in the Layer without creating a {@link Note}
+	 * @param tick
+	 * @param instrument instrument number
+	 * @param key key number
+	 * @param velocity velocity from 0 - 100
+	 * @param panning panning from 0 - 200, 100 is center
+	 * @param pitch pitch (100 = 1 key)
+	 */
+	public void setNote(int tick, byte instrument, byte key, byte velocity, int panning, short pitch) {
+		modify();
+		long note = pack(instrument, key, velocity, panning, pitch);
+		if (size == 0 || tick > ticks[size - 1]) {
+			// notes are usually added in order of ticks
+			ensureCapacity(size + 1);
+			ticks[size] = tick;
+			setPackedNoteAt(size, note);
+			size++;
+		} else {
+			int index = Arrays.binarySearch(ticks, 0, size, tick);
+			if (index >= 0) {
+				setPackedNoteAt(index, note);
+			} else {
+				index = -index - 1;
+				ensureCapacity(size + 1);
+				System.arraycopy(ticks, index, ticks, index + 1, size - index);
+				copyNotes(index, index + 1, size - index);
+				ticks[index] = tick;
+				setPackedNoteAt(index, note);
+				size++;
+			}
+		}
+		modified();
+	}
+
+	/**
+	 * Removes note at the given tick from the Layer
+	 * @param tick
+	 */
+	public void removeNote(int tick) {
+		modify();
+		int index = Arrays.binarySearch(ticks, 0, size, tick);
+		if (index < 0) {
+			return;
+		}
+		System.arraycopy(ticks, index + 1, ticks, index, size - index - 1);
+		copyNotes(index + 1, index, size - index - 1);
+		size--;
+		modified();
+	}
+
+	/**
+	 * Returns number of notes in the Layer
+	 * @return count of notes
+	 */
+	public int getNoteCount() {
+		return size;
+	}
+
+	/**
+	 * Returns number of distinct notes in the Layer, notes removed or replaced since the Layer was loaded may be included
+	 * @return count of distinct notes or -1 if the Layer has too many distinct notes to keep them in a palette
+	 */
+	public int getDistinctNoteCount() {
+		return notes != null ? -1 : paletteSize;
+	}
+
+	/**
+	 * Returns tick of the note at the given position, notes are ordered by tick
+	 */
+	int getTickAt(int index) {
+		return ticks[index];
+	}
+
+	/**
+	 * Returns packed note at the given position
+	 */
+	long getPackedNoteAt(int index) {
+		if (charIndexes != null) {
+			return palette[charIndexes[index]];
+		}
+		if (notes != null) {
+			return notes[index];
+		}
+		return palette[byteIndexes[index] & 0xFF];
+	}
+
+	private void setPackedNoteAt(int index, long note) {
+		int paletteIndex = intern(note);
+		if (charIndexes != null) {
+			charIndexes[index] = (char) paletteIndex;
+		} else if (notes != null) {
+			notes[index] = note;
+		} else {
+			byteIndexes[index] = (byte) paletteIndex;
+		}
+	}
+
+	private void copyNotes(int from, int to, int length) {
+		if (charIndexes != null) {
+			System.arraycopy(charIndexes, from, charIndexes, to, length);
+		} else if (notes != null) {
+			System.arraycopy(notes, from, notes, to, length);
+		} else {
+			System.arraycopy(byteIndexes, from, byteIndexes, to, length);
+		}
+	}
+
+	/**
+	 * Returns index of the note in the palette, adding it if needed. Switches to wider indexes
+	 * or to storing notes directly when the palette grows too large.
+	 * @return palette index, undefined once notes are stored directly
+	 */
+	private int intern(long note) {
+		if (notes != null) {
+			return -1;
+		}
+
+		if (paletteSize <= LINEAR_SEARCH_PALETTE) {
+			for (int i = 0; i < paletteSize; i++) {
+				if (palette[i] == note) {
+					return i;
+				}
+			}
+		} else {
+			if (paletteHash == null) {
+				rehash(paletteSize * 4);
+			}
+			int mask = paletteHash.length - 1;
+			for (int slot = hash(note) & mask; paletteHash[slot] != 0; slot = (slot + 1) & mask) {
+				if (palette[paletteHash[slot] - 1] == note) {
+					return paletteHash[slot] - 1;
+				}
+			}
+		}
+
+		if (paletteSize == MAX_BYTE_PALETTE && charIndexes == null) {
+			charIndexes = new char[ticks.length];
+			for (int i = 0; i < byteIndexes.length; i++) { // also a note being inserted after the last one
+				charIndexes[i] = (char) (byteIndexes[i] & 0xFF);
+			}
+			byteIndexes = null;
+		} else if (paletteSize == MAX_CHAR_PALETTE) {
+			notes = new long[ticks.length];
+			for (int i = 0; i < charIndexes.length; i++) {
+				notes[i] = palette[charIndexes[i]];
+			}
+			charIndexes = null;
+			palette = EMPTY_NOTES;
+			paletteSize = 0;
+			paletteHash = null;
+			return -1;
+		}
+
+		if (paletteSize == palette.length) {
+			palette = Arrays.copyOf(palette, Math.max(4, paletteSize * 2));
+		}
+		palette[paletteSize] = note;
+		paletteSize++;
+		if (paletteSize > LINEAR_SEARCH_PALETTE) {
+			if (paletteHash == null || paletteSize * 2 > paletteHash.length) {
+				rehash(paletteSize * 4);
+			} else {
+				insertHash(paletteSize - 1);
+			}
+		}
+		return paletteSize - 1;
+	}
+
+	private void rehash(int capacity) {
+		paletteHash = new int[Integer.highestOneBit(Math.max(capacity, 32) - 1) << 1];
+		for (int i = 0; i < paletteSize; i++) {
+			insertHash(i);
+		}
+	}
+
+	private void insertHash(int paletteIndex) {
+		int mask = paletteHash.length - 1;
+		int slot = hash(palette[paletteIndex]) & mask;
+		while (paletteHash[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		paletteHash[slot] = paletteIndex + 1;
+	}
+
+	private static int hash(long note) {
+		long h = note * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**
+	 * Releases unused capacity
+	 */
+	void trimToSize() {
+		if (frozen) {
+			return; // already trimmed and possibly shared by other threads
+		}
+		paletteHash = null; // rebuilt if notes are added later
+		if (palette.length != paletteSize) {
+			palette = Arrays.copyOf(palette, paletteSize);
+		}
+		if (ticks.length != size) {
+			ticks = Arrays.copyOf(ticks, size);
+			if (charIndexes != null) {
+				charIndexes = Arrays.copyOf(charIndexes, size);
+			} else if (notes != null) {
+				notes = Arrays.copyOf(notes, size);
+			} else {
+				byteIndexes = Arrays.copyOf(byteIndexes, size);
+			}
+		}
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= ticks.length) {
+			return;
+		}
+		int newCapacity = Math.max(capacity, Math.max(16, ticks.length + (ticks.length >> 1)));
+		ticks = Arrays.copyOf(ticks, newCapacity);
+		if (charIndexes != null) {
+			charIndexes = Arrays.copyOf(charIndexes, newCapacity);
+		} else if (notes != null) {
+			notes = Arrays.copyOf(notes, newCapacity);
+		} else {
+			byteIndexes = Arrays.copyOf(byteIndexes, newCapacity);
+		}
+	}
+
+	static long pack(Note note) {
+		return pack(note.getInstrument(), note.getKey(), note.getVelocity(), note.getPanning(), note.getPitch());
+	}
+
+	static long pack(byte instrument, byte key, byte velocity, int panning, short pitch) {
+		return ((long) (instrument & 0xFF) << INSTRUMENT_SHIFT)
+				| ((long) (key & 0xFF) << KEY_SHIFT)
+				| ((long) (velocity & 0xFF) << VELOCITY_SHIFT)
+				| ((long) (panning & 0xFFFF) << PANNING_SHIFT)
+				| ((long) (pitch & 0xFFFF) << PITCH_SHIFT);
+	}
+
+	static byte getInstrument(long note) {
+		return (byte) (note >>> INSTRUMENT_SHIFT);
+	}
+
+	static byte getKey(long note) {
+		return (byte) (note >>> KEY_SHIFT);
+	}
+
+	static byte getVelocity(long note) {
+		return (byte) (note >>> VELOCITY_SHIFT);
+	}
+
+	static int getPanning(long note) {
+		return (short) (note >>> PANNING_SHIFT);
+	}
+
+	static short getPitch(long note) {
+		return (short) (note >>> PITCH_SHIFT);
+	}
+
+	/**
+	 * Notes of this Layer by tick returned by {@link #getNotesAtTicks()}, all methods read and change the Layer.
+	 * Extends HashMap for compatibility, its own table is never used.
+	 */
+	private final class NoteMap extends HashMap<Integer, Note> {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return size == 0;
+		}
+
+		@Override
+		public Note get(Object key) {
+			return key instanceof Integer ? getNote((Integer) key) : null;
+		}
+
+		@Override
+		public Note getOrDefault(Object key, Note defaultValue) {
+			Note note = get(key);
+			return note != null ? note : defaultValue;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return key instanceof Integer && Arrays.binarySearch(ticks, 0, size, (Integer) key) >= 0;
+		}
+
+		@Override
+		public boolean containsValue(Object value) {
+			for (int i = 0; i < size; i++) {
+				if (isNote(getPackedNoteAt(i), value)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public Note put(Integer key, Note value) {
+			Note previous = getNote(key);
+			setNote(key, value);
+			return previous;
+		}
+
+		@Override
+		public void putAll(Map<? extends Integer, ? extends Note> m) {
+			for (Map.Entry<? extends Integer, ? extends Note> entry : m.entrySet()) {
+				setNote(entry.getKey(), entry.getValue());
+			}
+		}
+
+		@Override
+		public Note putIfAbsent(Integer key, Note value) {
+			Note previous = getNote(key);
+			if (previous == null) {
+				setNote(key, value);
+			}
+			return previous;
+		}
+
+		@Override
+		public Note remove(Object key) {
+			if (!(key instanceof Integer)) {
+				return null;
+			}
+			Note previous = getNote((Integer) key);
+			if (previous != null) {
+				removeNote((Integer) key);
+			}
+			return previous;
+		}
+
+		@Override
+		public boolean remove(Object key, Object value) {
+			Note note = get(key);
+			if (note == null || !isNote(pack(note), value)) {
+				return false;
+			}
+			removeNote((Integer) key);
+			return true;
+		}
+
+		@Override
+		public Note replace(Integer key, Note value) {
+			Note previous = getNote(key);
+			if (previous != null) {
+				setNote(key, value);
+			}
+			return previous;
+		}
+
+		@Override
+		public boolean replace(Integer key, Note oldValue, Note newValue) {
+			Note note = getNote(key);
+			if (note == null || !isNote(pack(note), oldValue)) {
+				return false;
+			}
+			setNote(key, newValue);
+			return true;
+		}
+
+		@Override
+		public Note computeIfAbsent(Integer key, Function<? super Integer, ? extends Note> mappingFunction) {
+			Note note = getNote(key);
+			if (note == null) {
+				note = mappingFunction.apply(key);
+				if (note != null) {
+					setNote(key, note);
+				}
+			}
+			return note;
+		}
+
+		@Override
+		public Note computeIfPresent(Integer key, BiFunction<? super Integer, ? super Note, ? extends Note> remappingFunction) {
+			Note note = getNote(key);
+			if (note == null) {
+				return null;
+			}
+			note = remappingFunction.apply(key, note);
+			setNote(key, note);
+			return note;
+		}
+
+		@Override
+		public Note compute(Integer key, BiFunction<? super Integer, ? super Note, ? extends Note> remappingFunction) {
+			Note note = remappingFunction.apply(key, getNote(key));
+			setNote(key, note);
+			return note;
+		}
+
+		@Override
+		public Note merge(Integer key, Note value, BiFunction<? super Note, ? super Note, ? extends Note> remappingFunction) {
+			Note note = getNote(key);
+			note = note == null ? value : remappingFunction.apply(note, value);
+			setNote(key, note);
+			return note;
+		}
+
+		@Override
+		public void forEach(BiConsumer<? super Integer, ? super Note> action) {
+			for (Map.Entry<Integer, Note> entry : entrySet()) {
+				action.accept(entry.getKey(), entry.getValue());
+			}
+		}
+
+		@Override
+		public void replaceAll(BiFunction<? super Integer, ? super Note, ? extends Note> function) {
+			for (Map.Entry<Integer, Note> entry : entrySet()) {
+				entry.setValue(function.apply(entry.getKey(), entry.getValue()));
+			}
+		}
+
+		@Override
+		public void clear() {
+			setNotesAtTicks(null);
+		}
+
+		@Override
+		public Set<Map.Entry<Integer, Note>> entrySet() {
+			return new AbstractSet<Map.Entry<Integer, Note>>() {
+				@Override
+				public Iterator<Map.Entry<Integer, Note>> iterator() {
+					return new NoteIterator();
+				}
+
+				@Override
+				public int size() {
+					return size;
+				}
+			};
+		}
+
+		@Override
+		public Set<Integer> keySet() {
+			return new AbstractSet<Integer>() {
+				@Override
+				public Iterator<Integer> iterator() {
+					Iterator<Map.Entry<Integer, Note>> iterator = new NoteIterator();
+					return new Iterator<Integer>() {
+						@Override
+						public boolean hasNext() {
+							return iterator.hasNext();
+						}
+
+						@Override
+						public Integer next() {
+							return iterator.next().getKey();
+						}
+
+						@Override
+						public void remove() {
+							iterator.remove();
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return size;
+				}
+
+				@Override
+				public boolean contains(Object o) {
+					return containsKey(o);
+				}
+			};
+		}
+
+		@Override
+		public Collection<Note> values() {
+			return new AbstractCollection<Note>() {
+				@Override
+				public Iterator<Note> iterator() {
+					Iterator<Map.Entry<Integer, Note>> iterator = new NoteIterator();
+					return new Iterator<Note>() {
+						@Override
+						public boolean hasNext() {
+							return iterator.hasNext();
+						}
+
+						@Override
+						public Note next() {
+							return iterator.next().getValue();
+						}
+
+						@Override
+						public void remove() {
+							iterator.remove();
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return size;
+				}
+			};
+		}
+
+		/**
+		 * Notes don't implement equals, so notes of the map are compared by their values
+		 */
+		private boolean isNote(long note, Object value) {
+			return value instanceof Note && pack((Note) value) == note;
+		}
+
+		@Override
+		public Object clone() {
+			return new HashMap<>(this);
+		}
+
+		private Object writeReplace() {
+			return new HashMap<>(this); // the Layer is not serializable
+		}
+	}
+
+	/**
+	 * Iterates notes of this Layer in order of ticks, fails fast when the Layer is changed by others
+	 */
+	private final class NoteIterator implements Iterator<Map.Entry<Integer, Note>> {
+
+		private int index = 0;
+		private int last = -1;
+		private int expectedModCount = modCount;
+
+		@Override
+		public boolean hasNext() {
+			return index < size;
+		}
+
+		@Override
+		public Map.Entry<Integer, Note> next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (index >= size) {
+				throw new NoSuchElementException();
+			}
+			last = index++;
+			int tick = ticks[last];
+			return new AbstractMap.SimpleEntry<Integer, Note>(tick, new LiveNote(tick, getPackedNoteAt(last))) {
+				@Override
+				public Note setValue(Note value) {
+					if (value == null) {
+						throw new NullPointerException("Use remove to remove a note");
+					}
+					setNote(tick, value);
+					expectedModCount = modCount;
+					return super.setValue(value);
+				}
+			};
+		}
+
+		@Override
+		public void remove() {
+			if (last < 0) {
+				throw new IllegalStateException();
+			}
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			removeNote(ticks[last]);
+			index = last;
+			last = -1;
+			expectedModCount = modCount;
+		}
+	}
+
+	/**
+	 * Note returned by this Layer, changes are written back to its tick
+	 */
+	private final class LiveNote extends Note {
+
+		private final int tick;
+
+		LiveNote(int tick, long note) {
+			super(Layer.getInstrument(note), Layer.getKey(note), Layer.getVelocity(note), Layer.getPanning(note), Layer.getPitch(note));
+			this.tick = tick;
+		}
+
+		@Override
+		public void setInstrument(byte instrument) {
+			super.setInstrument(instrument);
+			setNote(tick, this);
+		}
+
+		@Override
+		public void setKey(byte key) {
+			super.setKey(key);
+			setNote(tick, this);
+		}
+
+		@Override
+		public void setPitch(short pitch) {
+			super.setPitch(pitch);
+			setNote(tick, this);
+		}
+
+		@Override
+		public void setVelocity(byte velocity) {
+			super.setVelocity(velocity);
+			setNote(tick, this);
+		}
+
+		@Override
+		public void setPanning(int panning) {
+			super.setPanning(panning);
+			setNote(tick, this);
+		}
 	}
 
 	/**
@@ -70,7 +874,9 @@ public class Layer {
 	 * @param volume
 	 */
 	public void setVolume(byte volume) {
+		modify();
 		this.volume = volume;
+		modified();
 	}
 
 	/**
@@ -86,6 +892,8 @@ public class Layer {
 	 * @param panning
 	 */
 	public void setPanning(int panning) {
+		modify();
 		this.panning = panning;
+		modified();
 	}
 }
@@ -0,0 +1,286 @@
+package com.xxmicloxx.NoteBlockAPI.model;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * HashMap of the Layers of a {@link Song} counting its changes, so the Song notices added, removed and replaced
+ * Layers without comparing all of them. Changes through the key, value and entry views are counted too.
+ */
+final class LayerMap extends HashMap<Integer, Layer> {
+
+	private static final long serialVersionUID = 1L;
+
+	private volatile long version;
+
+	LayerMap() {
+	}
+
+	LayerMap(Map<Integer, Layer> layers) {
+		super(layers);
+	}
+
+	/**
+	 * Returns value which increases whenever Layers are added, removed or replaced
+	 */
+	long getVersion() {
+		return version;
+	}
+
+	private void changed() {
+		version++; // like HashMap itself, the map is changed by one thread at a time
+	}
+
+	@Override
+	public Layer put(Integer key, Layer value) {
+		Layer previous = super.put(key, value);
+		changed();
+		return previous;
+	}
+
+	@Override
+	public void putAll(Map<? extends Integer, ? extends Layer> m) {
+		super.putAll(m);
+		changed();
+	}
+
+	@Override
+	public Layer remove(Object key) {
+		Layer previous = super.remove(key);
+		changed();
+		return previous;
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		boolean removed = super.remove(key, value);
+		changed();
+		return removed;
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		changed();
+	}
+
+	@Override
+	public Layer putIfAbsent(Integer key, Layer value) {
+		Layer previous = super.putIfAbsent(key, value);
+		changed();
+		return previous;
+	}
+
+	@Override
+	public Layer replace(Integer key, Layer value) {
+		Layer previous = super.replace(key, value);
+		changed();
+		return previous;
+	}
+
+	@Override
+	public boolean replace(Integer key, Layer oldValue, Layer newValue) {
+		boolean replaced = super.replace(key, oldValue, newValue);
+		changed();
+		return replaced;
+	}
+
+	@Override
+	public void replaceAll(BiFunction<? super Integer, ? super Layer, ? extends Layer> function) {
+		super.replaceAll(function);
+		changed();
+	}
+
+	@Override
+	public Layer computeIfAbsent(Integer key, Function<? super Integer, ? extends Layer> mappingFunction) {
+		Layer layer = super.computeIfAbsent(key, mappingFunction);
+		changed();
+		return layer;
+	}
+
+	@Override
+	public Layer computeIfPresent(Integer key, BiFunction<? super Integer, ? super Layer, ? extends Layer> remappingFunction) {
+		Layer layer = super.computeIfPresent(key, remappingFunction);
+		changed();
+		return layer;
+	}
+
+	@Override
+	public Layer compute(Integer key, BiFunction<? super Integer, ? super Layer, ? extends Layer> remappingFunction) {
+		Layer layer = super.compute(key, remappingFunction);
+		changed();
+		return layer;
+	}
+
+	@Override
+	public Layer merge(Integer key, Layer value, BiFunction<? super Layer, ? super Layer, ? extends Layer> remappingFunction) {
+		Layer layer = super.merge(key, value, remappingFunction);
+		changed();
+		return layer;
+	}
+
+	@Override
+	public Set<Integer> keySet() {
+		Set<Integer> keys = super.keySet();
+		return new AbstractSet<Integer>() {
+			@Override
+			public Iterator<Integer> iterator() {
+				return new CountingIterator<>(keys.iterator());
+			}
+
+			@Override
+			public int size() {
+				return keys.size();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return keys.contains(o);
+			}
+
+			@Override
+			public boolean remove(Object o) {
+				return keys.contains(o) && LayerMap.this.remove(o) != null;
+			}
+
+			@Override
+			public void clear() {
+				LayerMap.this.clear();
+			}
+		};
+	}
+
+	@Override
+	public Collection<Layer> values() {
+		Collection<Layer> values = super.values();
+		return new AbstractCollection<Layer>() {
+			@Override
+			public Iterator<Layer> iterator() {
+				return new CountingIterator<>(values.iterator());
+			}
+
+			@Override
+			public int size() {
+				return values.size();
+			}
+
+			@Override
+			public void clear() {
+				LayerMap.this.clear();
+			}
+		};
+	}
+
+	@Override
+	public Set<Map.Entry<Integer, Layer>> entrySet() {
+		Set<Map.Entry<Integer, Layer>> entries = super.entrySet();
+		return new AbstractSet<Map.Entry<Integer, Layer>>() {
+			@Override
+			public Iterator<Map.Entry<Integer, Layer>> iterator() {
+				return new CountingIterator<Map.Entry<Integer, Layer>>(entries.iterator()) {
+					@Override
+					public Map.Entry<Integer, Layer> next() {
+						return new CountingEntry(super.next());
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return entries.size();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return entries.contains(o);
+			}
+
+			@Override
+			public boolean remove(Object o) {
+				boolean removed = entries.remove(o);
+				if (removed) {
+					changed();
+				}
+				return removed;
+			}
+
+			@Override
+			public void clear() {
+				LayerMap.this.clear();
+			}
+		};
+	}
+
+	private class CountingIterator<E> implements Iterator<E> {
+
+		private final Iterator<E> iterator;
+
+		CountingIterator(Iterator<E> iterator) {
+			this.iterator = iterator;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return iterator.hasNext();
+		}
+
+		@Override
+		public E next() {
+			return iterator.next();
+		}
+
+		@Override
+		public void remove() {
+			iterator.remove();
+			changed();
+		}
+	}
+
+	private final class CountingEntry implements Map.Entry<Integer, Layer> {
+
+		private final Map.Entry<Integer, Layer> entry;
+
+		CountingEntry(Map.Entry<Integer, Layer> entry) {
+			this.entry = entry;
+		}
+
+		@Override
+		public Integer getKey() {
+			return entry.getKey();
+		}
+
+		@Override
+		public Layer getValue() {
+			return entry.getValue();
+		}
+
+		@Override
+		public Layer setValue(Layer value) {
+			Layer previous = entry.setValue(value);
+			changed();
+			return previous;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return entry.equals(o);
+		}
+
+		@Override
+		public int hashCode() {
+			return entry.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return entry.toString();
+		}
+	}
+}
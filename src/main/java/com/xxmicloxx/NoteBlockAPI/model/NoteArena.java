@@ -0,0 +1,205 @@
+package com.xxmicloxx.NoteBlockAPI.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Memory outside of the Java heap storing {@link CompiledSong}s, see {@link Song#setNoteArena(NoteArena)}.
+ * <p>
+ * Memory is taken from large direct or memory-mapped buffers (chunks), so notes of any number of Songs
+ * don't add to the work of the garbage collector. Memory of a CompiledSong is reused after the CompiledSong
+ * is collected, e.g. after its Song was reloaded or removed from a library and no SongPlayer plays it anymore.
+ * Chunks are released only with the whole arena.
+ */
+public class NoteArena implements Closeable {
+
+	public static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+	private final int chunkSize;
+	private final FileChannel channel;
+	private final List<ByteBuffer> chunks = new ArrayList<>();
+	private final TreeMap<Long, Integer> free = new TreeMap<>(); // size of free ranges by address
+	private final Set<Allocation> allocations = new HashSet<>();
+	private final ReferenceQueue<Object> released = new ReferenceQueue<>();
+	private long mappedSize;
+	private long capacity;
+	private long allocated;
+	private boolean closed;
+
+	/**
+	 * Creates arena of direct buffers with the default chunk size
+	 */
+	public NoteArena() {
+		this(DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Creates arena of direct buffers
+	 * @param chunkSize size of each direct buffer in bytes
+	 */
+	public NoteArena(int chunkSize) {
+		this(chunkSize, null);
+	}
+
+	private NoteArena(int chunkSize, FileChannel channel) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("Chunk size must be positive");
+		}
+		this.chunkSize = chunkSize;
+		this.channel = channel;
+	}
+
+	/**
+	 * Creates arena of buffers mapped to a file, the operating system can page out notes of unused Songs.
+	 * The file is overwritten and grows by chunks as needed. The file stays open until {@link #close()}.
+	 * @param file file to store notes in
+	 * @param chunkSize size of each mapped region in bytes
+	 * @return new arena
+	 * @throws IOException if the file can't be opened
+	 */
+	public static NoteArena mapped(Path file, int chunkSize) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		return new NoteArena(chunkSize, channel);
+	}
+
+	/**
+	 * Allocates memory from the arena, the memory is reused when the owner is collected
+	 * @param size in bytes
+	 * @param owner object using the memory
+	 * @return buffer of the given capacity in native byte order
+	 */
+	synchronized ByteBuffer allocate(int size, Object owner) {
+		if (closed) {
+			throw new IllegalStateException("Note arena is closed");
+		}
+		expungeReleased();
+
+		size = (size + 7) & ~7; // keep longs aligned
+		long address = -1;
+		for (Map.Entry<Long, Integer> range : free.entrySet()) {
+			if (range.getValue() >= size) {
+				address = range.getKey();
+				free.remove(address);
+				if (range.getValue() > size) {
+					free.put(address + size, range.getValue() - size);
+				}
+				break;
+			}
+		}
+		if (address < 0) {
+			// large Songs get a chunk of their own
+			int newChunkSize = size > chunkSize / 4 ? size : chunkSize;
+			address = (long) newChunk(newChunkSize) << 32;
+			if (newChunkSize > size) {
+				free.put(address + size, newChunkSize - size);
+			}
+		}
+
+		allocated += size;
+		allocations.add(new Allocation(owner, released, address, size));
+		ByteBuffer buffer = chunks.get((int) (address >>> 32)).duplicate();
+		buffer.position((int) address);
+		buffer.limit((int) address + size);
+		return buffer.slice().order(ByteOrder.nativeOrder());
+	}
+
+	private int newChunk(int size) {
+		ByteBuffer chunk;
+		if (channel == null) {
+			chunk = ByteBuffer.allocateDirect(size);
+		} else {
+			try {
+				chunk = channel.map(FileChannel.MapMode.READ_WRITE, mappedSize, size);
+				mappedSize += size;
+			} catch (IOException e) {
+				throw new IllegalStateException("Cannot map note arena", e);
+			}
+		}
+		capacity += size;
+		chunks.add(chunk);
+		return chunks.size() - 1;
+	}
+
+	/**
+	 * Returns memory of collected owners to the free ranges, joining neighbouring ranges of the same chunk
+	 */
+	private void expungeReleased() {
+		Allocation allocation;
+		while ((allocation = (Allocation) released.poll()) != null) {
+			if (!allocations.remove(allocation)) {
+				continue;
+			}
+			allocated -= allocation.size;
+
+			long address = allocation.address;
+			int size = allocation.size;
+			Map.Entry<Long, Integer> previous = free.lowerEntry(address);
+			if (previous != null && previous.getKey() + previous.getValue() == address
+					&& previous.getKey() >>> 32 == address >>> 32) {
+				address = previous.getKey();
+				size += previous.getValue();
+			}
+			Integer next = free.remove(allocation.address + allocation.size);
+			if (next != null) {
+				size += next; // ranges never cross chunks, so the next range starts in the same chunk
+			}
+			free.put(address, size);
+		}
+	}
+
+	/**
+	 * Returns number of bytes allocated by CompiledSongs which were not collected yet
+	 * @return allocated bytes
+	 */
+	public synchronized long getAllocated() {
+		expungeReleased();
+		return allocated;
+	}
+
+	/**
+	 * Returns number of bytes reserved by the arena
+	 * @return size of all chunks in bytes
+	 */
+	public synchronized long getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Closes the file of a mapped arena. Songs compiled before stay readable, no more Songs can be compiled
+	 * into the arena.
+	 * @throws IOException if the file can't be closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		closed = true;
+		if (channel != null) {
+			channel.close();
+		}
+	}
+
+	private static final class Allocation extends PhantomReference<Object> {
+
+		private final long address; // chunk index in the upper 32 bits, offset in the lower ones
+		private final int size;
+
+		Allocation(Object owner, ReferenceQueue<Object> queue, long address, int size) {
+			super(owner, queue);
+			this.address = address;
+			this.size = size;
+		}
+	}
+}
@@ -0,0 +1,339 @@
+package com.xxmicloxx.NoteBlockAPI.model;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Compressed, read-only timeline of the notes of a {@link Song}, used for playback of compressed Songs,
+ * see {@link Song#setCompressed(boolean)}.
+ * <p>
+ * Notes are stored in a single byte array the same way the NBS format stores them: each tick with notes
+ * starts with the gap from the previous such tick followed by its notes, all numbers are varints. Notes
+ * are read strictly forward by a {@link Cursor}, one for each SongPlayer. Jumping to another tick decodes
+ * at most {@link #getSeekInterval()} ticks, starting at the nearest entry of a small seek index.
+ * <p>
+ * Like {@link CompiledSong}, layer volume and panning are already merged into the values of each note
+ * and notes which can't be heard are left out.
+ */
+public class NoteTimeline {
+
+	public static final int DEFAULT_SEEK_INTERVAL = 64;
+
+	private final byte[] data;
+	private final int tickCount;
+	private final int noteCount;
+	private final int seekInterval;
+	private final int[] seekOffsets;
+	private final int[] seekPreviousTicks;
+
+	// version of the Song content this was created from, set by Song before publishing
+	long contentVersion;
+
+	/**
+	 * Creates timeline of the given Song with the default seek interval
+	 * @param song
+	 */
+	public NoteTimeline(Song song) {
+		this(new CompiledSong(song), DEFAULT_SEEK_INTERVAL);
+	}
+
+	/**
+	 * Creates timeline of notes of the given CompiledSong
+	 * @param compiledSong
+	 * @param seekInterval number of ticks between entries of the seek index
+	 */
+	public NoteTimeline(CompiledSong compiledSong, int seekInterval) {
+		if (seekInterval <= 0) {
+			throw new IllegalArgumentException("Seek interval must be positive");
+		}
+		this.seekInterval = seekInterval;
+		tickCount = compiledSong.getTickCount();
+		noteCount = compiledSong.getNoteCount();
+
+		int blocks = (tickCount + seekInterval - 1) / seekInterval;
+		seekOffsets = new int[blocks];
+		seekPreviousTicks = new int[blocks];
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream(noteCount * 6 + 16);
+		ByteArrayOutputStream notes = new ByteArrayOutputStream();
+		int previousTick = -1;
+		int block = 0;
+		for (int tick = 0; tick < tickCount; tick++) {
+			int start = compiledSong.getNotesStart(tick);
+			int end = compiledSong.getNotesEnd(tick);
+			if (start == end) {
+				continue;
+			}
+
+			while (block <= tick / seekInterval) {
+				seekOffsets[block] = out.size();
+				seekPreviousTicks[block] = previousTick;
+				block++;
+			}
+
+			notes.reset();
+			for (int i = start; i < end; i++) {
+				notes.write(compiledSong.getInstrument(i));
+				notes.write(compiledSong.getKey(i));
+				writeSigned(notes, compiledSong.getPitch(i));
+				writeVarInt(notes, compiledSong.getVolume(i) & 0xFFFF);
+				writeSigned(notes, compiledSong.getPanningValue(i));
+				writeSigned(notes, compiledSong.getLayerIndex(i));
+			}
+			writeVarInt(out, tick - previousTick);
+			writeVarInt(out, end - start);
+			writeVarInt(out, notes.size());
+			byte[] noteBytes = notes.toByteArray();
+			out.write(noteBytes, 0, noteBytes.length);
+			previousTick = tick;
+		}
+		for (; block < blocks; block++) {
+			seekOffsets[block] = out.size(); // no more notes after this block
+			seekPreviousTicks[block] = previousTick;
+		}
+		data = out.toByteArray();
+	}
+
+	private static void writeSigned(ByteArrayOutputStream out, int value) {
+		writeVarInt(out, (value << 1) ^ (value >> 31));
+	}
+
+	private static void writeVarInt(ByteArrayOutputStream out, int value) {
+		while ((value & ~0x7F) != 0) {
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+
+	/**
+	 * Creates new cursor at the start of the timeline. A cursor must not be used by multiple threads at once.
+	 * @return Cursor
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * Returns the last tick containing a note + 1
+	 * @return number of ticks
+	 */
+	public int getTickCount() {
+		return tickCount;
+	}
+
+	/**
+	 * Returns number of notes in the timeline
+	 * @return count of notes
+	 */
+	public int getNoteCount() {
+		return noteCount;
+	}
+
+	/**
+	 * Returns number of ticks between entries of the seek index
+	 * @return seek interval in ticks
+	 */
+	public int getSeekInterval() {
+		return seekInterval;
+	}
+
+	/**
+	 * Returns size of the encoded notes and seek index
+	 * @return size in bytes
+	 */
+	public int getSize() {
+		return data.length + seekOffsets.length * 8;
+	}
+
+	/**
+	 * Reads notes of a {@link NoteTimeline} tick by tick. Use {@link #seek(int)} to select a tick
+	 * and {@link #next()} to read its notes one by one.
+	 */
+	public final class Cursor {
+
+		private int position;
+
+		private int previousTick = -1;
+		private int recordTick;
+		private int recordCount;
+		private int recordNotes;
+		private int recordLength;
+
+		private int tick = -1;
+		private int tickNotes;
+		private int tickCount;
+		private int remaining;
+
+		private byte instrument;
+		private byte key;
+		private short pitch;
+		private int volume;
+		private short panning;
+		private int layerIndex;
+
+		private Cursor() {
+			readRecord(0);
+		}
+
+		/**
+		 * Moves the cursor to the notes of the tick. Moving to the next ticks is the fastest,
+		 * moving to the same tick again reads its notes again.
+		 * @param tick
+		 * @return number of notes at the tick
+		 */
+		public int seek(int tick) {
+			if (tick == this.tick) {
+				position = tickNotes;
+				remaining = tickCount;
+				return tickCount;
+			}
+
+			this.tick = tick;
+			tickCount = 0;
+			remaining = 0;
+			if (tick < 0 || tick >= NoteTimeline.this.tickCount) {
+				return 0;
+			}
+
+			if (tick <= previousTick || tick / seekInterval > recordTick / seekInterval) {
+				int block = tick / seekInterval;
+				previousTick = seekPreviousTicks[block];
+				readRecord(seekOffsets[block]);
+			}
+			while (recordTick < tick) {
+				nextRecord();
+			}
+			if (recordTick != tick) {
+				return 0;
+			}
+
+			tickNotes = recordNotes;
+			tickCount = recordCount;
+			nextRecord();
+			position = tickNotes;
+			remaining = tickCount;
+			return tickCount;
+		}
+
+		private void nextRecord() {
+			previousTick = recordTick;
+			readRecord(recordNotes + recordLength);
+		}
+
+		private void readRecord(int offset) {
+			if (offset >= data.length) {
+				recordTick = Integer.MAX_VALUE;
+				recordCount = 0;
+				recordNotes = offset;
+				recordLength = 0;
+				return;
+			}
+			position = offset;
+			recordTick = previousTick + readVarInt();
+			recordCount = readVarInt();
+			recordLength = readVarInt();
+			recordNotes = position;
+		}
+
+		/**
+		 * Reads the next note of the tick selected by {@link #seek(int)}
+		 * @return false if there are no more notes at the tick
+		 */
+		public boolean next() {
+			if (remaining == 0) {
+				return false;
+			}
+			remaining--;
+			instrument = data[position++];
+			key = data[position++];
+			pitch = (short) readSigned();
+			volume = (short) readVarInt();
+			panning = (short) readSigned();
+			layerIndex = readSigned();
+			return true;
+		}
+
+		private int readSigned() {
+			int value = readVarInt();
+			return (value >>> 1) ^ -(value & 1);
+		}
+
+		private int readVarInt() {
+			int value = 0;
+			for (int shift = 0; ; shift += 7) {
+				byte b = data[position++];
+				value |= (b & 0x7F) << shift;
+				if (b >= 0) {
+					return value;
+				}
+			}
+		}
+
+		/**
+		 * Returns timeline read by this cursor
+		 * @return NoteTimeline
+		 */
+		public NoteTimeline getTimeline() {
+			return NoteTimeline.this;
+		}
+
+		/**
+		 * Returns tick selected by {@link #seek(int)}
+		 * @return tick
+		 */
+		public int getTick() {
+			return tick;
+		}
+
+		/**
+		 * Returns instrument of the current note
+		 * @return instrument number
+		 * @see Note#getInstrument()
+		 */
+		public byte getInstrument() {
+			return instrument;
+		}
+
+		/**
+		 * Returns key of the current note
+		 * @return key number
+		 * @see Note#getKey()
+		 */
+		public byte getKey() {
+			return key;
+		}
+
+		/**
+		 * Returns pitch of the current note
+		 * @return pitch (100 = 1 key)
+		 * @see Note#getPitch()
+		 */
+		public short getPitch() {
+			return pitch;
+		}
+
+		/**
+		 * Returns volume of the current note multiplied by volume of its layer
+		 * @return volume (0 - 10000)
+		 */
+		public int getVolume() {
+			return volume;
+		}
+
+		/**
+		 * Returns stereo panning of the current note merged with panning of its layer
+		 * @return panning from -1 to 1, 0 is center
+		 */
+		public float getPanning() {
+			return panning / 200f;
+		}
+
+		/**
+		 * Returns index of the {@link Layer} the current note belongs to
+		 * @return layer index
+		 */
+		public int getLayerIndex() {
+			return layerIndex;
+		}
+	}
+}
@@ -4,9 +4,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+/**
+ * Ordered list of Songs played by a SongPlayer. The list is copied on every change,
+ * so it can be changed from any thread while a SongPlayer is reading it.
+ */
 public class Playlist {
 
-	ArrayList<Song> songs = new ArrayList<>();
+	volatile ArrayList<Song> songs = new ArrayList<>();
 	
 	public Playlist(Song ...songs){
 		if (songs.length == 0){
@@ -20,12 +24,14 @@ public class Playlist {
 	 * Add array of {@link Song} to playlist
 	 * @param songs
 	 */
-	public void add(Song ...songs){
+	public synchronized void add(Song ...songs){
 		if (songs.length == 0){
 			return;
 		}
 		checkNull(songs);
-		this.songs.addAll(Arrays.asList(songs));
+		ArrayList<Song> songsTemp = new ArrayList<>(this.songs);
+		songsTemp.addAll(Arrays.asList(songs));
+		this.songs = songsTemp;
 	}
 
 	/**
@@ -33,7 +39,7 @@ public class Playlist {
 	 * @param index
 	 * @param songs
 	 */
-	public void insert(int index, Song ...songs){
+	public synchronized void insert(int index, Song ...songs){
 		if (songs.length == 0){
 			return;
 		}
@@ -41,7 +47,9 @@ public class Playlist {
 			throw new IllegalArgumentException("Index is higher than playlist size");
 		}
 		checkNull(songs);
-		this.songs.addAll(index, Arrays.asList(songs));
+		ArrayList<Song> songsTemp = new ArrayList<>(this.songs);
+		songsTemp.addAll(index, Arrays.asList(songs));
+		this.songs = songsTemp;
 	}
 	
 	private void checkNull(Song ...songs){
@@ -56,7 +64,7 @@ public class Playlist {
 	 * @param songs
 	 * @throws IllegalArgumentException when you try to remove all {@link Song} from {@link Playlist}
 	 */
-	public void remove(Song ...songs){
+	public synchronized void remove(Song ...songs){
 		ArrayList<Song> songsTemp = new ArrayList<>();
 		songsTemp.addAll(this.songs);
 		songsTemp.removeAll(Arrays.asList(songs));
@@ -67,6 +75,42 @@ public class Playlist {
 		}
 	}
 	
+	/**
+	 * Removes all occurrences of a {@link Song} from playlist unless no other Song would be left
+	 * @param song
+	 * @return true if the song was removed
+	 */
+	public synchronized boolean removeUnlessLast(Song song){
+		ArrayList<Song> songsTemp = new ArrayList<>(this.songs);
+		if (!songsTemp.removeAll(Arrays.asList(song)) || songsTemp.isEmpty()){
+			return false;
+		}
+		this.songs = songsTemp;
+		return true;
+	}
+
+	/**
+	 * Replaces all occurrences of a {@link Song} in playlist, e.g. with its reloaded version
+	 * @param oldSong song to replace
+	 * @param newSong replacement
+	 * @return true if playlist contained oldSong
+	 */
+	public synchronized boolean replace(Song oldSong, Song newSong){
+		checkNull(newSong);
+		ArrayList<Song> songsTemp = new ArrayList<>(this.songs);
+		boolean replaced = false;
+		for (int i = 0; i < songsTemp.size(); i++){
+			if (songsTemp.get(i) == oldSong){
+				songsTemp.set(i, newSong);
+				replaced = true;
+			}
+		}
+		if (replaced){
+			this.songs = songsTemp;
+		}
+		return replaced;
+	}
+
 	/**
 	 * Get {@link Song} in playlist at specified index
 	 * @param songNumber - song index
@@ -3,7 +3,9 @@ package com.xxmicloxx.NoteBlockAPI.model;
 import com.xxmicloxx.NoteBlockAPI.utils.InstrumentUtils;
 
 import java.io.File;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Represents a Note Block Studio project
@@ -11,19 +13,31 @@ import java.util.HashMap;
  */
 public class Song implements Cloneable {
 
-	private HashMap<Integer, Layer> layerHashMap = new HashMap<Integer, Layer>();
-	private short songHeight;
-	private short length;
-	private String title;
-	private File path;
-	private String author;
-	private String originalAuthor;
-	private String description;
-	private float speed;
-	private float delay;
-	private CustomInstrument[] customInstruments;
-	private int firstCustomInstrumentIndex;
-	private boolean isStereo = false;
+	private final LayerMap layerHashMap;
+	private final Map<Integer, Layer> layers;
+	private final short songHeight;
+	private final short length;
+	private final String title;
+	private final File path;
+	private final String author;
+	private final String originalAuthor;
+	private final String description;
+	private final float speed;
+	private final float delay;
+	private final CustomInstrument[] customInstruments;
+	private final int firstCustomInstrumentIndex;
+	private final boolean isStereo;
+	private volatile CompiledSong compiledSong;
+	private volatile NoteArena noteArena;
+	private volatile boolean compressed;
+	private volatile NoteTimeline noteTimeline;
+	private final Song body;
+
+	// content version is checked again only after a watched Layer or the map of Layers changed
+	private volatile long contentVersion;
+	private volatile long checkedModifications = -1;
+	private volatile long checkedMapVersion = -1;
+	private long checkedModCounts;
 
 	/**
 	 * Create Song instance by copying other Song parameters
@@ -35,6 +49,24 @@ public class Song implements Cloneable {
 				other.getDescription(), other.getPath(), other.getFirstCustomInstrumentIndex(), other.getCustomInstruments(), other.isStereo);
 	}
 
+	/**
+	 * Create Song sharing Layers, CustomInstruments and {@link CompiledSong} of other Song, with its own metadata.
+	 * Changes of notes in either Song apply to both.
+	 * @param body song whose content is shared
+	 * @param speed
+	 * @param title
+	 * @param author
+	 * @param originalAuthor
+	 * @param description
+	 * @param path
+	 */
+	public Song(Song body, float speed, String title, String author, String originalAuthor, String description,
+				File path) {
+		this(speed, body.getLayerHashMap(), body.getSongHeight(), body.getLength(), title, author, originalAuthor,
+				description, path, body.getFirstCustomInstrumentIndex(), body.getCustomInstruments(), body.isStereo(),
+				body.body != null ? body.body : body);
+	}
+
 	/**
 	 * @deprecated Use {@link #Song(float, HashMap, short, short, String, String, String, File, int, boolean)}
 	 * @param speed
@@ -134,9 +166,25 @@ public class Song implements Cloneable {
 	public Song(float speed, HashMap<Integer, Layer> layerHashMap,
 		short songHeight, final short length, String title, String author, String originalAuthor,
 				String description, File path, int firstCustomInstrumentIndex, CustomInstrument[] customInstruments, boolean isStereo) {
+		this(speed, layerHashMap, songHeight, length, title, author, originalAuthor, description, path,
+				firstCustomInstrumentIndex, customInstruments, isStereo, null);
+	}
+
+	private Song(float speed, HashMap<Integer, Layer> layerHashMap,
+				short songHeight, final short length, String title, String author, String originalAuthor,
+				String description, File path, int firstCustomInstrumentIndex, CustomInstrument[] customInstruments,
+				boolean isStereo, Song body) {
 		this.speed = speed;
 		delay = 20 / speed;
-		this.layerHashMap = layerHashMap;
+		// Songs sharing Layers share one LayerMap, other maps are copied so changes of the Layers are counted
+		this.layerHashMap = layerHashMap == null || layerHashMap instanceof LayerMap
+				? (LayerMap) layerHashMap : new LayerMap(layerHashMap);
+		layers = layerHashMap == null ? Collections.<Integer, Layer>emptyMap() : Collections.unmodifiableMap(this.layerHashMap);
+		if (layerHashMap != null) {
+			for (Layer layer : this.layerHashMap.values()) {
+				layer.trimToSize();
+			}
+		}
 		this.songHeight = songHeight;
 		this.length = length;
 		this.title = title;
@@ -147,6 +195,7 @@ public class Song implements Cloneable {
 		this.firstCustomInstrumentIndex = firstCustomInstrumentIndex;
 		this.customInstruments = customInstruments;
 		this.isStereo = isStereo;
+		this.body = body;
 	}
 
 	/**
@@ -157,6 +206,14 @@ public class Song implements Cloneable {
 		return layerHashMap;
 	}
 
+	/**
+	 * Gets all Layers in this Song and their index as a read-only view, without copying them
+	 * @return Map of Layers and their index
+	 */
+	public Map<Integer, Layer> getLayers() {
+		return layers;
+	}
+
 	/**
 	 * Gets the Song's height
 	 * @return Song height
@@ -238,6 +295,147 @@ public class Song implements Cloneable {
 		return customInstruments;
 	}
 
+	/**
+	 * Gets the CustomInstrument at the index of {@link #getCustomInstruments()} without copying the array,
+	 * used when notes are played
+	 * @param index index of the CustomInstrument, instrument of the note - first custom instrument index
+	 * @return CustomInstrument
+	 */
+	public CustomInstrument getCustomInstrument(int index) {
+		return customInstruments[index];
+	}
+
+	/**
+	 * Returns {@link CompiledSong} used for playback of this Song. It is created on first call and reused
+	 * until {@link Layer}s of this Song or their notes are changed, then it is created again.
+	 * @return CompiledSong
+	 */
+	public CompiledSong getCompiledSong() {
+		if (body != null) {
+			return body.getCompiledSong();
+		}
+		CompiledSong compiled = compiledSong;
+		long version = getContentVersion();
+		if (compiled == null || compiled.contentVersion != version) {
+			compiled = new CompiledSong(this, noteArena);
+			compiled.contentVersion = version;
+			compiledSong = compiled;
+		}
+		return compiled;
+	}
+
+	/**
+	 * Returns value which changes whenever Layers of this Song are added, removed or changed.
+	 * Layers are compared only after some watched Layer or the map of Layers changed since the last call.
+	 */
+	long getContentVersion() {
+		if (layerHashMap == null) {
+			return 0;
+		}
+		if (checkedModifications == Layer.getModifications() && checkedMapVersion == layerHashMap.getVersion()) {
+			return contentVersion;
+		}
+		synchronized (layerHashMap) {
+			long modifications = Layer.getModifications();
+			long mapVersion = layerHashMap.getVersion();
+			long modCounts = 0;
+			for (Layer layer : layerHashMap.values()) {
+				layer.watch(); // before reading its mod count, so no later change is missed
+				modCounts += layer.getModCount();
+			}
+			if (mapVersion != checkedMapVersion || modCounts != checkedModCounts) {
+				checkedModCounts = modCounts;
+				contentVersion++;
+			}
+			checkedMapVersion = mapVersion;
+			checkedModifications = modifications;
+			return contentVersion;
+		}
+	}
+
+	/**
+	 * Discards {@link CompiledSong} of this Song so it is created again from current {@link Layer}s.
+	 * Changes of Layers are detected automatically, this is only needed after changing {@link CustomInstrument}s.
+	 */
+	public void invalidateCompiledSong() {
+		if (body != null) {
+			body.invalidateCompiledSong();
+		}
+		compiledSong = null;
+		noteTimeline = null;
+	}
+
+	/**
+	 * Returns {@link NoteTimeline} used for playback of this Song when it is compressed. It is created on first call
+	 * and reused until {@link Layer}s of this Song or their notes are changed, then it is created again.
+	 * @return NoteTimeline
+	 */
+	public NoteTimeline getNoteTimeline() {
+		if (body != null) {
+			return body.getNoteTimeline();
+		}
+		NoteTimeline timeline = noteTimeline;
+		long version = getContentVersion();
+		if (timeline == null || timeline.contentVersion != version) {
+			timeline = new NoteTimeline(this);
+			timeline.contentVersion = version;
+			noteTimeline = timeline;
+		}
+		return timeline;
+	}
+
+	/**
+	 * Returns whether SongPlayers read notes of this Song from its {@link NoteTimeline}
+	 * @return true if this Song is compressed
+	 * @see #setCompressed(boolean)
+	 */
+	public boolean isCompressed() {
+		return body != null ? body.isCompressed() : compressed;
+	}
+
+	/**
+	 * Sets whether SongPlayers read notes of this Song from a compressed {@link NoteTimeline} instead of
+	 * its {@link CompiledSong}. A compressed Song takes several times less memory while playing, but sounds
+	 * of notes are looked up whenever they are played. An already created CompiledSong is discarded.
+	 * @param compressed
+	 */
+	public void setCompressed(boolean compressed) {
+		if (body != null) {
+			body.setCompressed(compressed);
+			return;
+		}
+		this.compressed = compressed;
+		if (compressed) {
+			compiledSong = null;
+		} else {
+			noteTimeline = null;
+		}
+	}
+
+	/**
+	 * Returns arena the {@link CompiledSong} of this Song is stored in
+	 * @return NoteArena or null if it is stored on the heap
+	 */
+	public NoteArena getNoteArena() {
+		return body != null ? body.getNoteArena() : noteArena;
+	}
+
+	/**
+	 * Sets arena the {@link CompiledSong} of this Song is stored in, Songs of a large library should share one arena.
+	 * An already created CompiledSong is discarded, its arena memory is reused once no SongPlayer uses it.
+	 * @param noteArena NoteArena or null to store the CompiledSong on the heap
+	 */
+	public void setNoteArena(NoteArena noteArena) {
+		if (body != null) {
+			body.setNoteArena(noteArena);
+			return;
+		}
+		if (this.noteArena != noteArena) {
+			this.noteArena = noteArena;
+			compiledSong = null;
+		}
+	}
+
 	@Override
 	public Song clone() {
 		return new Song(this);
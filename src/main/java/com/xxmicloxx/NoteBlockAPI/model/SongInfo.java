@@ -0,0 +1,166 @@
+package com.xxmicloxx.NoteBlockAPI.model;
+
+import java.io.File;
+
+/**
+ * Metadata of a Note Block Studio project read without loading its notes
+ * @see com.xxmicloxx.NoteBlockAPI.utils.NBSDecoder#readMetadata(File)
+ */
+public class SongInfo {
+
+	private final File path;
+	private final int version;
+	private final int firstCustomInstrumentIndex;
+	private final short length;
+	private final short songHeight;
+	private final String title;
+	private final String author;
+	private final String originalAuthor;
+	private final String description;
+	private final float speed;
+	private final boolean loop;
+	private final int maxLoopCount;
+	private final short loopStartTick;
+	private final int noteCount;
+
+	public SongInfo(File path, int version, int firstCustomInstrumentIndex, short length, short songHeight,
+					String title, String author, String originalAuthor, String description, float speed,
+					boolean loop, int maxLoopCount, short loopStartTick, int noteCount) {
+		this.path = path;
+		this.version = version;
+		this.firstCustomInstrumentIndex = firstCustomInstrumentIndex;
+		this.length = length;
+		this.songHeight = songHeight;
+		this.title = title;
+		this.author = author;
+		this.originalAuthor = originalAuthor;
+		this.description = description;
+		this.speed = speed;
+		this.loop = loop;
+		this.maxLoopCount = maxLoopCount;
+		this.loopStartTick = loopStartTick;
+		this.noteCount = noteCount;
+	}
+
+	/**
+	 * Returns the File this metadata was read from
+	 * @return file or null if the source is unknown
+	 */
+	public File getPath() {
+		return path;
+	}
+
+	/**
+	 * Returns version of the nbs format, 0 for the classic format
+	 * @return nbs version
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns index of the first custom instrument as stored in the file
+	 * @return instrument index
+	 */
+	public int getFirstCustomInstrumentIndex() {
+		return firstCustomInstrumentIndex;
+	}
+
+	/**
+	 * Gets the length in ticks of the Song.
+	 * Files of nbs version 1 and 2 don't store length, it is 0 unless notes were counted.
+	 * @return length of the Song
+	 */
+	public short getLength() {
+		return length;
+	}
+
+	/**
+	 * Gets the Song's height
+	 * @return Song height
+	 */
+	public short getSongHeight() {
+		return songHeight;
+	}
+
+	/**
+	 * Gets the title / name of the Song
+	 * @return title of the Song
+	 */
+	public String getTitle() {
+		return title;
+	}
+
+	/**
+	 * Gets the author of the Song
+	 * @return author
+	 */
+	public String getAuthor() {
+		return author;
+	}
+
+	/**
+	 * Gets the original author of the Song
+	 * @return author
+	 */
+	public String getOriginalAuthor() {
+		return originalAuthor;
+	}
+
+	/**
+	 * Gets the description of the Song
+	 * @return description
+	 */
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * Gets the speed (ticks per second) of the Song
+	 * @return speed
+	 */
+	public float getSpeed() {
+		return speed;
+	}
+
+	/**
+	 * Gets the delay of the Song
+	 * @return delay
+	 * @see Song#getDelay()
+	 */
+	public float getDelay() {
+		return 20 / speed;
+	}
+
+	/**
+	 * Returns whether looping is enabled in the file (nbs version 4+)
+	 * @return loop on/off
+	 */
+	public boolean isLoop() {
+		return loop;
+	}
+
+	/**
+	 * Returns how many times the Song should loop, 0 for infinite (nbs version 4+)
+	 * @return max loop count
+	 */
+	public int getMaxLoopCount() {
+		return maxLoopCount;
+	}
+
+	/**
+	 * Returns the tick the Song loops to (nbs version 4+)
+	 * @return loop start tick
+	 */
+	public short getLoopStartTick() {
+		return loopStartTick;
+	}
+
+	/**
+	 * Returns number of notes in the Song
+	 * @return count of notes or -1 if notes were not counted
+	 */
+	public int getNoteCount() {
+		return noteCount;
+	}
+}
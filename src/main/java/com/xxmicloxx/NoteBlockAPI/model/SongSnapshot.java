@@ -0,0 +1,243 @@
+package com.xxmicloxx.NoteBlockAPI.model;
+
+import com.xxmicloxx.NoteBlockAPI.utils.InstrumentUtils;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Deeply immutable {@link Song}, safe to share between any number of SongPlayers and threads without locking.
+ * <p>
+ * All fields are final and the {@link Layer}s are frozen copies made while the snapshot is created, so a snapshot
+ * is completely visible to every thread which sees a reference to it. Frozen Layers throw
+ * {@link UnsupportedOperationException} when they are changed, use {@link Builder} to create a changed snapshot.
+ * {@link #getLayers()} returns the Layers without copying, {@link #getLayerHashMap()} returns a new map on every call.
+ * Playback settings which would change the shared state of a snapshot can't be changed either.
+ */
+public final class SongSnapshot extends Song {
+
+	/**
+	 * Creates snapshot of the current content of the Song
+	 * @param song
+	 */
+	public SongSnapshot(Song song) {
+		this(song.getSpeed(), song.getLayers(), song.getSongHeight(), song.getLength(), song.getTitle(), song.getAuthor(),
+				song.getOriginalAuthor(), song.getDescription(), song.getPath(), song.getFirstCustomInstrumentIndex(),
+				song.getCustomInstruments(), song.isStereo());
+	}
+
+	private SongSnapshot(float speed, Map<Integer, Layer> layers, short songHeight, short length, String title,
+						 String author, String originalAuthor, String description, File path,
+						 int firstCustomInstrumentIndex, CustomInstrument[] customInstruments, boolean isStereo) {
+		super(speed, freeze(layers), songHeight, length, title, author, originalAuthor, description, path,
+				firstCustomInstrumentIndex, customInstruments == null ? new CustomInstrument[0] : customInstruments.clone(),
+				isStereo);
+	}
+
+	private static LayerMap freeze(Map<Integer, Layer> layers) {
+		LayerMap frozen = new LayerMap();
+		for (Map.Entry<Integer, Layer> entry : layers.entrySet()) {
+			frozen.put(entry.getKey(), entry.getValue().frozenCopy());
+		}
+		return frozen;
+	}
+
+	/**
+	 * Returns new map of the frozen Layers of this snapshot, use {@link #getLayers()} to avoid copying
+	 * @return HashMap of Layers and their index
+	 */
+	@Override
+	public HashMap<Integer, Layer> getLayerHashMap() {
+		return new HashMap<>(getLayers());
+	}
+
+	/**
+	 * Returns copy of the CustomInstruments of this snapshot
+	 * @return array of CustomInstruments
+	 */
+	@Override
+	public CustomInstrument[] getCustomInstruments() {
+		return super.getCustomInstruments().clone();
+	}
+
+	/**
+	 * Snapshots are never compressed
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void setCompressed(boolean compressed) {
+		throw new UnsupportedOperationException("SongSnapshot can't be changed");
+	}
+
+	/**
+	 * Snapshots are compiled on the heap
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void setNoteArena(NoteArena noteArena) {
+		throw new UnsupportedOperationException("SongSnapshot can't be changed");
+	}
+
+	/**
+	 * CompiledSong of a snapshot never becomes outdated
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void invalidateCompiledSong() {
+		throw new UnsupportedOperationException("SongSnapshot can't be changed");
+	}
+
+	@Override
+	long getContentVersion() {
+		return 0; // frozen Layers never change
+	}
+
+	/**
+	 * Snapshots can't be changed, so they are not cloned
+	 * @return this snapshot
+	 */
+	@Override
+	public SongSnapshot clone() {
+		return this;
+	}
+
+	/**
+	 * Creates {@link SongSnapshot}s. Layers of the builder are mutable copies, changing them doesn't affect
+	 * snapshots built before.
+	 */
+	public static class Builder {
+
+		private final HashMap<Integer, Layer> layers = new HashMap<>();
+		private float speed = 10;
+		private short songHeight;
+		private short length;
+		private String title = "";
+		private String author = "";
+		private String originalAuthor = "";
+		private String description = "";
+		private File path;
+		private int firstCustomInstrumentIndex = InstrumentUtils.getCustomInstrumentFirstIndex();
+		private CustomInstrument[] customInstruments = new CustomInstrument[0];
+		private boolean stereo;
+
+		/**
+		 * Creates builder of an empty Song
+		 */
+		public Builder() {
+		}
+
+		/**
+		 * Creates builder with copy of the content of the Song
+		 * @param song
+		 */
+		public Builder(Song song) {
+			for (Map.Entry<Integer, Layer> entry : song.getLayers().entrySet()) {
+				layers.put(entry.getKey(), new Layer(entry.getValue()));
+			}
+			speed = song.getSpeed();
+			songHeight = song.getSongHeight();
+			length = song.getLength();
+			title = song.getTitle();
+			author = song.getAuthor();
+			originalAuthor = song.getOriginalAuthor();
+			description = song.getDescription();
+			path = song.getPath();
+			firstCustomInstrumentIndex = song.getFirstCustomInstrumentIndex();
+			customInstruments = song.getCustomInstruments() == null ? new CustomInstrument[0] : song.getCustomInstruments();
+			stereo = song.isStereo();
+		}
+
+		/**
+		 * Returns Layer at the index, creating it if it doesn't exist
+		 * @param index
+		 * @return mutable Layer
+		 */
+		public Layer getLayer(int index) {
+			Layer layer = layers.get(index);
+			if (layer == null) {
+				layer = new Layer();
+				layers.put(index, layer);
+				songHeight = (short) Math.max(songHeight, index + 1);
+			}
+			return layer;
+		}
+
+		/**
+		 * Returns all Layers of the builder and their index, changes of the map apply to the builder
+		 * @return HashMap of Layers and their index
+		 */
+		public HashMap<Integer, Layer> getLayers() {
+			return layers;
+		}
+
+		public Builder removeLayer(int index) {
+			layers.remove(index);
+			return this;
+		}
+
+		public Builder setSpeed(float speed) {
+			this.speed = speed;
+			return this;
+		}
+
+		public Builder setSongHeight(short songHeight) {
+			this.songHeight = songHeight;
+			return this;
+		}
+
+		public Builder setLength(short length) {
+			this.length = length;
+			return this;
+		}
+
+		public Builder setTitle(String title) {
+			this.title = title;
+			return this;
+		}
+
+		public Builder setAuthor(String author) {
+			this.author = author;
+			return this;
+		}
+
+		public Builder setOriginalAuthor(String originalAuthor) {
+			this.originalAuthor = originalAuthor;
+			return this;
+		}
+
+		public Builder setDescription(String description) {
+			this.description = description;
+			return this;
+		}
+
+		public Builder setPath(File path) {
+			this.path = path;
+			return this;
+		}
+
+		public Builder setFirstCustomInstrumentIndex(int firstCustomInstrumentIndex) {
+			this.firstCustomInstrumentIndex = firstCustomInstrumentIndex;
+			return this;
+		}
+
+		public Builder setCustomInstruments(CustomInstrument[] customInstruments) {
+			this.customInstruments = customInstruments;
+			return this;
+		}
+
+		public Builder setStereo(boolean stereo) {
+			this.stereo = stereo;
+			return this;
+		}
+
+		/**
+		 * Creates snapshot of the current content of the builder, the builder can be changed and used again
+		 * @return new SongSnapshot
+		 */
+		public SongSnapshot build() {
+			return new SongSnapshot(speed, layers, songHeight, length, title, author, originalAuthor, description, path,
+					firstCustomInstrumentIndex, customInstruments, stereo);
+		}
+	}
+}
@@ -1,9 +1,18 @@
 package com.xxmicloxx.NoteBlockAPI.model.playmode;
 
+import com.xxmicloxx.NoteBlockAPI.NoteBlockAPI;
+import com.xxmicloxx.NoteBlockAPI.model.CompiledSong;
+import com.xxmicloxx.NoteBlockAPI.model.CustomInstrument;
 import com.xxmicloxx.NoteBlockAPI.model.Layer;
 import com.xxmicloxx.NoteBlockAPI.model.Note;
+import com.xxmicloxx.NoteBlockAPI.model.NoteTimeline;
 import com.xxmicloxx.NoteBlockAPI.model.Song;
 import com.xxmicloxx.NoteBlockAPI.model.SoundCategory;
+import com.xxmicloxx.NoteBlockAPI.sound.BukkitSoundSink;
+import com.xxmicloxx.NoteBlockAPI.sound.SoundRecording;
+import com.xxmicloxx.NoteBlockAPI.sound.SoundSink;
+import com.xxmicloxx.NoteBlockAPI.utils.InstrumentUtils;
+import com.xxmicloxx.NoteBlockAPI.utils.NoteUtils;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
@@ -12,10 +21,140 @@ import org.bukkit.entity.Player;
  */
 public abstract class ChannelMode {
 
+    private static final SoundSink DEFAULT_SOUND_SINK = new BukkitSoundSink();
+    private static final ThreadLocal<SoundSink> RECORDING = new ThreadLocal<>();
+
     @Deprecated
     public abstract void play(Player player, Location location, Song song, Layer layer, Note note,
                               SoundCategory soundCategory, float volume, float pitch);
 
     public abstract void play(Player player, Location location, Song song, Layer layer, Note note,
                               SoundCategory soundCategory, float volume, boolean doTranspose);
-}
\ No newline at end of file
+
+    /**
+     * Plays note of {@link CompiledSong} to {@link Player}.
+     * <p>
+     * Default implementation looks up {@link Layer} and {@link Note} of the played note and calls
+     * {@link #play(Player, Location, Song, Layer, Note, SoundCategory, float, boolean)}.
+     * @param tick tick the note is played at
+     * @param index index of the note in compiledSong
+     */
+    public void play(Player player, Location location, Song song, CompiledSong compiledSong, int tick, int index,
+                     SoundCategory soundCategory, float volume, boolean doTranspose) {
+        Layer layer = song.getLayers().get(compiledSong.getLayerIndex(index));
+        play(player, location, song, layer, layer.getNote(tick), soundCategory, volume, doTranspose);
+    }
+
+    /**
+     * Plays the current note of {@link NoteTimeline.Cursor} to {@link Player}.
+     * <p>
+     * Default implementation looks up {@link Layer} and {@link Note} of the played note and calls
+     * {@link #play(Player, Location, Song, Layer, Note, SoundCategory, float, boolean)}.
+     * @param cursor cursor at the played note
+     */
+    public void play(Player player, Location location, Song song, NoteTimeline.Cursor cursor,
+                     SoundCategory soundCategory, float volume, boolean doTranspose) {
+        Layer layer = song.getLayers().get(cursor.getLayerIndex());
+        play(player, location, song, layer, layer.getNote(cursor.getTick()), soundCategory, volume, doTranspose);
+    }
+
+    /**
+     * Runs the task with all sounds played by ChannelModes on the current thread sent to the recording instead.
+     * Only sounds played through {@link #getSoundSink()} are recorded.
+     * @param recording SoundSink receiving the sounds, usually {@link SoundRecording}
+     * @param task task playing the sounds
+     */
+    public static void record(SoundSink recording, Runnable task) {
+        SoundSink previous = RECORDING.get();
+        RECORDING.set(recording);
+        try {
+            task.run();
+        } finally {
+            if (previous == null) {
+                RECORDING.remove();
+            } else {
+                RECORDING.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Returns {@link SoundSink} sounds are played through
+     * @return SoundSink
+     */
+    protected static SoundSink getSoundSink() {
+        SoundSink recording = RECORDING.get();
+        if (recording != null) {
+            return recording;
+        }
+        NoteBlockAPI api = NoteBlockAPI.getAPI();
+        return api == null ? DEFAULT_SOUND_SINK : api.getSoundSink();
+    }
+
+    /**
+     * Plays note of {@link CompiledSong} at specified distance from location
+     * @param index index of the note in compiledSong
+     * @param distance negative for left side, positive for right side
+     */
+    protected static void playNote(Player player, Location location, CompiledSong compiledSong, int index,
+                                   SoundCategory soundCategory, float volume, boolean doTranspose, float distance) {
+        SoundSink soundSink = getSoundSink();
+        org.bukkit.Sound sound = compiledSong.getSound(index, doTranspose);
+        if (sound != null) {
+            soundSink.playSound(player, location, sound, soundCategory, volume, compiledSong.getSoundPitch(index, doTranspose), distance);
+            return;
+        }
+
+        String soundName = compiledSong.getSoundName(index, doTranspose);
+        if (soundName != null) {
+            soundSink.playSound(player, location, soundName, soundCategory, volume, compiledSong.getSoundPitch(index, doTranspose), distance);
+        }
+    }
+
+    /**
+     * Plays the current note of {@link NoteTimeline.Cursor} at specified distance from location
+     * @param distance negative for left side, positive for right side
+     */
+    protected static void playNote(Player player, Location location, Song song, NoteTimeline.Cursor cursor,
+                                   SoundCategory soundCategory, float volume, boolean doTranspose, float distance) {
+        try {
+            playNote(player, location, song, cursor.getInstrument(), cursor.getKey(), cursor.getPitch(),
+                    soundCategory, volume, doTranspose, distance);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // key or custom instrument can't be played, leave the note silent like CompiledSong does
+        }
+    }
+
+    /**
+     * Plays note with the given parameters at specified distance from location
+     * @param distance negative for left side, positive for right side
+     */
+    protected static void playNote(Player player, Location location, Song song, byte instrumentIndex, byte key, short notePitch,
+                                   SoundCategory soundCategory, float volume, boolean doTranspose, float distance) {
+        float pitch;
+        if(doTranspose)
+            pitch = NoteUtils.getPitchTransposed(key, notePitch);
+        else
+            pitch = NoteUtils.getPitchInOctave(key, notePitch);
+
+        if (InstrumentUtils.isCustomInstrument(instrumentIndex)) {
+            CustomInstrument instrument = song.getCustomInstrument(instrumentIndex - InstrumentUtils.getCustomInstrumentFirstIndex());
+
+            if (!doTranspose){
+                getSoundSink().playSound(player, location, InstrumentUtils.warpNameOutOfRange(instrument.getSoundFileName(), key, notePitch), soundCategory, volume, pitch, distance);
+            } else {
+                if (instrument.getSound() != null) {
+                    getSoundSink().playSound(player, location, instrument.getSound(), soundCategory, volume, pitch, distance);
+                } else {
+                    getSoundSink().playSound(player, location, instrument.getSoundFileName(), soundCategory, volume, pitch, distance);
+                }
+            }
+        } else {
+            if (NoteUtils.isOutOfRange(key, notePitch) && !doTranspose) {
+                getSoundSink().playSound(player, location, InstrumentUtils.warpNameOutOfRange(instrumentIndex, key, notePitch), soundCategory, volume, pitch, distance);
+            } else {
+                getSoundSink().playSound(player, location, InstrumentUtils.getInstrument(instrumentIndex), soundCategory, volume, pitch, distance);
+            }
+        }
+    }
+}
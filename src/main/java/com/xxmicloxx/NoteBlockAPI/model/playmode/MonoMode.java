@@ -1,9 +1,7 @@
 package com.xxmicloxx.NoteBlockAPI.model.playmode;
 
 import com.xxmicloxx.NoteBlockAPI.model.*;
-import com.xxmicloxx.NoteBlockAPI.utils.CompatibilityUtils;
 import com.xxmicloxx.NoteBlockAPI.utils.InstrumentUtils;
-import com.xxmicloxx.NoteBlockAPI.utils.NoteUtils;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
@@ -15,45 +13,30 @@ public class MonoMode extends ChannelMode {
     @Override
     public void play(Player player, Location location, Song song, Layer layer, Note note, SoundCategory soundCategory, float volume, float pitch) {
         if (InstrumentUtils.isCustomInstrument(note.getInstrument())) {
-            CustomInstrument instrument = song.getCustomInstruments()[note.getInstrument() - InstrumentUtils.getCustomInstrumentFirstIndex()];
+            CustomInstrument instrument = song.getCustomInstrument(note.getInstrument() - InstrumentUtils.getCustomInstrumentFirstIndex());
 
             if (instrument.getSound() != null) {
-                CompatibilityUtils.playSound(player, location, instrument.getSound(), soundCategory, volume, pitch, 0);
+                getSoundSink().playSound(player, location, instrument.getSound(), soundCategory, volume, pitch, 0);
             } else {
-                CompatibilityUtils.playSound(player, location, instrument.getSoundFileName(), soundCategory, volume, pitch, 0);
+                getSoundSink().playSound(player, location, instrument.getSoundFileName(), soundCategory, volume, pitch, 0);
             }
         } else {
-            CompatibilityUtils.playSound(player, location, InstrumentUtils.getInstrument(note.getInstrument()), soundCategory, volume, pitch, 0);
+            getSoundSink().playSound(player, location, InstrumentUtils.getInstrument(note.getInstrument()), soundCategory, volume, pitch, 0);
         }
     }
 
     @Override
     public void play(Player player, Location location, Song song, Layer layer, Note note, SoundCategory soundCategory, float volume, boolean doTranspose) {
-        float pitch;
-        if(doTranspose)
-            pitch = NoteUtils.getPitchTransposed(note);
-        else
-            pitch = NoteUtils.getPitchInOctave(note);
-        if (InstrumentUtils.isCustomInstrument(note.getInstrument())) {
-            CustomInstrument instrument = song.getCustomInstruments()[note.getInstrument() - InstrumentUtils.getCustomInstrumentFirstIndex()];
+        playNote(player, location, song, note.getInstrument(), note.getKey(), note.getPitch(), soundCategory, volume, doTranspose, 0);
+    }
 
-            if (!doTranspose){
-                CompatibilityUtils.playSound(player, location, InstrumentUtils.warpNameOutOfRange(instrument.getSoundFileName(), note.getKey(), note.getPitch()), soundCategory, volume, pitch, 0);
-            } else {
-                if (instrument.getSound() != null) {
-                    CompatibilityUtils.playSound(player, location, instrument.getSound(), soundCategory, volume, pitch, 0);
-                } else {
-                    CompatibilityUtils.playSound(player, location, instrument.getSoundFileName(), soundCategory, volume, pitch, 0);
-                }
-            }
+    @Override
+    public void play(Player player, Location location, Song song, CompiledSong compiledSong, int tick, int index, SoundCategory soundCategory, float volume, boolean doTranspose) {
+        playNote(player, location, compiledSong, index, soundCategory, volume, doTranspose, 0);
+    }
 
-        } else {
-            if (NoteUtils.isOutOfRange(note.getKey(), note.getPitch()) && !doTranspose) {
-                CompatibilityUtils.playSound(player, location, InstrumentUtils.warpNameOutOfRange(note.getInstrument(), note.getKey(), note.getPitch()), soundCategory, volume, pitch, 0);
-            }
-            else {
-                CompatibilityUtils.playSound(player, location, InstrumentUtils.getInstrument(note.getInstrument()), soundCategory, volume, pitch, 0);
-            }
-        }
+    @Override
+    public void play(Player player, Location location, Song song, NoteTimeline.Cursor cursor, SoundCategory soundCategory, float volume, boolean doTranspose) {
+        playNote(player, location, song, cursor, soundCategory, volume, doTranspose, 0);
     }
 }
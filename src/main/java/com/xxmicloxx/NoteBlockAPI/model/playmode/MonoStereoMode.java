@@ -1,9 +1,7 @@
 package com.xxmicloxx.NoteBlockAPI.model.playmode;
 
 import com.xxmicloxx.NoteBlockAPI.model.*;
-import com.xxmicloxx.NoteBlockAPI.utils.CompatibilityUtils;
 import com.xxmicloxx.NoteBlockAPI.utils.InstrumentUtils;
-import com.xxmicloxx.NoteBlockAPI.utils.NoteUtils;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
@@ -17,53 +15,37 @@ public class MonoStereoMode extends ChannelMode{
     @Override
     public void play(Player player, Location location, Song song, Layer layer, Note note, SoundCategory soundCategory, float volume, float pitch) {
         if (InstrumentUtils.isCustomInstrument(note.getInstrument())) {
-            CustomInstrument instrument = song.getCustomInstruments()[note.getInstrument() - InstrumentUtils.getCustomInstrumentFirstIndex()];
+            CustomInstrument instrument = song.getCustomInstrument(note.getInstrument() - InstrumentUtils.getCustomInstrumentFirstIndex());
 
             if (instrument.getSound() != null) {
-                CompatibilityUtils.playSound(player, location, instrument.getSound(), soundCategory, volume, pitch, distance);
-                CompatibilityUtils.playSound(player, location, instrument.getSound(), soundCategory, volume, pitch, -distance);
+                getSoundSink().playSound(player, location, instrument.getSound(), soundCategory, volume, pitch, distance);
+                getSoundSink().playSound(player, location, instrument.getSound(), soundCategory, volume, pitch, -distance);
             } else {
-                CompatibilityUtils.playSound(player, location, instrument.getSoundFileName(), soundCategory, volume, pitch, distance);
-                CompatibilityUtils.playSound(player, location, instrument.getSoundFileName(), soundCategory, volume, pitch, -distance);
+                getSoundSink().playSound(player, location, instrument.getSoundFileName(), soundCategory, volume, pitch, distance);
+                getSoundSink().playSound(player, location, instrument.getSoundFileName(), soundCategory, volume, pitch, -distance);
             }
         } else {
-            CompatibilityUtils.playSound(player, location, InstrumentUtils.getInstrument(note.getInstrument()), soundCategory, volume, pitch, distance);
-            CompatibilityUtils.playSound(player, location, InstrumentUtils.getInstrument(note.getInstrument()), soundCategory, volume, pitch, -distance);
+            getSoundSink().playSound(player, location, InstrumentUtils.getInstrument(note.getInstrument()), soundCategory, volume, pitch, distance);
+            getSoundSink().playSound(player, location, InstrumentUtils.getInstrument(note.getInstrument()), soundCategory, volume, pitch, -distance);
         }
     }
 
     @Override
     public void play(Player player, Location location, Song song, Layer layer, Note note, SoundCategory soundCategory, float volume, boolean doTranspose) {
-        float pitch;
-        if(doTranspose)
-            pitch = NoteUtils.getPitchTransposed(note);
-        else
-            pitch = NoteUtils.getPitchInOctave(note);
+        playNote(player, location, song, note.getInstrument(), note.getKey(), note.getPitch(), soundCategory, volume, doTranspose, distance);
+        playNote(player, location, song, note.getInstrument(), note.getKey(), note.getPitch(), soundCategory, volume, doTranspose, -distance);
+    }
 
-        if (InstrumentUtils.isCustomInstrument(note.getInstrument())) {
-            CustomInstrument instrument = song.getCustomInstruments()[note.getInstrument() - InstrumentUtils.getCustomInstrumentFirstIndex()];
+    @Override
+    public void play(Player player, Location location, Song song, CompiledSong compiledSong, int tick, int index, SoundCategory soundCategory, float volume, boolean doTranspose) {
+        playNote(player, location, compiledSong, index, soundCategory, volume, doTranspose, distance);
+        playNote(player, location, compiledSong, index, soundCategory, volume, doTranspose, -distance);
+    }
 
-            if (!doTranspose){
-                CompatibilityUtils.playSound(player, location, InstrumentUtils.warpNameOutOfRange(instrument.getSoundFileName(), note.getKey(), note.getPitch()), soundCategory, volume, pitch, distance);
-                CompatibilityUtils.playSound(player, location, InstrumentUtils.warpNameOutOfRange(instrument.getSoundFileName(), note.getKey(), note.getPitch()), soundCategory, volume, pitch, -distance);
-            } else {
-                if (instrument.getSound() != null) {
-                    CompatibilityUtils.playSound(player, location, instrument.getSound(), soundCategory, volume, pitch, distance);
-                    CompatibilityUtils.playSound(player, location, instrument.getSound(), soundCategory, volume, pitch, -distance);
-                } else {
-                    CompatibilityUtils.playSound(player, location, instrument.getSoundFileName(), soundCategory, volume, pitch, distance);
-                    CompatibilityUtils.playSound(player, location, instrument.getSoundFileName(), soundCategory, volume, pitch, -distance);
-                }
-            }
-        } else {
-            if (NoteUtils.isOutOfRange(note.getKey(), note.getPitch()) && !doTranspose) {
-                CompatibilityUtils.playSound(player, location, InstrumentUtils.warpNameOutOfRange(note.getInstrument(), note.getKey(), note.getPitch()), soundCategory, volume, pitch, distance);
-                CompatibilityUtils.playSound(player, location, InstrumentUtils.warpNameOutOfRange(note.getInstrument(), note.getKey(), note.getPitch()), soundCategory, volume, pitch, -distance);
-            } else {
-                CompatibilityUtils.playSound(player, location, InstrumentUtils.getInstrument(note.getInstrument()), soundCategory, volume, pitch, distance);
-                CompatibilityUtils.playSound(player, location, InstrumentUtils.getInstrument(note.getInstrument()), soundCategory, volume, pitch, -distance);
-            }
-        }
+    @Override
+    public void play(Player player, Location location, Song song, NoteTimeline.Cursor cursor, SoundCategory soundCategory, float volume, boolean doTranspose) {
+        playNote(player, location, song, cursor, soundCategory, volume, doTranspose, distance);
+        playNote(player, location, song, cursor, soundCategory, volume, doTranspose, -distance);
     }
 
     /**
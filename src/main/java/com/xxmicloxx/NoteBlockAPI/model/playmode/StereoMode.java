@@ -1,9 +1,7 @@
 package com.xxmicloxx.NoteBlockAPI.model.playmode;
 
 import com.xxmicloxx.NoteBlockAPI.model.*;
-import com.xxmicloxx.NoteBlockAPI.utils.CompatibilityUtils;
 import com.xxmicloxx.NoteBlockAPI.utils.InstrumentUtils;
-import com.xxmicloxx.NoteBlockAPI.utils.NoteUtils;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
@@ -29,15 +27,15 @@ public class StereoMode extends ChannelMode {
             distance = ((layer.getPanning() - 100 + note.getPanning() - 100) / 200f) * maxDistance;
         }
         if (InstrumentUtils.isCustomInstrument(note.getInstrument())) {
-            CustomInstrument instrument = song.getCustomInstruments()[note.getInstrument() - InstrumentUtils.getCustomInstrumentFirstIndex()];
+            CustomInstrument instrument = song.getCustomInstrument(note.getInstrument() - InstrumentUtils.getCustomInstrumentFirstIndex());
 
             if (instrument.getSound() != null) {
-                CompatibilityUtils.playSound(player, location, instrument.getSound(), soundCategory, volume, pitch, distance);
+                getSoundSink().playSound(player, location, instrument.getSound(), soundCategory, volume, pitch, distance);
             } else {
-                CompatibilityUtils.playSound(player, location, instrument.getSoundFileName(), soundCategory, volume, pitch, distance);
+                getSoundSink().playSound(player, location, instrument.getSoundFileName(), soundCategory, volume, pitch, distance);
             }
         } else {
-            CompatibilityUtils.playSound(player, location, InstrumentUtils.getInstrument(note.getInstrument()), soundCategory, volume, pitch, distance);
+            getSoundSink().playSound(player, location, InstrumentUtils.getInstrument(note.getInstrument()), soundCategory, volume, pitch, distance);
         }
     }
 
@@ -48,37 +46,35 @@ public class StereoMode extends ChannelMode {
             return;
         }
 
-        float pitch;
-        if(doTranspose)
-            pitch = NoteUtils.getPitchTransposed(note);
-        else
-            pitch = NoteUtils.getPitchInOctave(note);
-
         float distance = 0;
         if (layer.getPanning() == 100){
             distance = ((note.getPanning() - 100) / 100f) * maxDistance;
         } else {
             distance = ((layer.getPanning() - 100 + note.getPanning() - 100) / 200f) * maxDistance;
         }
-        if (InstrumentUtils.isCustomInstrument(note.getInstrument())) {
-            CustomInstrument instrument = song.getCustomInstruments()[note.getInstrument() - InstrumentUtils.getCustomInstrumentFirstIndex()];
+        playNote(player, location, song, note.getInstrument(), note.getKey(), note.getPitch(), soundCategory, volume, doTranspose, distance);
+    }
 
-            if (!doTranspose){
-                CompatibilityUtils.playSound(player, location, InstrumentUtils.warpNameOutOfRange(instrument.getSoundFileName(), note.getKey(), note.getPitch()), soundCategory, volume, pitch, distance);
-            } else {
-                if (instrument.getSound() != null) {
-                    CompatibilityUtils.playSound(player, location, instrument.getSound(), soundCategory, volume, pitch, distance);
-                } else {
-                    CompatibilityUtils.playSound(player, location, instrument.getSoundFileName(), soundCategory, volume, pitch, distance);
-                }
-            }
-        } else {
-            if (NoteUtils.isOutOfRange(note.getKey(), note.getPitch()) && !doTranspose) {
-                CompatibilityUtils.playSound(player, location, InstrumentUtils.warpNameOutOfRange(note.getInstrument(), note.getKey(), note.getPitch()), soundCategory, volume, pitch, distance);
-            } else {
-                CompatibilityUtils.playSound(player, location, InstrumentUtils.getInstrument(note.getInstrument()), soundCategory, volume, pitch, distance);
-            }
+    @Override
+    public void play(Player player, Location location, Song song, CompiledSong compiledSong, int tick, int index, SoundCategory soundCategory, float volume, boolean doTranspose) {
+        if (!song.isStereo() && fallbackChannelMode != null){
+            fallbackChannelMode.play(player, location, song, compiledSong, tick, index, soundCategory, volume, doTranspose);
+            return;
         }
+
+        float distance = compiledSong.getPanning(index) * maxDistance;
+        playNote(player, location, compiledSong, index, soundCategory, volume, doTranspose, distance);
+    }
+
+    @Override
+    public void play(Player player, Location location, Song song, NoteTimeline.Cursor cursor, SoundCategory soundCategory, float volume, boolean doTranspose) {
+        if (!song.isStereo() && fallbackChannelMode != null){
+            fallbackChannelMode.play(player, location, song, cursor, soundCategory, volume, doTranspose);
+            return;
+        }
+
+        float distance = cursor.getPanning() * maxDistance;
+        playNote(player, location, song, cursor, soundCategory, volume, doTranspose, distance);
     }
 
     /**
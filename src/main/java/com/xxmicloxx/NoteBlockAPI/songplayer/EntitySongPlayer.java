@@ -68,25 +68,19 @@ public class EntitySongPlayer extends RangeSongPlayer {
 
         byte playerVolume = NoteBlockAPI.getPlayerVolume(player);
 
-        for (Layer layer : song.getLayerHashMap().values()) {
-            Note note = layer.getNote(tick);
-            if (note == null) continue;
-
-            float volume = ((layer.getVolume() * (int) this.volume * (int) playerVolume * note.getVelocity()) / 100_00_00_00F)
-                    * ((1F / 16F) * getDistance());
-
-            channelMode.play(player, entity.getLocation(), song, layer, note, soundCategory, volume, !enable10Octave);
+        if (!playNotes(player, entity.getLocation(), tick, playerVolume, (1F / 16F) * getDistance())) {
+            return;
+        }
 
-            if (isInRange(player)) {
-                if (!playerList.get(player.getUniqueId())) {
-                    playerList.put(player.getUniqueId(), true);
-                    Bukkit.getPluginManager().callEvent(new PlayerRangeStateChangeEvent(this, player, true));
-                }
-            } else {
-                if (playerList.get(player.getUniqueId())) {
-                    playerList.put(player.getUniqueId(), false);
-                    Bukkit.getPluginManager().callEvent(new PlayerRangeStateChangeEvent(this, player, false));
-                }
+        if (isInRange(player)) {
+            if (!playerList.get(player.getUniqueId())) {
+                playerList.put(player.getUniqueId(), true);
+                Bukkit.getPluginManager().callEvent(new PlayerRangeStateChangeEvent(this, player, true));
+            }
+        } else {
+            if (playerList.get(player.getUniqueId())) {
+                playerList.put(player.getUniqueId(), false);
+                Bukkit.getPluginManager().callEvent(new PlayerRangeStateChangeEvent(this, player, false));
             }
         }
     }
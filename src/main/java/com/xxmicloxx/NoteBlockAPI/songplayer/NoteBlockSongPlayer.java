@@ -69,6 +69,11 @@ public class NoteBlockSongPlayer extends RangeSongPlayer {
 		CallUpdate("noteBlock", noteBlock);
 	}
 
+	@Override
+	protected Location getDispatchLocation() {
+		return noteBlock == null ? null : noteBlock.getLocation();
+	}
+
 	@Override
 	public void playTick(Player player, int tick) {
 		if (noteBlock.getType() != CompatibilityUtils.getNoteBlockMaterial()) {
@@ -82,27 +87,19 @@ public class NoteBlockSongPlayer extends RangeSongPlayer {
 		Location loc = noteBlock.getLocation();
 		loc = new Location(loc.getWorld(), loc.getX() + 0.5f, loc.getY() - 0.5f, loc.getZ() + 0.5f);
 		
-		for (Layer layer : song.getLayerHashMap().values()) {
-			Note note = layer.getNote(tick);
-			if (note == null) {
-				continue;
-			}
-
-			float volume = ((layer.getVolume() * (int) this.volume * (int) playerVolume * note.getVelocity()) / 100_00_00_00F)
-					* ((1F / 16F) * getDistance());
-
-            channelMode.play(player, loc, song, layer, note, soundCategory, volume, !enable10Octave);
+		if (!playNotes(player, loc, tick, playerVolume, (1F / 16F) * getDistance())) {
+			return;
+		}
 
-			if (isInRange(player)) {
-				if (!this.playerList.get(player.getUniqueId())) {
-					playerList.put(player.getUniqueId(), true);
-					Bukkit.getPluginManager().callEvent(new PlayerRangeStateChangeEvent(this, player, true));
-				}
-			} else {
-				if (this.playerList.get(player.getUniqueId())) {
-					playerList.put(player.getUniqueId(), false);
-					Bukkit.getPluginManager().callEvent(new PlayerRangeStateChangeEvent(this, player, false));
-				}
+		if (isInRange(player)) {
+			if (!this.playerList.get(player.getUniqueId())) {
+				playerList.put(player.getUniqueId(), true);
+				Bukkit.getPluginManager().callEvent(new PlayerRangeStateChangeEvent(this, player, true));
+			}
+		} else {
+			if (this.playerList.get(player.getUniqueId())) {
+				playerList.put(player.getUniqueId(), false);
+				Bukkit.getPluginManager().callEvent(new PlayerRangeStateChangeEvent(this, player, false));
 			}
 		}
 	}
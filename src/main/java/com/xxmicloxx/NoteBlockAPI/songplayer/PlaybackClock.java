@@ -0,0 +1,208 @@
+package com.xxmicloxx.NoteBlockAPI.songplayer;
+
+import com.xxmicloxx.NoteBlockAPI.model.Song;
+import com.xxmicloxx.NoteBlockAPI.utils.Scheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/**
+ * Single clock advancing every {@link SongPlayer}.
+ * <p>
+ * SongPlayers are kept in a queue ordered by the time their next tick is due, so the number of
+ * threads used for playback stays constant no matter how many SongPlayers exist and each of them
+ * still advances at the tempo of its own {@link Song}.
+ * <p>
+ * Deadlines are absolute and phase-locked to server ticks. Song tick n of a Song with speed s is mapped
+ * to server tick round(n * 20 / s) counted from the start of the Song, so timing errors never accumulate
+ * and two song ticks of a Song slower than 20 ticks per second never share a server tick.
+ * <p>
+ * Playback of all SongPlayers due in the same server tick is collected and submitted to the server
+ * as a single task, see {@link PlaybackDispatcher}.
+ */
+public class PlaybackClock {
+
+	static final long SERVER_TICK_NANOS = 50_000_000L;
+
+	private static final int PHASE_SMOOTHING = 8;
+	private static final long MAX_CATCH_UP_TICKS = 20;
+
+	private final PriorityQueue<SongPlayer> queue = new PriorityQueue<>(
+			Comparator.comparingLong((SongPlayer songPlayer) -> songPlayer.nextTickNanos));
+	private final Queue<SongPlayer> pending = new ConcurrentLinkedQueue<>();
+	private final PlaybackDispatcher dispatcher = new PlaybackDispatcher();
+	private final Thread thread;
+	private final Scheduler.Task heartbeatTask;
+	private long dispatchedServerTick;
+
+	private volatile boolean running = true;
+
+	private long serverTick = 0; // written by heartbeat only
+	private volatile long tickPhaseNanos; // estimated System.nanoTime() of server tick 0
+
+	public PlaybackClock() {
+		tickPhaseNanos = System.nanoTime();
+		heartbeatTask = Scheduler.runTimer(this::onServerTick, 1, 1);
+
+		thread = new Thread(this::run, "NoteBlockAPI Playback Clock");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Registers SongPlayer to this clock. SongPlayer's first tick is due in next server tick.
+	 * @param songPlayer
+	 */
+	void schedule(SongPlayer songPlayer) {
+		pending.add(songPlayer);
+		LockSupport.unpark(thread);
+	}
+
+	/**
+	 * Queues synchronous playback of a SongPlayer's tick. Only called from the clock thread.
+	 * @param location location the playback belongs to or null if it does not belong to any region
+	 * @param runnable playback task
+	 */
+	void dispatch(Location location, Runnable runnable) {
+		dispatcher.submit(location, runnable);
+	}
+
+	/**
+	 * Returns number of SongPlayers driven by this clock
+	 * @return count of scheduled SongPlayers
+	 */
+	public int getScheduledCount() {
+		return queue.size() + pending.size();
+	}
+
+	/**
+	 * Returns estimated index of the server tick running at the given time
+	 * @param nanoTime value of {@link System#nanoTime()}
+	 * @return server tick index
+	 */
+	long getServerTickAt(long nanoTime) {
+		return Math.floorDiv(nanoTime - tickPhaseNanos, SERVER_TICK_NANOS);
+	}
+
+	/**
+	 * Returns time at which a song tick has to be processed so its notes are played in the given server tick.
+	 * Processing is aimed at the middle of the preceding server tick.
+	 * @param serverTick server tick index
+	 * @return value comparable with {@link System#nanoTime()}
+	 */
+	long getDeadline(long serverTick) {
+		return tickPhaseNanos + serverTick * SERVER_TICK_NANOS - SERVER_TICK_NANOS / 2;
+	}
+
+	/**
+	 * Stops this clock. SongPlayers will not be advanced anymore.
+	 */
+	public void shutdown() {
+		running = false;
+		heartbeatTask.cancel();
+		LockSupport.unpark(thread);
+	}
+
+	private void onServerTick() {
+		long tick = ++serverTick;
+		long phase = tickPhaseNanos;
+		long measured = System.nanoTime() - tick * SERVER_TICK_NANOS;
+		tickPhaseNanos = phase + (measured - phase) / PHASE_SMOOTHING;
+	}
+
+	private void run() {
+		while (running) {
+			SongPlayer songPlayer;
+			while ((songPlayer = pending.poll()) != null) {
+				rebase(songPlayer, getServerTickAt(System.nanoTime()) + 1);
+				queue.add(songPlayer);
+			}
+
+			SongPlayer next = queue.peek();
+			if (next == null) {
+				dispatcher.flush();
+				LockSupport.park(this);
+				continue;
+			}
+
+			long now = System.nanoTime();
+			long wait = next.nextTickNanos - now;
+			if (wait > 0) {
+				dispatcher.flush();
+				LockSupport.parkNanos(this, wait);
+				continue;
+			}
+
+			if (next.clockServerTick != dispatchedServerTick) {
+				// we are late and the next SongPlayer belongs to a later server tick
+				dispatcher.flush();
+				dispatchedServerTick = next.clockServerTick;
+			}
+
+			queue.poll();
+			boolean reschedule;
+			try {
+				reschedule = next.tick();
+			} catch (Throwable throwable) {
+				Bukkit.getLogger().log(Level.SEVERE, "An error occurred in the NoteBlockAPI playback clock", throwable);
+				reschedule = !next.destroyed;
+			}
+			next.getPlaybackStats().record(-wait, now - next.clockOriginNanos
+					- (long) (next.clockSongTicks * getDelay(next.clockSong) * SERVER_TICK_NANOS));
+			if (reschedule) {
+				advance(next, now);
+				queue.add(next);
+			}
+		}
+		queue.clear();
+		pending.clear();
+		dispatcher.flush();
+	}
+
+	/**
+	 * Computes deadline of the next tick of SongPlayer
+	 */
+	private void advance(SongPlayer songPlayer, long now) {
+		long currentTick = getServerTickAt(now);
+		if (currentTick - songPlayer.clockServerTick > MAX_CATCH_UP_TICKS) {
+			// we are too late to catch up
+			rebase(songPlayer, currentTick + 1);
+			return;
+		}
+		if (songPlayer.clockSong != songPlayer.song) {
+			// the tick just played was the first tick of a new song with possibly different speed
+			rebase(songPlayer, songPlayer.clockServerTick);
+		}
+
+		songPlayer.clockSongTicks++;
+		songPlayer.clockServerTick = songPlayer.clockOriginTick
+				+ Math.round(songPlayer.clockSongTicks * getDelay(songPlayer.clockSong));
+		songPlayer.nextTickNanos = getDeadline(songPlayer.clockServerTick);
+	}
+
+	private void rebase(SongPlayer songPlayer, long serverTick) {
+		songPlayer.clockSong = songPlayer.song;
+		songPlayer.clockSongTicks = 0;
+		songPlayer.clockOriginTick = serverTick;
+		songPlayer.clockServerTick = serverTick;
+		songPlayer.nextTickNanos = getDeadline(serverTick);
+		songPlayer.clockOriginNanos = songPlayer.nextTickNanos;
+	}
+
+	/**
+	 * Returns delay between song ticks in server ticks
+	 */
+	private static double getDelay(Song song) {
+		double delay = song == null ? 1 : song.getDelay();
+		if (!(delay > 0)) {
+			return 1;
+		}
+		return Math.min(delay, 20 * 60);
+	}
+}
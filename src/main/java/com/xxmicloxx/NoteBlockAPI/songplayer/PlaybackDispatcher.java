@@ -0,0 +1,116 @@
+package com.xxmicloxx.NoteBlockAPI.songplayer;
+
+import com.xxmicloxx.NoteBlockAPI.NoteBlockAPI;
+import com.xxmicloxx.NoteBlockAPI.sound.SoundSink;
+import com.xxmicloxx.NoteBlockAPI.utils.Scheduler;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Collects playback of all {@link SongPlayer}s due in the same server tick and submits it as a single
+ * synchronous task (one task per region on Folia). Only used from the {@link PlaybackClock} thread.
+ * Every task is surrounded by {@link SoundSink#beginTick()} and {@link SoundSink#endTick()}.
+ */
+class PlaybackDispatcher {
+
+	// Folia regions are made of 2^4 x 2^4 chunk sections by default
+	private static final int REGION_SHIFT = 4 + 4;
+
+	private List<Runnable> global = new ArrayList<>();
+	private Map<RegionKey, List<Runnable>> regions = new HashMap<>();
+	private Map<RegionKey, Location> regionLocations = new HashMap<>();
+	private int size = 0;
+
+	/**
+	 * Adds task to the current batch
+	 * @param location location the task belongs to or null if it does not belong to any region
+	 * @param runnable task
+	 */
+	void submit(Location location, Runnable runnable) {
+		size++;
+		if (location == null || location.getWorld() == null || !Scheduler.isFolia()) {
+			global.add(runnable);
+			return;
+		}
+
+		RegionKey key = new RegionKey(location.getWorld(),
+				location.getBlockX() >> REGION_SHIFT, location.getBlockZ() >> REGION_SHIFT);
+		List<Runnable> tasks = regions.get(key);
+		if (tasks == null) {
+			tasks = new ArrayList<>();
+			regions.put(key, tasks);
+			regionLocations.put(key, location);
+		}
+		tasks.add(runnable);
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Submits all collected tasks and starts a new batch
+	 */
+	void flush() {
+		if (size == 0) {
+			return;
+		}
+
+		NoteBlockAPI api = NoteBlockAPI.getAPI();
+		SoundSink soundSink = api == null ? null : api.getSoundSink();
+
+		if (!global.isEmpty()) {
+			Scheduler.runBatch(wrap(global, soundSink));
+			global = new ArrayList<>();
+		}
+
+		if (!regions.isEmpty()) {
+			for (Map.Entry<RegionKey, List<Runnable>> entry : regions.entrySet()) {
+				Scheduler.runBatch(regionLocations.get(entry.getKey()), wrap(entry.getValue(), soundSink));
+			}
+			regions = new HashMap<>();
+			regionLocations = new HashMap<>();
+		}
+		size = 0;
+	}
+
+	private static List<Runnable> wrap(List<Runnable> tasks, SoundSink soundSink) {
+		if (soundSink != null) {
+			tasks.add(0, soundSink::beginTick);
+			tasks.add(soundSink::endTick);
+		}
+		return tasks;
+	}
+
+	private static final class RegionKey {
+
+		private final World world;
+		private final int x;
+		private final int z;
+
+		RegionKey(World world, int x, int z) {
+			this.world = world;
+			this.x = x;
+			this.z = z;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof RegionKey)) return false;
+			RegionKey other = (RegionKey) o;
+			return x == other.x && z == other.z && world.equals(other.world);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(world, x, z);
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package com.xxmicloxx.NoteBlockAPI.songplayer;
+
+/**
+ * Timing statistics of a {@link SongPlayer} measured by {@link PlaybackClock}.
+ * All values are in nanoseconds.
+ */
+public class PlaybackStats {
+
+	private static final int JITTER_SMOOTHING = 16;
+
+	private volatile long tickCount = 0;
+	private volatile long lastLateness = 0;
+	private volatile long maxLateness = 0;
+	private volatile long totalLateness = 0;
+	private volatile long jitter = 0;
+	private volatile long drift = 0;
+
+	/**
+	 * Records one tick. Only called from the clock thread.
+	 * @param lateness how long after its deadline the tick was processed
+	 * @param drift difference between elapsed time and ideal song time
+	 */
+	void record(long lateness, long drift) {
+		if (tickCount > 0) {
+			long variation = Math.abs(lateness - lastLateness);
+			jitter += (variation - jitter) / JITTER_SMOOTHING;
+		}
+		if (lateness > maxLateness) {
+			maxLateness = lateness;
+		}
+		totalLateness += lateness;
+		lastLateness = lateness;
+		this.drift = drift;
+		tickCount++;
+	}
+
+	/**
+	 * Returns number of ticks measured since creation or last {@link #reset()}
+	 * @return tick count
+	 */
+	public long getTickCount() {
+		return tickCount;
+	}
+
+	/**
+	 * Returns how late the last tick was processed after its deadline
+	 * @return lateness in nanoseconds
+	 */
+	public long getLastLatenessNanos() {
+		return lastLateness;
+	}
+
+	/**
+	 * Returns the highest lateness of a tick
+	 * @return lateness in nanoseconds
+	 */
+	public long getMaxLatenessNanos() {
+		return maxLateness;
+	}
+
+	/**
+	 * Returns average lateness of ticks
+	 * @return lateness in nanoseconds
+	 */
+	public double getMeanLatenessNanos() {
+		long count = tickCount;
+		return count == 0 ? 0 : (double) totalLateness / count;
+	}
+
+	/**
+	 * Returns smoothed variation of lateness between two consecutive ticks
+	 * @return jitter in nanoseconds
+	 */
+	public long getJitterNanos() {
+		return jitter;
+	}
+
+	/**
+	 * Returns difference between real time elapsed since the current Song started and the time the Song
+	 * should have played at its speed. Positive when playback is behind.
+	 * @return drift in nanoseconds
+	 */
+	public long getDriftNanos() {
+		return drift;
+	}
+
+	/**
+	 * Resets all values
+	 */
+	public void reset() {
+		tickCount = 0;
+		lastLateness = 0;
+		maxLateness = 0;
+		totalLateness = 0;
+		jitter = 0;
+		drift = 0;
+	}
+}
@@ -7,8 +7,6 @@ import org.bukkit.entity.Player;
 import com.xxmicloxx.NoteBlockAPI.NoteBlockAPI;
 import com.xxmicloxx.NoteBlockAPI.SongPlayer;
 import com.xxmicloxx.NoteBlockAPI.event.PlayerRangeStateChangeEvent;
-import com.xxmicloxx.NoteBlockAPI.model.Layer;
-import com.xxmicloxx.NoteBlockAPI.model.Note;
 import com.xxmicloxx.NoteBlockAPI.model.Playlist;
 import com.xxmicloxx.NoteBlockAPI.model.Song;
 import com.xxmicloxx.NoteBlockAPI.model.SoundCategory;
@@ -72,6 +70,11 @@ public class PositionSongPlayer extends RangeSongPlayer {
 		CallUpdate("targetLocation", targetLocation);
 	}
 
+	@Override
+	protected Location getDispatchLocation() {
+		return targetLocation;
+	}
+
 	@Override
 	public void playTick(Player player, int tick) {
 		if (!player.getWorld().getName().equals(targetLocation.getWorld().getName())) {
@@ -80,25 +83,19 @@ public class PositionSongPlayer extends RangeSongPlayer {
 
 		byte playerVolume = NoteBlockAPI.getPlayerVolume(player);
 
-		for (Layer layer : song.getLayerHashMap().values()) {
-			Note note = layer.getNote(tick);
-			if (note == null) continue;
-
-			float volume = ((layer.getVolume() * (int) this.volume * (int) playerVolume * note.getVelocity()) / 100_00_00_00F)
-					* ((1F / 16F) * getDistance());
-
-			channelMode.play(player, targetLocation, song, layer, note, soundCategory, volume, !enable10Octave);
+		if (!playNotes(player, targetLocation, tick, playerVolume, (1F / 16F) * getDistance())) {
+			return;
+		}
 
-			if (isInRange(player)) {
-				if (!playerList.get(player.getUniqueId())) {
-					playerList.put(player.getUniqueId(), true);
-					Bukkit.getPluginManager().callEvent(new PlayerRangeStateChangeEvent(this, player, true));
-				}
-			} else {
-				if (playerList.get(player.getUniqueId())) {
-					playerList.put(player.getUniqueId(), false);
-					Bukkit.getPluginManager().callEvent(new PlayerRangeStateChangeEvent(this, player, false));
-				}
+		if (isInRange(player)) {
+			if (!playerList.get(player.getUniqueId())) {
+				playerList.put(player.getUniqueId(), true);
+				Bukkit.getPluginManager().callEvent(new PlayerRangeStateChangeEvent(this, player, true));
+			}
+		} else {
+			if (playerList.get(player.getUniqueId())) {
+				playerList.put(player.getUniqueId(), false);
+				Bukkit.getPluginManager().callEvent(new PlayerRangeStateChangeEvent(this, player, false));
 			}
 		}
 	}
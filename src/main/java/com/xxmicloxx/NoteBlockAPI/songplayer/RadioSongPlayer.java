@@ -3,15 +3,22 @@ package com.xxmicloxx.NoteBlockAPI.songplayer;
 import com.xxmicloxx.NoteBlockAPI.model.playmode.ChannelMode;
 import com.xxmicloxx.NoteBlockAPI.model.playmode.MonoMode;
 import com.xxmicloxx.NoteBlockAPI.model.playmode.MonoStereoMode;
+import com.xxmicloxx.NoteBlockAPI.sound.SoundRecording;
+import com.xxmicloxx.NoteBlockAPI.sound.SoundSink;
+import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
 import com.xxmicloxx.NoteBlockAPI.NoteBlockAPI;
-import com.xxmicloxx.NoteBlockAPI.model.Layer;
 import com.xxmicloxx.NoteBlockAPI.model.Note;
 import com.xxmicloxx.NoteBlockAPI.model.Playlist;
 import com.xxmicloxx.NoteBlockAPI.model.Song;
 import com.xxmicloxx.NoteBlockAPI.model.SoundCategory;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * SongPlayer playing to everyone added to it no matter where he is
  *
@@ -19,6 +26,8 @@ import com.xxmicloxx.NoteBlockAPI.model.SoundCategory;
 public class RadioSongPlayer extends SongPlayer {
 	
 	//protected boolean stereo = true;
+
+	private boolean broadcast = false;
 	
 	public RadioSongPlayer(Song song) {
 		super(song);
@@ -47,19 +56,75 @@ public class RadioSongPlayer extends SongPlayer {
 	@Override
 	public void playTick(Player player, int tick) {
 		byte playerVolume = NoteBlockAPI.getPlayerVolume(player);
+		playNotes(player, player.getEyeLocation(), tick, playerVolume, 1F);
+	}
+
+	@Override
+	protected void playTick(List<Player> players, int tick) {
+		NoteBlockAPI api = NoteBlockAPI.getAPI();
+		if (!broadcast || api == null) {
+			super.playTick(players, tick);
+			return;
+		}
 
-		for (Layer layer : song.getLayerHashMap().values()) {
-			Note note = layer.getNote(tick);
-			if (note == null) {
+		Map<Byte, List<Player>> listeners = new HashMap<>();
+		for (Player player : players) {
+			byte playerVolume = NoteBlockAPI.getPlayerVolume(player);
+			if (playerVolume <= 0) {
 				continue;
 			}
+			List<Player> group = listeners.get(playerVolume);
+			if (group == null) {
+				group = new ArrayList<>();
+				listeners.put(playerVolume, group);
+			}
+			group.add(player);
+		}
 
-			float volume = (layer.getVolume() * (int) this.volume * (int) playerVolume * note.getVelocity()) / 100_00_00_00F;
+		SoundSink soundSink = api.getSoundSink();
+		SoundRecording recording = new SoundRecording();
+		for (Map.Entry<Byte, List<Player>> entry : listeners.entrySet()) {
+			byte playerVolume = entry.getKey();
+			Player first = entry.getValue().get(0);
+			Location origin = first.getEyeLocation();
+
+			// sounds of the tick are resolved once for the volume and replayed at the head of every listener
+			recording.clear(origin);
+			ChannelMode.record(recording, () -> playNotes(first, origin, tick, playerVolume, 1F));
+			if (recording.size() == 0) {
+				return; // no notes at the tick
+			}
 
-			channelMode.play(player, player.getEyeLocation(), song, layer, note, soundCategory, volume, !enable10Octave);
+			for (Player player : entry.getValue()) {
+				recording.playTo(player, player == first ? origin : player.getEyeLocation(), soundSink);
+			}
 		}
 	}
 
+	/**
+	 * Returns whether notes are prepared once for all listeners with the same volume
+	 * @return broadcast mode is enabled
+	 * @see #setBroadcast(boolean)
+	 */
+	public boolean isBroadcast() {
+		return broadcast;
+	}
+
+	/**
+	 * Sets whether notes are prepared once for all listeners with the same volume instead of once for every
+	 * listener, and listeners with volume 0 are skipped. Notes are read and their sound, pitch, volume and
+	 * stereo offset resolved by the {@link ChannelMode} once, the resulting sounds are then played at the head
+	 * of every listener. Useful for large audiences, especially together
+	 * with {@link com.xxmicloxx.NoteBlockAPI.sound.BundlingSoundSink}.
+	 * <p>
+	 * When enabled, {@link #playTick(Player, int)} is not called during playback and the ChannelMode
+	 * has to play all sounds through its SoundSink, see {@link ChannelMode#record(SoundSink, Runnable)}.
+	 * @param broadcast
+	 */
+	public void setBroadcast(boolean broadcast) {
+		this.broadcast = broadcast;
+	}
+
 	/**
 	 * Returns if the SongPlayer will play Notes from two sources as stereo
 	 * @return if is played stereo
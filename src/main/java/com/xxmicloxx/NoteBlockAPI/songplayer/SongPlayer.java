@@ -6,6 +6,7 @@ import com.xxmicloxx.NoteBlockAPI.model.*;
 import com.xxmicloxx.NoteBlockAPI.model.playmode.ChannelMode;
 import com.xxmicloxx.NoteBlockAPI.model.playmode.MonoMode;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
 import java.lang.reflect.Constructor;
@@ -23,6 +24,9 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 public abstract class SongPlayer {
 
+	// SongPlayers which were started and not destroyed yet, see getUsedSongs()
+	private static final Set<SongPlayer> activeSongPlayers = ConcurrentHashMap.newKeySet();
+
 	protected Song song;
 	protected Playlist playlist;
 	protected int actualSong = 0;
@@ -52,9 +56,20 @@ public abstract class SongPlayer {
 	protected SoundCategory soundCategory;
 	protected ChannelMode channelMode = new MonoMode();
 	protected boolean enable10Octave = false;
+	private NoteTimeline.Cursor cursor;
+	private volatile TickNotes tickNotes;
 
 	com.xxmicloxx.NoteBlockAPI.SongPlayer oldSongPlayer;
 
+	// owned by PlaybackClock
+	long nextTickNanos;
+	Song clockSong;
+	long clockSongTicks;
+	long clockOriginTick;
+	long clockOriginNanos;
+	long clockServerTick;
+	private final PlaybackStats playbackStats = new PlaybackStats();
+
 	public SongPlayer(Song song) {
 		this(new Playlist(song), SoundCategory.MASTER);
 	}
@@ -309,172 +324,216 @@ public abstract class SongPlayer {
 	 * Starts this SongPlayer
 	 */
 	private void start() {
-		plugin.doAsync(() -> {
-			while (!destroyed) {
-				long startTime = System.currentTimeMillis();
-				lock.lock();
-				try {
-					if (destroyed || NoteBlockAPI.getAPI().isDisabling()){
-						break;
-					}
+		PlaybackClock playbackClock = plugin.getPlaybackClock();
+		if (playbackClock == null) {
+			// NoteBlockAPI is not enabled or is being disabled, nothing can be played
+			Bukkit.getLogger().warning("NoteBlockAPI is not enabled, SongPlayer won't play");
+			return;
+		}
+		activeSongPlayers.add(this); // before its first tick, which may already destroy it
+		playbackClock.schedule(this);
+	}
 
-					if (playing || fading) {
-						if (fadeTemp != null){
-							if (fadeTemp.isDone()) {
-								fadeTemp = null;
-								fading = false;
-								if (!playing) {
-									SongStoppedEvent event = new SongStoppedEvent(this);
-									plugin.doSync(() -> Bukkit.getPluginManager().callEvent(event));
-									volume = fadeIn.getFadeTarget();
-									continue;
-								}
-							}else {
-								int fade = fadeTemp.calculateFade();
-								if (fade != -1){
-									volume = (byte) fade;
-								}
-							}
-						} else if (tick < fadeIn.getFadeDuration()){
-							int fade = fadeIn.calculateFade();
-							if (fade != -1){
-								volume = (byte) fade;
+	/**
+	 * Returns Songs played by SongPlayers or in their Playlists, until the SongPlayers are destroyed.
+	 * Used by {@link com.xxmicloxx.NoteBlockAPI.library.SongCache} to keep these Songs cached.
+	 * @return set of Songs compared by identity
+	 */
+	public static Set<Song> getUsedSongs() {
+		Set<Song> songs = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (SongPlayer songPlayer : activeSongPlayers) {
+			songs.add(songPlayer.song);
+			songs.addAll(songPlayer.playlist.getSongList());
+		}
+		return songs;
+	}
+
+	/**
+	 * Advances this SongPlayer by one tick. Called by {@link PlaybackClock} whenever the tick is due.
+	 * @return false if SongPlayer was destroyed and should not be scheduled anymore
+	 */
+	boolean tick() {
+		while (!destroyed) {
+			lock.lock();
+			try {
+				if (destroyed || NoteBlockAPI.getAPI().isDisabling()){
+					break;
+				}
+
+				if (playing || fading) {
+					if (fadeTemp != null){
+						if (fadeTemp.isDone()) {
+							fadeTemp = null;
+							fading = false;
+							if (!playing) {
+								SongStoppedEvent event = new SongStoppedEvent(this);
+								plugin.doSync(() -> Bukkit.getPluginManager().callEvent(event));
+								volume = fadeIn.getFadeTarget();
+								continue;
 							}
-							CallUpdate("fadeDone", fadeIn.getFadeDone());
-						} else if (tick >= song.getLength() - fadeOut.getFadeDuration()){
-							int fade = fadeOut.calculateFade();
+						}else {
+							int fade = fadeTemp.calculateFade();
 							if (fade != -1){
 								volume = (byte) fade;
 							}
 						}
-						
-						tick++;
-						if (tick > song.getLength()) {
-							tick = -1;
-							fadeIn.setFadeDone(0);
-							CallUpdate("fadeDone", fadeIn.getFadeDone());
-							fadeOut.setFadeDone(0);
-							volume = fadeIn.getFadeTarget();
-							if (repeat == RepeatMode.ONE){
-								SongLoopEvent event = new SongLoopEvent(this);
-								plugin.doSync(() -> Bukkit.getPluginManager().callEvent(event));
+					} else if (tick < fadeIn.getFadeDuration()){
+						int fade = fadeIn.calculateFade();
+						if (fade != -1){
+							volume = (byte) fade;
+						}
+						CallUpdate("fadeDone", fadeIn.getFadeDone());
+					} else if (tick >= song.getLength() - fadeOut.getFadeDuration()){
+						int fade = fadeOut.calculateFade();
+						if (fade != -1){
+							volume = (byte) fade;
+						}
+					}
+					
+					tick++;
+					if (tick > song.getLength()) {
+						tick = -1;
+						fadeIn.setFadeDone(0);
+						CallUpdate("fadeDone", fadeIn.getFadeDone());
+						fadeOut.setFadeDone(0);
+						volume = fadeIn.getFadeTarget();
+						if (repeat == RepeatMode.ONE){
+							SongLoopEvent event = new SongLoopEvent(this);
+							plugin.doSync(() -> Bukkit.getPluginManager().callEvent(event));
 
-								if (!event.isCancelled()) {
-									continue;
+							if (!event.isCancelled()) {
+								continue;
+							}
+						} else {
+							if (random) {
+								songQueue.put(song, true);
+								checkPlaylistQueue();
+								ArrayList<Song> left = new ArrayList<>();
+								for (Song s : songQueue.keySet()) {
+									if (!songQueue.get(s)) {
+										left.add(s);
+									}
 								}
-							} else {
-								if (random) {
-									songQueue.put(song, true);
-									checkPlaylistQueue();
-									ArrayList<Song> left = new ArrayList<>();
+
+								if (left.size() == 0) {
+									left.addAll(songQueue.keySet());
 									for (Song s : songQueue.keySet()) {
-										if (!songQueue.get(s)) {
-											left.add(s);
-										}
+										songQueue.put(s, false);
 									}
+									song = left.get(rng.nextInt(left.size()));
+									actualSong = playlist.getIndex(song);
+									CallUpdate("song", song);
+									if (repeat == RepeatMode.ALL) {
+										SongLoopEvent event = new SongLoopEvent(this);
+										plugin.doSync(() -> Bukkit.getPluginManager().callEvent(event));
 
-									if (left.size() == 0) {
-										left.addAll(songQueue.keySet());
-										for (Song s : songQueue.keySet()) {
-											songQueue.put(s, false);
+										if (!event.isCancelled()) {
+											continue;
 										}
-										song = left.get(rng.nextInt(left.size()));
-										actualSong = playlist.getIndex(song);
-										CallUpdate("song", song);
-										if (repeat == RepeatMode.ALL) {
-											SongLoopEvent event = new SongLoopEvent(this);
-											plugin.doSync(() -> Bukkit.getPluginManager().callEvent(event));
-
-											if (!event.isCancelled()) {
-												continue;
-											}
-										}
-									} else {
-										song = left.get(rng.nextInt(left.size()));
-										actualSong = playlist.getIndex(song);
-
-										CallUpdate("song", song);
-										SongNextEvent event = new SongNextEvent(this);
-										plugin.doSync(() -> Bukkit.getPluginManager().callEvent(event));
-										continue;
 									}
 								} else {
-									if (playlist.hasNext(actualSong)) {
-										actualSong++;
-										song = playlist.get(actualSong);
-										CallUpdate("song", song);
-										SongNextEvent event = new SongNextEvent(this);
+									song = left.get(rng.nextInt(left.size()));
+									actualSong = playlist.getIndex(song);
+
+									CallUpdate("song", song);
+									SongNextEvent event = new SongNextEvent(this);
+									plugin.doSync(() -> Bukkit.getPluginManager().callEvent(event));
+									continue;
+								}
+							} else {
+								findActualSong();
+								if (playlist.hasNext(actualSong)) {
+									actualSong++;
+									song = playlist.get(actualSong);
+									CallUpdate("song", song);
+									SongNextEvent event = new SongNextEvent(this);
+									plugin.doSync(() -> Bukkit.getPluginManager().callEvent(event));
+									continue;
+								} else {
+									actualSong = 0;
+									song = playlist.get(actualSong);
+									CallUpdate("song", song);
+									if (repeat == RepeatMode.ALL) {
+										SongLoopEvent event = new SongLoopEvent(this);
 										plugin.doSync(() -> Bukkit.getPluginManager().callEvent(event));
-										continue;
-									} else {
-										actualSong = 0;
-										song = playlist.get(actualSong);
-										CallUpdate("song", song);
-										if (repeat == RepeatMode.ALL) {
-											SongLoopEvent event = new SongLoopEvent(this);
-											plugin.doSync(() -> Bukkit.getPluginManager().callEvent(event));
-
-											if (!event.isCancelled()) {
-												continue;
-											}
+
+										if (!event.isCancelled()) {
+											continue;
 										}
 									}
 								}
 							}
-							playing = false;
-							SongEndEvent event = new SongEndEvent(this);
-							plugin.doSync(() -> Bukkit.getPluginManager().callEvent(event));
-							if (autoDestroy) {
-								destroy();
-							}
-							continue;
 						}
-						CallUpdate("tick", tick);
-						
-						plugin.doSync(() -> {
-							try {
-								for (UUID uuid : playerList.keySet()) {
-									Player player = Bukkit.getPlayer(uuid);
-									if (player == null) {
-										// offline...
-										continue;
-									}
-									playTick(player, tick);
+						playing = false;
+						SongEndEvent event = new SongEndEvent(this);
+						plugin.doSync(() -> Bukkit.getPluginManager().callEvent(event));
+						if (autoDestroy) {
+							destroy();
+						}
+						continue;
+					}
+					CallUpdate("tick", tick);
+
+					short playedTick = tick;
+					PlaybackClock playbackClock = plugin.getPlaybackClock();
+					if (playbackClock == null) {
+						break; // clock was shut down while ticking
+					}
+					playbackClock.dispatch(getDispatchLocation(), () -> {
+						try {
+							List<Player> players = new ArrayList<>(playerList.size());
+							for (UUID uuid : playerList.keySet()) {
+								Player player = Bukkit.getPlayer(uuid);
+								if (player == null) {
+									// offline...
+									continue;
 								}
-							} catch (Exception e){
-								Bukkit.getLogger().severe("An error occurred during the playback of song "
-										+ (song != null ?
-										song.getPath() + " (" + song.getAuthor() + " - " + song.getTitle() + ")"
-										: "null"));
-								e.printStackTrace();
+								players.add(player);
 							}
-						});
-					}
-				} catch (Exception e) {
-					Bukkit.getLogger().severe("An error occurred during the playback of song "
-							+ (song != null ?
+							updateTickNotes(song);
+							playTick(players, playedTick);
+						} catch (Exception e){
+							Bukkit.getLogger().severe("An error occurred during the playback of song "
+									+ (song != null ?
 									song.getPath() + " (" + song.getAuthor() + " - " + song.getTitle() + ")"
 									: "null"));
-					e.printStackTrace();
-				} finally {
-					lock.unlock();
+							e.printStackTrace();
+						}
+					});
 				}
+			} catch (Exception e) {
+				Bukkit.getLogger().severe("An error occurred during the playback of song "
+						+ (song != null ?
+								song.getPath() + " (" + song.getAuthor() + " - " + song.getTitle() + ")"
+								: "null"));
+				e.printStackTrace();
+			} finally {
+				lock.unlock();
+			}
 
-				if (destroyed) {
-					break;
-				}
+			return !destroyed;
+		}
+		return false;
+	}
 
-				long duration = System.currentTimeMillis() - startTime;
-				float delayMillis = song.getDelay() * 50;
-				if (duration < delayMillis) {
-					try {
-						Thread.sleep((long) (delayMillis - duration));
-					} catch (InterruptedException e) {
-						// do nothing
-					}
-				}
-			}
-		});
+	/**
+	 * Finds index of the played Song again after Songs were removed from or replaced in the Playlist,
+	 * if the Song itself was removed, the Song which took its place is played next
+	 */
+	private void findActualSong(){
+		if (playlist.exist(actualSong) && playlist.get(actualSong) == song){
+			return;
+		}
+		int index = playlist.getIndex(song);
+		if (index >= 0){
+			actualSong = index;
+		} else if (!playlist.exist(actualSong) || !isReloaded(playlist.get(actualSong))){
+			actualSong = Math.min(actualSong, playlist.getCount()) - 1;
+		}
+	}
+
+	private boolean isReloaded(Song song){
+		return song.getPath() != null && song.getPath().equals(this.song.getPath());
 	}
 
 	private void checkPlaylistQueue(){
@@ -491,6 +550,14 @@ public abstract class SongPlayer {
 		}
 	}
 	
+	/**
+	 * Returns timing statistics (lateness, jitter and drift) of this SongPlayer
+	 * @return PlaybackStats
+	 */
+	public PlaybackStats getPlaybackStats() {
+		return playbackStats;
+	}
+
 	/**
 	 * Returns {@link Fade} for Fade in effect
 	 * @return Fade
@@ -585,6 +652,15 @@ public abstract class SongPlayer {
 		}
 	}
 
+	/**
+	 * Returns location used to group playback of this SongPlayer with other SongPlayers in the same region
+	 * (Folia). Called from the playback clock thread.
+	 * @return location or null if playback is not bound to a region
+	 */
+	protected Location getDispatchLocation() {
+		return null;
+	}
+
 	/**
 	 * Plays the Song for the specific player
 	 * @param player to play this SongPlayer for
@@ -592,6 +668,89 @@ public abstract class SongPlayer {
 	 */
 	public abstract void playTick(Player player, int tick);
 
+	/**
+	 * Plays the Song for all online players of this SongPlayer.
+	 * Calls {@link #playTick(Player, int)} for each of them by default.
+	 * @param players to play this SongPlayer for
+	 * @param tick to play at
+	 */
+	protected void playTick(List<Player> players, int tick) {
+		for (Player player : players) {
+			playTick(player, tick);
+		}
+	}
+
+	/**
+	 * Plays notes of the tick to the player through the {@link ChannelMode}. Notes of compressed Songs
+	 * are read from their {@link NoteTimeline}, otherwise from their {@link CompiledSong}.
+	 * @param player to play notes for
+	 * @param location notes are played at
+	 * @param tick to play at
+	 * @param playerVolume volume of the player
+	 * @param volumeMultiplier multiplier of the volume of every note
+	 * @return false if there are no notes at the tick
+	 */
+	protected boolean playNotes(Player player, Location location, int tick, byte playerVolume, float volumeMultiplier) {
+		Song song = this.song;
+		TickNotes notes = tickNotes;
+		if (notes == null || notes.song != song) {
+			notes = updateTickNotes(song);
+		}
+		if (notes.timeline != null) {
+			NoteTimeline.Cursor cursor = getCursor(notes.timeline);
+			synchronized (cursor) {
+				if (cursor.seek(tick) == 0) {
+					return false;
+				}
+				while (cursor.next()) {
+					float volume = ((cursor.getVolume() * (int) this.volume * (int) playerVolume) / 100_00_00_00F)
+							* volumeMultiplier;
+
+					channelMode.play(player, location, song, cursor, soundCategory, volume, !enable10Octave);
+				}
+			}
+			return true;
+		}
+
+		CompiledSong compiledSong = notes.compiledSong;
+		int end = compiledSong.getNotesEnd(tick);
+		if (compiledSong.getNotesStart(tick) == end) {
+			return false;
+		}
+
+		for (int i = compiledSong.getNotesStart(tick); i < end; i++) {
+			float volume = ((compiledSong.getVolume(i) * (int) this.volume * (int) playerVolume) / 100_00_00_00F)
+					* volumeMultiplier;
+
+			channelMode.play(player, location, song, compiledSong, tick, i, soundCategory, volume, !enable10Octave);
+		}
+		return true;
+	}
+
+	/**
+	 * Resolves notes of the Song once per tick, so the Song is checked for changes once and not for every player
+	 */
+	private TickNotes updateTickNotes(Song song) {
+		CompiledSong compiledSong = song.isCompressed() ? null : song.getCompiledSong();
+		NoteTimeline timeline = compiledSong == null ? song.getNoteTimeline() : null;
+		TickNotes notes = tickNotes;
+		if (notes == null || notes.song != song || notes.compiledSong != compiledSong || notes.timeline != timeline) {
+			notes = new TickNotes(song, compiledSong, timeline);
+			tickNotes = notes;
+		}
+		return notes;
+	}
+
+	/**
+	 * Returns cursor of this SongPlayer reading the timeline, the cursor is kept while the same Song is played
+	 */
+	private synchronized NoteTimeline.Cursor getCursor(NoteTimeline timeline) {
+		if (cursor == null || cursor.getTimeline() != timeline) {
+			cursor = timeline.cursor();
+		}
+		return cursor;
+	}
+
 	/**
 	 * SongPlayer will destroy itself
 	 */
@@ -605,6 +764,7 @@ public abstract class SongPlayer {
 				return;
 			}
 			destroyed = true;
+			activeSongPlayers.remove(this);
 			playing = false;
 			setTick((short) -1);
 			CallUpdate("destroyed", destroyed);
@@ -903,6 +1063,22 @@ public abstract class SongPlayer {
 		}
 	}
 	
+	/**
+	 * {@link CompiledSong} or {@link NoteTimeline} the current tick of a Song is played from
+	 */
+	private static final class TickNotes {
+
+		private final Song song;
+		private final CompiledSong compiledSong;
+		private final NoteTimeline timeline;
+
+		TickNotes(Song song, CompiledSong compiledSong, NoteTimeline timeline) {
+			this.song = song;
+			this.compiledSong = compiledSong;
+			this.timeline = timeline;
+		}
+	}
+
 	void makeNewClone(Class newClass){
 		try {
 			Constructor c = newClass.getDeclaredConstructor(new Class[] { SongPlayer.class });
@@ -0,0 +1,24 @@
+package com.xxmicloxx.NoteBlockAPI.sound;
+
+import com.xxmicloxx.NoteBlockAPI.model.SoundCategory;
+import com.xxmicloxx.NoteBlockAPI.utils.CompatibilityUtils;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+/**
+ * Default {@link SoundSink}, plays every sound immediately through the Bukkit API
+ */
+public class BukkitSoundSink implements SoundSink {
+
+	@Override
+	public void playSound(Player player, Location location, org.bukkit.Sound sound, SoundCategory category,
+						  float volume, float pitch, float distance) {
+		CompatibilityUtils.playSound(player, location, sound, category, volume, pitch, distance);
+	}
+
+	@Override
+	public void playSound(Player player, Location location, String sound, SoundCategory category,
+						  float volume, float pitch, float distance) {
+		CompatibilityUtils.playSound(player, location, sound, category, volume, pitch, distance);
+	}
+}
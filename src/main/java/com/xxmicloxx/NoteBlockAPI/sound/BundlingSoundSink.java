@@ -0,0 +1,263 @@
+package com.xxmicloxx.NoteBlockAPI.sound;
+
+import com.xxmicloxx.NoteBlockAPI.model.SoundCategory;
+import com.xxmicloxx.NoteBlockAPI.utils.CompatibilityUtils;
+import com.xxmicloxx.NoteBlockAPI.utils.MathUtils;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@link SoundSink} collecting all sounds played to a Player during one tick and sending them
+ * in a single bundle packet (Minecraft 1.19.4+), so the number of network writes depends on the number
+ * of listeners instead of the number of notes.
+ * <p>
+ * Sounds played by name (custom instruments, notes outside of 2 octave range), sounds played outside of
+ * a tick and all sounds on servers without bundle packets are played by the fallback SoundSink.
+ */
+public class BundlingSoundSink implements SoundSink {
+
+	// client refuses bundles with more packets
+	private static final int MAX_BUNDLE_SIZE = 4096;
+
+	private final SoundSink fallback;
+	private final ThreadLocal<Map<Player, List<Object>>> batches = new ThreadLocal<>();
+
+	public BundlingSoundSink() {
+		this(new BukkitSoundSink());
+	}
+
+	/**
+	 * @param fallback SoundSink used for sounds which can't be bundled
+	 */
+	public BundlingSoundSink(SoundSink fallback) {
+		this.fallback = fallback;
+	}
+
+	/**
+	 * Returns whether the server supports bundle packets. If not, all sounds are played by the fallback SoundSink.
+	 * @return bundling is supported
+	 */
+	public static boolean isSupported() {
+		return Packets.SUPPORTED;
+	}
+
+	@Override
+	public void beginTick() {
+		if (isSupported()) {
+			batches.set(new HashMap<>());
+		}
+		fallback.beginTick();
+	}
+
+	@Override
+	public void playSound(Player player, Location location, org.bukkit.Sound sound, SoundCategory category,
+						  float volume, float pitch, float distance) {
+		Map<Player, List<Object>> batch = batches.get();
+		Object packet = batch == null ? null : Packets.createSoundPacket(location, sound, category, volume, pitch, distance);
+		if (packet == null) {
+			fallback.playSound(player, location, sound, category, volume, pitch, distance);
+			return;
+		}
+
+		List<Object> packets = batch.get(player);
+		if (packets == null) {
+			packets = new ArrayList<>();
+			batch.put(player, packets);
+		}
+		packets.add(packet);
+	}
+
+	@Override
+	public void playSound(Player player, Location location, String sound, SoundCategory category,
+						  float volume, float pitch, float distance) {
+		fallback.playSound(player, location, sound, category, volume, pitch, distance);
+	}
+
+	@Override
+	public void endTick() {
+		Map<Player, List<Object>> batch = batches.get();
+		batches.remove();
+		if (batch != null) {
+			for (Map.Entry<Player, List<Object>> entry : batch.entrySet()) {
+				Packets.send(entry.getKey(), entry.getValue());
+			}
+		}
+		fallback.endTick();
+	}
+
+	/**
+	 * Server internals, resolved when bundling is used for the first time
+	 */
+	private static final class Packets {
+
+		private static MethodHandle toSoundHolder; // (Sound) -> Holder<SoundEvent>
+		private static MethodHandle newSoundPacket; // (Holder, SoundSource, x, y, z, volume, pitch, seed) -> Packet
+		private static MethodHandle newBundlePacket; // (Iterable) -> Packet
+		private static MethodHandle getConnection; // (Player) -> connection
+		private static MethodHandle sendPacket; // (connection, Packet) -> void
+		private static Object[] soundSources;
+
+		private static final boolean SUPPORTED = init();
+
+		private static boolean init() {
+			try {
+				Class<?> packetClass = findClass("network.protocol.Packet");
+				Class<?> bundleClass = findClass("network.protocol.game.ClientboundBundlePacket");
+				Class<?> soundPacketClass = findClass("network.protocol.game.ClientboundSoundPacket",
+						"network.protocol.game.PacketPlayOutNamedSoundEffect");
+				Class<?> craftSound = CompatibilityUtils.getCraftBukkitClass("CraftSound");
+				Class<?> craftPlayer = CompatibilityUtils.getCraftBukkitClass("entity.CraftPlayer");
+				if (packetClass == null || bundleClass == null || soundPacketClass == null
+						|| craftSound == null || craftPlayer == null) {
+					return false;
+				}
+
+				MethodHandles.Lookup lookup = MethodHandles.lookup();
+				toSoundHolder = lookup.unreflect(craftSound.getMethod("bukkitToMinecraftHolder", org.bukkit.Sound.class))
+						.asType(MethodType.methodType(Object.class, Object.class));
+
+				Constructor<?> soundConstructor = findSoundPacketConstructor(soundPacketClass);
+				if (soundConstructor == null) {
+					return false;
+				}
+				newSoundPacket = lookup.unreflectConstructor(soundConstructor).asType(MethodType.methodType(Object.class,
+						Object.class, Object.class, double.class, double.class, double.class, float.class, float.class, long.class));
+				newBundlePacket = lookup.unreflectConstructor(bundleClass.getConstructor(Iterable.class))
+						.asType(MethodType.methodType(Object.class, Object.class));
+
+				Method getHandle = craftPlayer.getMethod("getHandle");
+				Field connection = findConnectionField(getHandle.getReturnType());
+				Method send = connection == null ? null : findSendMethod(connection.getType(), packetClass);
+				if (send == null) {
+					return false;
+				}
+				getConnection = MethodHandles.filterReturnValue(lookup.unreflect(getHandle), lookup.unreflectGetter(connection))
+						.asType(MethodType.methodType(Object.class, Player.class));
+				sendPacket = lookup.unreflect(send).asType(MethodType.methodType(void.class, Object.class, Object.class));
+
+				Class<?> soundSourceClass = soundConstructor.getParameterTypes()[1];
+				Object[] constants = soundSourceClass.getEnumConstants();
+				soundSources = new Object[SoundCategory.values().length];
+				for (SoundCategory category : SoundCategory.values()) {
+					for (Object constant : constants) {
+						if (((Enum<?>) constant).name().equals(category.name())) {
+							soundSources[category.ordinal()] = constant;
+						}
+					}
+					if (soundSources[category.ordinal()] == null) {
+						// obfuscated constants keep the declaration order of the vanilla enum
+						soundSources[category.ordinal()] = constants[category.ordinal()];
+					}
+				}
+				return true;
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				return false;
+			}
+		}
+
+		private static Class<?> findClass(String... names) {
+			for (String name : names) {
+				Class<?> clazz = CompatibilityUtils.getMinecraftClass(name);
+				if (clazz != null) {
+					return clazz;
+				}
+			}
+			return null;
+		}
+
+		private static Constructor<?> findSoundPacketConstructor(Class<?> soundPacketClass) {
+			for (Constructor<?> constructor : soundPacketClass.getConstructors()) {
+				Class<?>[] parameters = constructor.getParameterTypes();
+				if (parameters.length == 8 && parameters[1].isEnum()
+						&& parameters[2] == double.class && parameters[3] == double.class && parameters[4] == double.class
+						&& parameters[5] == float.class && parameters[6] == float.class && parameters[7] == long.class) {
+					return constructor;
+				}
+			}
+			return null;
+		}
+
+		private static Field findConnectionField(Class<?> serverPlayer) {
+			try {
+				return serverPlayer.getField("connection");
+			} catch (NoSuchFieldException ignored) {
+				// obfuscated, look up by type
+			}
+			for (Field field : serverPlayer.getFields()) {
+				String type = field.getType().getSimpleName();
+				if (type.equals("ServerGamePacketListenerImpl") || type.equals("PlayerConnection")) {
+					return field;
+				}
+			}
+			return null;
+		}
+
+		private static Method findSendMethod(Class<?> connection, Class<?> packetClass) {
+			Method found = null;
+			for (Method method : connection.getMethods()) {
+				if (method.getReturnType() != void.class || Modifier.isStatic(method.getModifiers())
+						|| method.getParameterCount() != 1 || method.getParameterTypes()[0] != packetClass) {
+					continue;
+				}
+				if (method.getName().equals("send") || method.getName().equals("sendPacket")) {
+					return method;
+				}
+				if (found != null) {
+					return null; // obfuscated and ambiguous
+				}
+				found = method;
+			}
+			return found;
+		}
+
+		/**
+		 * Creates sound packet or returns null if it can't be created
+		 */
+		static Object createSoundPacket(Location location, org.bukkit.Sound sound, SoundCategory category,
+										float volume, float pitch, float distance) {
+			try {
+				Location source = distance == 0 ? location : MathUtils.stereoPan(location, distance);
+				Object holder = toSoundHolder.invokeExact((Object) sound);
+				return newSoundPacket.invokeExact(holder, soundSources[category.ordinal()],
+						source.getX(), source.getY(), source.getZ(), volume, pitch, ThreadLocalRandom.current().nextLong());
+			} catch (Throwable e) {
+				return null;
+			}
+		}
+
+		/**
+		 * Sends packets to Player, bundled if there is more than one
+		 */
+		static void send(Player player, List<Object> packets) {
+			try {
+				Object connection = getConnection.invokeExact(player);
+				if (connection == null) {
+					return; // player is disconnecting
+				}
+				if (packets.size() == 1) {
+					sendPacket.invokeExact(connection, packets.get(0));
+					return;
+				}
+				for (int start = 0; start < packets.size(); start += MAX_BUNDLE_SIZE - 1) {
+					List<Object> bundle = packets.subList(start, Math.min(packets.size(), start + MAX_BUNDLE_SIZE - 1));
+					sendPacket.invokeExact(connection, newBundlePacket.invokeExact((Object) new ArrayList<>(bundle)));
+				}
+			} catch (Throwable e) {
+				e.printStackTrace();
+			}
+		}
+	}
+}
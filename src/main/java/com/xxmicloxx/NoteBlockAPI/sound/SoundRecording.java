@@ -0,0 +1,100 @@
+package com.xxmicloxx.NoteBlockAPI.sound;
+
+import com.xxmicloxx.NoteBlockAPI.model.SoundCategory;
+import com.xxmicloxx.NoteBlockAPI.model.playmode.ChannelMode;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+
+/**
+ * {@link SoundSink} remembering played sounds, so sounds resolved once can be played to any number of Players.
+ * <p>
+ * Locations are stored relative to the origin passed to {@link #clear(Location)} and the Player the sounds
+ * were recorded for is ignored. Use {@link ChannelMode#record(SoundSink, Runnable)} to record sounds
+ * of a {@link ChannelMode}.
+ */
+public class SoundRecording implements SoundSink {
+
+	private Location origin;
+	private int size = 0;
+
+	private Object[] sounds = new Object[16]; // org.bukkit.Sound or String
+	private SoundCategory[] categories = new SoundCategory[16];
+	private float[] values = new float[16 * 6]; // volume, pitch, distance, x, y, z offset
+
+	/**
+	 * Removes all recorded sounds
+	 * @param origin location offsets of the next recorded sounds are relative to
+	 */
+	public void clear(Location origin) {
+		this.origin = origin;
+		Arrays.fill(sounds, 0, size, null);
+		size = 0;
+	}
+
+	/**
+	 * Returns number of recorded sounds
+	 * @return count of sounds
+	 */
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void playSound(Player player, Location location, org.bukkit.Sound sound, SoundCategory category,
+						  float volume, float pitch, float distance) {
+		add(location, sound, category, volume, pitch, distance);
+	}
+
+	@Override
+	public void playSound(Player player, Location location, String sound, SoundCategory category,
+						  float volume, float pitch, float distance) {
+		add(location, sound, category, volume, pitch, distance);
+	}
+
+	private void add(Location location, Object sound, SoundCategory category, float volume, float pitch, float distance) {
+		if (size == sounds.length) {
+			sounds = Arrays.copyOf(sounds, size * 2);
+			categories = Arrays.copyOf(categories, size * 2);
+			values = Arrays.copyOf(values, size * 2 * 6);
+		}
+		sounds[size] = sound;
+		categories[size] = category;
+		int offset = size * 6;
+		values[offset] = volume;
+		values[offset + 1] = pitch;
+		values[offset + 2] = distance;
+		if (origin != null && location != origin) {
+			values[offset + 3] = (float) (location.getX() - origin.getX());
+			values[offset + 4] = (float) (location.getY() - origin.getY());
+			values[offset + 5] = (float) (location.getZ() - origin.getZ());
+		} else {
+			values[offset + 3] = values[offset + 4] = values[offset + 5] = 0;
+		}
+		size++;
+	}
+
+	/**
+	 * Plays all recorded sounds to Player
+	 * @param player listener
+	 * @param location location the recorded sounds are moved to, replaces the origin
+	 * @param soundSink SoundSink the sounds are played through
+	 */
+	public void playTo(Player player, Location location, SoundSink soundSink) {
+		for (int i = 0; i < size; i++) {
+			int offset = i * 6;
+			Location source = location;
+			if (values[offset + 3] != 0 || values[offset + 4] != 0 || values[offset + 5] != 0) {
+				source = location.clone().add(values[offset + 3], values[offset + 4], values[offset + 5]);
+			}
+
+			Object sound = sounds[i];
+			if (sound instanceof String) {
+				soundSink.playSound(player, source, (String) sound, categories[i], values[offset], values[offset + 1], values[offset + 2]);
+			} else {
+				soundSink.playSound(player, source, (org.bukkit.Sound) sound, categories[i], values[offset], values[offset + 1], values[offset + 2]);
+			}
+		}
+	}
+}
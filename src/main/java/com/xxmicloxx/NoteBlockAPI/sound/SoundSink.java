@@ -0,0 +1,56 @@
+package com.xxmicloxx.NoteBlockAPI.sound;
+
+import com.xxmicloxx.NoteBlockAPI.NoteBlockAPI;
+import com.xxmicloxx.NoteBlockAPI.model.SoundCategory;
+import com.xxmicloxx.NoteBlockAPI.model.playmode.ChannelMode;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+/**
+ * Receives every sound played by {@link ChannelMode}s and sends it to the {@link Player}.
+ * <p>
+ * Sounds are played in batches, each batch is surrounded by {@link #beginTick()} and {@link #endTick()}.
+ * There is one batch every server tick, on Folia one for every region which may run concurrently.
+ * @see NoteBlockAPI#setSoundSink(SoundSink)
+ * @see BukkitSoundSink
+ */
+public interface SoundSink {
+
+	/**
+	 * Called before the first sound of a batch is played
+	 */
+	default void beginTick() {
+	}
+
+	/**
+	 * Plays sound to Player
+	 * @param player listener
+	 * @param location location of the sound source
+	 * @param sound sound
+	 * @param category
+	 * @param volume
+	 * @param pitch
+	 * @param distance stereo offset from location, negative for left side, positive for right side
+	 */
+	void playSound(Player player, Location location, org.bukkit.Sound sound, SoundCategory category,
+				   float volume, float pitch, float distance);
+
+	/**
+	 * Plays sound to Player
+	 * @param player listener
+	 * @param location location of the sound source
+	 * @param sound qualified name of sound
+	 * @param category
+	 * @param volume
+	 * @param pitch
+	 * @param distance stereo offset from location, negative for left side, positive for right side
+	 */
+	void playSound(Player player, Location location, String sound, SoundCategory category,
+				   float volume, float pitch, float distance);
+
+	/**
+	 * Called after the last sound of a batch was played
+	 */
+	default void endTick() {
+	}
+}
@@ -1,9 +1,9 @@
 package com.xxmicloxx.NoteBlockAPI.utils;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -26,7 +26,6 @@ public class CompatibilityUtils {
         private static final List<String> NMS_PACKAGES = buildNmsPackages();
 
 	private static Class<? extends Enum> soundCategoryClass;
-	private static HashMap<String, Method> playSoundMethod = new HashMap<>();
 
 	private static float serverVersion = -1;
 
@@ -69,30 +68,57 @@ public class CompatibilityUtils {
 		return soundCategoryClass;
 	}
 
-	private static Method getPlaySoundMethod(Class<?> sound, boolean soundCategory)
-			throws ClassNotFoundException, NoSuchMethodException {
-		String cacheKey = sound.getName() + soundCategory;
-		Method method = playSoundMethod.get(cacheKey);
-
-		if (method == null) {
-			//determine whether sound is an enum (pre 1.21.3) or an interface (post 1.21.3)
-			Class<?> soundParameter = getSoundParameterClass(sound);
-
-			if (soundCategory) {
-				method = Player.class.getMethod("playSound", Location.class, soundParameter,
-						getSoundCategoryClass(), float.class, float.class);
+	/**
+	 * Finds Player#playSound for the given sound parameter type, adapted to
+	 * (Player, Location, Object sound, Object category, float, float) so both variants are called the same way
+	 */
+	private static MethodHandle findPlaySoundHandle(Class<?> sound) {
+		MethodType type = MethodType.methodType(void.class, Player.class, Location.class, Object.class, Object.class,
+				float.class, float.class);
+		try {
+			MethodHandle handle;
+			if (isSoundCategoryCompatible()) {
+				handle = MethodHandles.publicLookup().findVirtual(Player.class, "playSound", MethodType.methodType(void.class,
+						Location.class, sound, getSoundCategoryClass(), float.class, float.class));
 			} else {
-				method = Player.class.getMethod("playSound", Location.class, soundParameter,
-						float.class, float.class);
+				handle = MethodHandles.publicLookup().findVirtual(Player.class, "playSound", MethodType.methodType(void.class,
+						Location.class, sound, float.class, float.class));
+				handle = MethodHandles.dropArguments(handle, 3, Object.class);
 			}
+			return handle.asType(type);
+		} catch (NoSuchMethodException | IllegalAccessException | ClassNotFoundException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
 
-			playSoundMethod.put(cacheKey, method);
+	/**
+	 * Maps {@link SoundCategory} ordinals to org.bukkit.SoundCategory, all null before 1.11
+	 */
+	private static Object[] mapSoundCategories() {
+		Object[] categories = new Object[SoundCategory.values().length];
+		if (!isSoundCategoryCompatible()) {
+			return categories;
+		}
+		try {
+			for (SoundCategory category : SoundCategory.values()) {
+				categories[category.ordinal()] = Enum.valueOf(getSoundCategoryClass(), category.name());
+			}
+		} catch (ClassNotFoundException e) {
+			e.printStackTrace();
 		}
-		return method;
+		return categories;
 	}
 
-	private static Class<?> getSoundParameterClass(Class<?> sound) {
-		return Sound.class.isAssignableFrom(sound) ? Sound.class : sound;
+	/**
+	 * Sound emission handles, resolved once when the first sound is played
+	 */
+	private static final class SoundHandles {
+
+		private static final MethodHandle PLAY_SOUND = findPlaySoundHandle(Sound.class);
+		private static final MethodHandle PLAY_SOUND_NAME = findPlaySoundHandle(String.class);
+		private static final Object[] CATEGORIES = mapSoundCategories();
+
 	}
 
 	/**
@@ -206,22 +232,36 @@ public class CompatibilityUtils {
 		playSoundUniversal(player, location, sound, category, volume, pitch, distance);
 	}
 
-	private static void playSoundUniversal(Player player, Location location, Object sound,
+	private static void playSoundUniversal(Player player, Location location, Sound sound,
 								 SoundCategory category, float volume, float pitch, float distance) {
+		if (SoundHandles.PLAY_SOUND == null) {
+			return;
+		}
 		try {
-			if (isSoundCategoryCompatible()) {
-				Method method = getPlaySoundMethod(sound.getClass(), true);
-				Enum<?> soundCategoryEnum = Enum.valueOf(getSoundCategoryClass(), category.name());
-				method.invoke(player, MathUtils.stereoPan(location, distance), sound, soundCategoryEnum, volume, pitch);
-			} else {
-				Method method = getPlaySoundMethod(sound.getClass(), false);
-				method.invoke(player, MathUtils.stereoPan(location, distance), sound, volume, pitch);
-			}
-		} catch (NoSuchMethodException | ClassNotFoundException | IllegalAccessException | InvocationTargetException e) {
+			SoundHandles.PLAY_SOUND.invokeExact(player, getSoundLocation(location, distance), (Object) sound,
+					SoundHandles.CATEGORIES[category.ordinal()], volume, pitch);
+		} catch (Throwable e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static void playSoundUniversal(Player player, Location location, String sound,
+								 SoundCategory category, float volume, float pitch, float distance) {
+		if (SoundHandles.PLAY_SOUND_NAME == null) {
+			return;
+		}
+		try {
+			SoundHandles.PLAY_SOUND_NAME.invokeExact(player, getSoundLocation(location, distance), (Object) sound,
+					SoundHandles.CATEGORIES[category.ordinal()], volume, pitch);
+		} catch (Throwable e) {
 			e.printStackTrace();
 		}
 	}
 
+	private static Location getSoundLocation(Location location, float distance) {
+		return distance == 0 ? location : MathUtils.stereoPan(location, distance);
+	}
+
 	/**
 	 * Gets instruments which were added post-1.12
 	 * @return ArrayList of instruments
@@ -0,0 +1,157 @@
+package com.xxmicloxx.NoteBlockAPI.utils;
+
+/**
+ * Limits of a Note Block Studio project accepted by {@link NBSDecoder}, protecting the server
+ * from corrupted or malicious files. A file exceeding any limit fails with
+ * {@link SongDecodeException.Reason#LIMIT_EXCEEDED} before the memory for it is allocated.
+ * <p>
+ * Limits are copied when decoding starts, changing them doesn't affect running decodes.
+ */
+public class DecodeLimits {
+
+	static final DecodeLimits UNLIMITED = new DecodeLimits(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE,
+			Integer.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE);
+
+	private int maxStringLength;
+	private int maxLayers;
+	private int maxTicks;
+	private int maxNotes;
+	private int maxCustomInstruments;
+	private long maxFileSize;
+
+	/**
+	 * Creates limits suitable for songs uploaded by players: files up to 32 MiB, strings up to 64 KiB,
+	 * 1024 layers, 32767 ticks, 1 million notes and 255 custom instruments
+	 */
+	public DecodeLimits() {
+		this(64 * 1024, 1024, Short.MAX_VALUE, 1_000_000, 255, 32 * 1024 * 1024);
+	}
+
+	/**
+	 * Creates limits without limit of the file size
+	 */
+	public DecodeLimits(int maxStringLength, int maxLayers, int maxTicks, int maxNotes, int maxCustomInstruments) {
+		this(maxStringLength, maxLayers, maxTicks, maxNotes, maxCustomInstruments, Long.MAX_VALUE);
+	}
+
+	public DecodeLimits(int maxStringLength, int maxLayers, int maxTicks, int maxNotes, int maxCustomInstruments,
+						long maxFileSize) {
+		this.maxStringLength = maxStringLength;
+		this.maxLayers = maxLayers;
+		this.maxTicks = maxTicks;
+		this.maxNotes = maxNotes;
+		this.maxCustomInstruments = maxCustomInstruments;
+		this.maxFileSize = maxFileSize;
+	}
+
+	public DecodeLimits(DecodeLimits other) {
+		this(other.maxStringLength, other.maxLayers, other.maxTicks, other.maxNotes, other.maxCustomInstruments,
+				other.maxFileSize);
+	}
+
+	/**
+	 * Returns maximal size of the file or stream in bytes, files are checked before they are read
+	 * @return max file size
+	 */
+	public long getMaxFileSize() {
+		return maxFileSize;
+	}
+
+	/**
+	 * Sets maximal size of the file or stream in bytes, files are checked before they are read
+	 * @param maxFileSize
+	 */
+	public void setMaxFileSize(long maxFileSize) {
+		this.maxFileSize = maxFileSize;
+	}
+
+	/**
+	 * Returns maximal length of a string (title, author, layer name...) in bytes
+	 * @return max string length
+	 */
+	public int getMaxStringLength() {
+		return maxStringLength;
+	}
+
+	/**
+	 * Sets maximal length of a string (title, author, layer name...) in bytes
+	 * @param maxStringLength
+	 */
+	public void setMaxStringLength(int maxStringLength) {
+		this.maxStringLength = maxStringLength;
+	}
+
+	/**
+	 * Returns maximal number of layers
+	 * @return max layers
+	 */
+	public int getMaxLayers() {
+		return maxLayers;
+	}
+
+	/**
+	 * Sets maximal number of layers
+	 * @param maxLayers
+	 */
+	public void setMaxLayers(int maxLayers) {
+		this.maxLayers = maxLayers;
+	}
+
+	/**
+	 * Returns maximal tick a note can be placed at
+	 * @return max tick
+	 */
+	public int getMaxTicks() {
+		return maxTicks;
+	}
+
+	/**
+	 * Sets maximal tick a note can be placed at
+	 * @param maxTicks
+	 */
+	public void setMaxTicks(int maxTicks) {
+		this.maxTicks = maxTicks;
+	}
+
+	/**
+	 * Returns maximal number of notes
+	 * @return max notes
+	 */
+	public int getMaxNotes() {
+		return maxNotes;
+	}
+
+	/**
+	 * Sets maximal number of notes
+	 * @param maxNotes
+	 */
+	public void setMaxNotes(int maxNotes) {
+		this.maxNotes = maxNotes;
+	}
+
+	/**
+	 * Returns maximal number of custom instruments
+	 * @return max custom instruments
+	 */
+	public int getMaxCustomInstruments() {
+		return maxCustomInstruments;
+	}
+
+	/**
+	 * Sets maximal number of custom instruments
+	 * @param maxCustomInstruments
+	 */
+	public void setMaxCustomInstruments(int maxCustomInstruments) {
+		this.maxCustomInstruments = maxCustomInstruments;
+	}
+
+	/**
+	 * Fails if value is higher than limit
+	 * @throws LimitExceededException
+	 */
+	static void check(String name, long value, long limit) throws LimitExceededException {
+		if (value > limit) {
+			throw new LimitExceededException(name + " " + value + " exceeds limit " + limit);
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package com.xxmicloxx.NoteBlockAPI.utils;
+
+import java.io.IOException;
+
+/**
+ * Thrown while reading data exceeding {@link DecodeLimits}
+ */
+class LimitExceededException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	LimitExceededException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,357 @@
+package com.xxmicloxx.NoteBlockAPI.utils;
+
+import com.xxmicloxx.NoteBlockAPI.model.SongInfo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary cache of Note Block Studio project files (.nbs).
+ * <p>
+ * Cache of {@code song.nbs} is stored next to it as {@code song.nbs.cache}. {@link NBSDecoder#parse(File)} loads
+ * the cache instead of the .nbs file while the .nbs file is unchanged, which is checked by its size, modification
+ * time and checksum. When only the modification time changed, e.g. after the file was copied, the checksum
+ * is compared once and the new time is stored in the cache. Cache files are created by {@link #compile(File)}
+ * or for a whole directory by running {@code java -cp NoteBlockAPI.jar com.xxmicloxx.NoteBlockAPI.utils.NBSCache <directory> [threads]},
+ * which doesn't need a server.
+ * <p>
+ * Instruments are stored as in the .nbs file and adjusted to the server version when the cache is loaded,
+ * so a cache can be shared by servers of different versions.
+ */
+public class NBSCache {
+
+	public static final String EXTENSION = ".cache";
+
+	private static final int MAGIC = 0x4E425343; // NBSC
+	private static final int FORMAT_VERSION = 1;
+	private static final int MIN_NOTE_SIZE = 6;
+	private static final int MODIFIED_OFFSET = 16; // after magic, format version and size
+
+	/**
+	 * Returns cache file of the given .nbs file
+	 * @param songFile .nbs file
+	 * @return cache file, may not exist
+	 */
+	public static File getCacheFile(File songFile) {
+		return new File(songFile.getParentFile(), songFile.getName() + EXTENSION);
+	}
+
+	/**
+	 * Creates or replaces cache of the given .nbs file
+	 * @param songFile .nbs file
+	 * @throws IOException if the file can't be read, is corrupted or the cache can't be written
+	 */
+	public static void compile(File songFile) throws IOException {
+		long modified = songFile.lastModified();
+		byte[] bytes = Files.readAllBytes(songFile.toPath());
+		NBSData data = NBSData.read(NBSReader.wrap(ByteBuffer.wrap(bytes)), songFile);
+		write(getCacheFile(songFile), data, bytes.length, modified, checksum(bytes));
+	}
+
+	/**
+	 * Loads content of the .nbs file from its cache
+	 * @param songFile .nbs file
+	 * @return content of the file or null if there is no valid cache
+	 */
+	static NBSData load(File songFile) {
+		File cacheFile = getCacheFile(songFile);
+		if (!cacheFile.isFile()) {
+			return null;
+		}
+
+		try (FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+				return null;
+			}
+
+			long size = buffer.getLong();
+			long modified = buffer.getLong();
+			int checksum = buffer.getInt();
+			if (size != songFile.length()) {
+				return null;
+			}
+			long lastModified = songFile.lastModified();
+			if (modified != lastModified) {
+				// e.g. copied or checked out again, the checksum decides whether the content changed
+				if (checksum != checksum(Files.readAllBytes(songFile.toPath()))) {
+					return null;
+				}
+				restamp(cacheFile, lastModified);
+			}
+			return read(buffer, songFile);
+		} catch (IOException | RuntimeException e) {
+			return null; // corrupted cache, the .nbs file is used
+		}
+	}
+
+	/**
+	 * Stores new modification time of the unchanged .nbs file in its cache, so the checksum isn't computed
+	 * on every load
+	 */
+	private static void restamp(File cacheFile, long modified) {
+		ByteBuffer buffer = ByteBuffer.allocate(8);
+		buffer.putLong(0, modified);
+		try (FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.WRITE)) {
+			channel.write(buffer, MODIFIED_OFFSET);
+		} catch (IOException e) {
+			// read-only cache, the checksum is compared again next time
+		}
+	}
+
+	private static NBSData read(ByteBuffer buffer, File songFile) {
+		NBSData data = new NBSData();
+		int version = readVarInt(buffer);
+		int firstCustomInstrument = readVarInt(buffer);
+		short length = buffer.getShort();
+		short songHeight = buffer.getShort();
+		String title = readString(buffer);
+		String author = readString(buffer);
+		String originalAuthor = readString(buffer);
+		String description = readString(buffer);
+		float speed = buffer.getFloat();
+		boolean loop = buffer.get() != 0;
+		int maxLoopCount = readVarInt(buffer);
+		short loopStartTick = buffer.getShort();
+		data.stereo = buffer.get() != 0;
+
+		int layerCount = readCount(buffer, 3);
+		data.layerNames = new String[layerCount];
+		data.layerVolumes = new byte[layerCount];
+		data.layerPanning = new int[layerCount];
+		for (int i = 0; i < layerCount; i++) {
+			data.layerNames[i] = readString(buffer);
+			data.layerVolumes[i] = buffer.get();
+			data.layerPanning[i] = readZigZag(buffer) + 100;
+		}
+
+		int customCount = readCount(buffer, 2);
+		data.customInstrumentNames = new String[customCount];
+		data.customInstrumentFiles = new String[customCount];
+		for (int i = 0; i < customCount; i++) {
+			data.customInstrumentNames[i] = readString(buffer);
+			data.customInstrumentFiles[i] = readString(buffer);
+		}
+
+		int noteCount = readCount(buffer, MIN_NOTE_SIZE);
+		data.ticks = new int[noteCount];
+		data.layers = new short[noteCount];
+		data.notes = new long[noteCount];
+		int tick = -1;
+		for (int i = 0; i < noteCount; i++) {
+			tick += readZigZag(buffer);
+			short layer = (short) readZigZag(buffer);
+			byte instrument = buffer.get();
+			byte key = buffer.get();
+			byte velocity = buffer.get();
+			int panning = readZigZag(buffer) + 100;
+			short pitch = (short) readZigZag(buffer);
+			data.addNote(tick, layer, instrument, key, velocity, panning, pitch);
+		}
+
+		data.info = new SongInfo(songFile, version, firstCustomInstrument, length, songHeight, title, author,
+				originalAuthor, description, speed, loop, maxLoopCount, loopStartTick, -1);
+		return data;
+	}
+
+	private static void write(File cacheFile, NBSData data, long size, long modified, int checksum) throws IOException {
+		Output output = new Output();
+		output.writeInt(MAGIC);
+		output.writeInt(FORMAT_VERSION);
+		output.writeLong(size);
+		output.writeLong(modified);
+		output.writeInt(checksum);
+
+		SongInfo info = data.info;
+		output.writeVarInt(info.getVersion());
+		output.writeVarInt(info.getFirstCustomInstrumentIndex());
+		output.writeShort(info.getLength());
+		output.writeShort(info.getSongHeight());
+		output.writeString(info.getTitle());
+		output.writeString(info.getAuthor());
+		output.writeString(info.getOriginalAuthor());
+		output.writeString(info.getDescription());
+		output.writeInt(Float.floatToIntBits(info.getSpeed()));
+		output.write(info.isLoop() ? 1 : 0);
+		output.writeVarInt(info.getMaxLoopCount());
+		output.writeShort(info.getLoopStartTick());
+		output.write(data.stereo ? 1 : 0);
+
+		output.writeVarInt(data.layerNames.length);
+		for (int i = 0; i < data.layerNames.length; i++) {
+			output.writeString(data.layerNames[i]);
+			output.write(data.layerVolumes[i]);
+			output.writeZigZag(data.layerPanning[i] - 100);
+		}
+
+		output.writeVarInt(data.customInstrumentNames.length);
+		for (int i = 0; i < data.customInstrumentNames.length; i++) {
+			output.writeString(data.customInstrumentNames[i]);
+			output.writeString(data.customInstrumentFiles[i]);
+		}
+
+		output.writeVarInt(data.noteCount);
+		int tick = -1;
+		for (int i = 0; i < data.noteCount; i++) {
+			output.writeZigZag(data.ticks[i] - tick);
+			tick = data.ticks[i];
+			output.writeZigZag(data.layers[i]);
+			output.write(data.getInstrument(i));
+			output.write(data.getKey(i));
+			output.write(data.getVelocity(i));
+			output.writeZigZag(data.getPanning(i) - 100);
+			output.writeZigZag(data.getPitch(i));
+		}
+
+		Path target = cacheFile.toPath();
+		Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), cacheFile.getName(), ".tmp");
+		try {
+			Files.write(temp, output.toByteArray());
+			try {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private static int checksum(byte[] bytes) {
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+		return (int) crc.getValue();
+	}
+
+	private static int readVarInt(ByteBuffer buffer) {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IllegalStateException("VarInt is too long");
+	}
+
+	private static int readZigZag(ByteBuffer buffer) {
+		int value = readVarInt(buffer);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Reads number of following entries, each taking at least minSize bytes
+	 */
+	private static int readCount(ByteBuffer buffer, int minSize) {
+		int count = readVarInt(buffer);
+		if (count < 0 || count > buffer.remaining() / minSize) {
+			throw new BufferUnderflowException();
+		}
+		return count;
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		int length = readCount(buffer, 1);
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = (char) readVarInt(buffer);
+		}
+		return new String(chars);
+	}
+
+	private static final class Output extends ByteArrayOutputStream {
+
+		Output() {
+			super(64 * 1024);
+		}
+
+		void writeShort(int value) {
+			write(value >>> 8);
+			write(value);
+		}
+
+		void writeInt(int value) {
+			writeShort(value >>> 16);
+			writeShort(value);
+		}
+
+		void writeLong(long value) {
+			writeInt((int) (value >>> 32));
+			writeInt((int) value);
+		}
+
+		void writeVarInt(int value) {
+			while ((value & ~0x7F) != 0) {
+				write((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			write(value);
+		}
+
+		void writeZigZag(int value) {
+			writeVarInt((value << 1) ^ (value >> 31));
+		}
+
+		void writeString(String value) {
+			writeVarInt(value.length());
+			for (int i = 0; i < value.length(); i++) {
+				writeVarInt(value.charAt(i));
+			}
+		}
+	}
+
+	/**
+	 * Compiles all .nbs files in a directory and its subdirectories
+	 * @param args directory and optionally number of threads
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length < 1) {
+			System.out.println("Usage: java -cp NoteBlockAPI.jar " + NBSCache.class.getName() + " <directory> [threads]");
+			return;
+		}
+
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		List<Path> files;
+		try (Stream<Path> paths = Files.walk(new File(args[0]).toPath())) {
+			files = paths.filter(path -> path.getFileName().toString().toLowerCase().endsWith(".nbs"))
+					.collect(Collectors.toList());
+		}
+
+		long start = System.nanoTime();
+		AtomicInteger failed = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		for (Path path : files) {
+			executor.submit(() -> {
+				try {
+					compile(path.toFile());
+				} catch (IOException | RuntimeException e) {
+					failed.incrementAndGet();
+					System.err.println("Cannot compile " + path + ": " + e);
+				}
+			});
+		}
+		executor.shutdown();
+		executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+
+		System.out.println(String.format("Compiled %d of %d songs in %d ms", files.size() - failed.get(), files.size(),
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+	}
+}
@@ -0,0 +1,285 @@
+package com.xxmicloxx.NoteBlockAPI.utils;
+
+import com.xxmicloxx.NoteBlockAPI.model.SongInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Content of a Note Block Studio project file exactly as stored in it, before any server version
+ * dependent adjustments. Does not depend on Bukkit, so it can be used without a running server.
+ */
+class NBSData {
+
+	private static final int INSTRUMENT_SHIFT = 0;
+	private static final int KEY_SHIFT = 8;
+	private static final int VELOCITY_SHIFT = 16;
+	private static final int PANNING_SHIFT = 24;
+	private static final int PITCH_SHIFT = 40;
+
+	SongInfo info;
+	boolean stereo;
+
+	int noteCount;
+	int[] ticks = new int[256];
+	short[] layers = new short[256];
+	long[] notes = new long[256];
+
+	String[] layerNames = new String[0];
+	byte[] layerVolumes = new byte[0];
+	int[] layerPanning = new int[0];
+
+	String[] customInstrumentNames = new String[0];
+	String[] customInstrumentFiles = new String[0];
+
+	/**
+	 * Reads the whole content of a .nbs file
+	 * @param reader
+	 * @param songFile file the data is read from or null
+	 * @return data of the file
+	 * @throws IOException
+	 */
+	static NBSData read(NBSReader reader, File songFile) throws IOException {
+		return read(reader, songFile, DecodeLimits.UNLIMITED);
+	}
+
+	/**
+	 * Reads the whole content of a .nbs file, failing as soon as any limit is exceeded
+	 * @param reader
+	 * @param songFile file the data is read from or null
+	 * @param limits
+	 * @return data of the file
+	 * @throws LimitExceededException if the file exceeds limits
+	 * @throws IOException
+	 */
+	static NBSData read(NBSReader reader, File songFile, DecodeLimits limits) throws IOException {
+		reader.setMaxStringLength(limits.getMaxStringLength());
+		reader.setMaxSize(limits.getMaxFileSize());
+		NBSData data = new NBSData();
+		data.info = readHeader(reader, songFile);
+		int nbsversion = data.info.getVersion();
+		DecodeLimits.check("Layer count", data.info.getSongHeight(), limits.getMaxLayers());
+
+		short tick = -1;
+		while (true) {
+			short jumpTicks = reader.readShort(); // jumps till next tick
+			if (jumpTicks == 0) {
+				break;
+			}
+			DecodeLimits.check("Tick", tick + jumpTicks, limits.getMaxTicks());
+			tick += jumpTicks;
+			reader.checkCancelled();
+			short layer = -1;
+			while (true) {
+				short jumpLayers = reader.readShort(); // jumps till next layer
+				if (jumpLayers == 0) {
+					break;
+				}
+				layer += jumpLayers;
+				DecodeLimits.check("Layer", layer + 1, limits.getMaxLayers());
+				DecodeLimits.check("Note count", data.noteCount + 1, limits.getMaxNotes());
+				byte instrument = reader.readByte();
+				byte key = reader.readByte();
+				byte velocity = 100;
+				int panning = 100;
+				short pitch = 0;
+				if (nbsversion >= 4) {
+					velocity = reader.readByte(); // note block velocity
+					panning = 200 - reader.readUnsignedByte(); // note panning, 0 is right in nbs format
+					pitch = reader.readShort(); // note block pitch
+				}
+
+				if (panning != 100) {
+					data.stereo = true;
+				}
+
+				data.addNote(tick, layer, instrument, key, velocity, panning, pitch);
+			}
+		}
+
+		if (nbsversion > 0 && nbsversion < 3) {
+			data.info = withLength(data.info, tick);
+		}
+
+		int songHeight = Math.max(data.info.getSongHeight(), 0);
+		data.layerNames = new String[songHeight];
+		data.layerVolumes = new byte[songHeight];
+		data.layerPanning = new int[songHeight];
+		for (int i = 0; i < songHeight; i++) {
+			data.layerNames[i] = reader.readString();
+			if (nbsversion >= 4) {
+				reader.readByte(); // layer lock
+			}
+
+			data.layerVolumes[i] = reader.readByte();
+			int panning = 100;
+			if (nbsversion >= 2) {
+				panning = 200 - reader.readUnsignedByte(); // layer stereo, 0 is right in nbs format
+			}
+			data.layerPanning[i] = panning;
+
+			if (panning != 100) {
+				data.stereo = true;
+			}
+		}
+
+		//count of custom instruments
+		int customAmnt = reader.readUnsignedByte();
+		DecodeLimits.check("Custom instrument count", customAmnt, limits.getMaxCustomInstruments());
+		data.customInstrumentNames = new String[customAmnt];
+		data.customInstrumentFiles = new String[customAmnt];
+		for (int index = 0; index < customAmnt; index++) {
+			data.customInstrumentNames[index] = reader.readString();
+			data.customInstrumentFiles[index] = reader.readString();
+			reader.readByte();//pitch
+			reader.readByte();//key
+		}
+		return data;
+	}
+
+	/**
+	 * Reads header of a .nbs file, reader is left at the start of the note section
+	 */
+	static SongInfo readHeader(NBSReader reader, File songFile) throws IOException {
+		short length = reader.readShort();
+		int firstcustominstrument = 10; //Backward compatibility - most of songs with old structure are from 1.12
+		int nbsversion = 0;
+		if (length == 0) {
+			nbsversion = reader.readByte();
+			firstcustominstrument = reader.readByte();
+			if (nbsversion >= 3) {
+				length = reader.readShort();
+			}
+		}
+		short songHeight = reader.readShort();
+		String title = reader.readString();
+		String author = reader.readString();
+		String originalAuthor = reader.readString(); // original author
+		String description = reader.readString();
+		float speed = reader.readShort() / 100f;
+		reader.readBoolean(); // auto-save
+		reader.readByte(); // auto-save duration
+		reader.readByte(); // x/4ths, time signature
+		reader.readInt(); // minutes spent on project
+		reader.readInt(); // left clicks (why?)
+		reader.readInt(); // right clicks (why?)
+		reader.readInt(); // blocks added
+		reader.readInt(); // blocks removed
+		reader.skipString(); // .mid/.schematic file name
+		boolean loop = false;
+		int maxLoopCount = 0;
+		short loopStartTick = 0;
+		if (nbsversion >= 4) {
+			loop = reader.readBoolean(); // loop on/off
+			maxLoopCount = reader.readUnsignedByte(); // max loop count
+			loopStartTick = reader.readShort(); // loop start tick
+		}
+		return new SongInfo(songFile, nbsversion, firstcustominstrument, length, songHeight, title, author,
+				originalAuthor, description, speed, loop, maxLoopCount, loopStartTick, -1);
+	}
+
+	static SongInfo withLength(SongInfo info, short length) {
+		return new SongInfo(info.getPath(), info.getVersion(), info.getFirstCustomInstrumentIndex(), length,
+				info.getSongHeight(), info.getTitle(), info.getAuthor(), info.getOriginalAuthor(),
+				info.getDescription(), info.getSpeed(), info.isLoop(), info.getMaxLoopCount(),
+				info.getLoopStartTick(), info.getNoteCount());
+	}
+
+	/**
+	 * Computes SHA-256 hash of everything except metadata: notes, layers including their names and custom instruments
+	 * @return hash of the song content
+	 */
+	byte[] getContentHash() {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e); // every Java platform supports SHA-256
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+		buffer.putInt(info.getFirstCustomInstrumentIndex()).putShort(info.getLength()).putShort(info.getSongHeight())
+				.put((byte) (stereo ? 1 : 0)).putInt(noteCount);
+		for (int i = 0; i < noteCount; i++) {
+			if (buffer.remaining() < 14) {
+				flush(digest, buffer);
+			}
+			buffer.putInt(ticks[i]).putShort(layers[i]).putLong(notes[i]);
+		}
+		flush(digest, buffer);
+
+		buffer.putInt(layerVolumes.length);
+		for (int i = 0; i < layerVolumes.length; i++) {
+			if (buffer.remaining() < 5) {
+				flush(digest, buffer);
+			}
+			buffer.put(layerVolumes[i]).putInt(layerPanning[i]);
+		}
+		flush(digest, buffer);
+		for (String layerName : layerNames) {
+			update(digest, layerName);
+		}
+
+		buffer.putInt(customInstrumentNames.length);
+		flush(digest, buffer);
+		for (int i = 0; i < customInstrumentNames.length; i++) {
+			update(digest, customInstrumentNames[i]);
+			update(digest, customInstrumentFiles[i]);
+		}
+		return digest.digest();
+	}
+
+	private static void flush(MessageDigest digest, ByteBuffer buffer) {
+		buffer.flip();
+		digest.update(buffer);
+		buffer.clear();
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+		digest.update(bytes);
+	}
+
+	void addNote(int tick, short layer, byte instrument, byte key, byte velocity, int panning, short pitch) {
+		if (noteCount == ticks.length) {
+			int capacity = noteCount + (noteCount >> 1);
+			ticks = Arrays.copyOf(ticks, capacity);
+			layers = Arrays.copyOf(layers, capacity);
+			notes = Arrays.copyOf(notes, capacity);
+		}
+		ticks[noteCount] = tick;
+		layers[noteCount] = layer;
+		notes[noteCount] = ((long) (instrument & 0xFF) << INSTRUMENT_SHIFT)
+				| ((long) (key & 0xFF) << KEY_SHIFT)
+				| ((long) (velocity & 0xFF) << VELOCITY_SHIFT)
+				| ((long) (panning & 0xFFFF) << PANNING_SHIFT)
+				| ((long) (pitch & 0xFFFF) << PITCH_SHIFT);
+		noteCount++;
+	}
+
+	byte getInstrument(int index) {
+		return (byte) (notes[index] >>> INSTRUMENT_SHIFT);
+	}
+
+	byte getKey(int index) {
+		return (byte) (notes[index] >>> KEY_SHIFT);
+	}
+
+	byte getVelocity(int index) {
+		return (byte) (notes[index] >>> VELOCITY_SHIFT);
+	}
+
+	int getPanning(int index) {
+		return (short) (notes[index] >>> PANNING_SHIFT);
+	}
+
+	short getPitch(int index) {
+		return (short) (notes[index] >>> PITCH_SHIFT);
+	}
+}
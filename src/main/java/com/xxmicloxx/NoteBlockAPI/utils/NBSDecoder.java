@@ -1,23 +1,32 @@
 package com.xxmicloxx.NoteBlockAPI.utils;
 
-import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 
 import com.xxmicloxx.NoteBlockAPI.model.CustomInstrument;
 import com.xxmicloxx.NoteBlockAPI.model.Layer;
-import com.xxmicloxx.NoteBlockAPI.model.Note;
 import com.xxmicloxx.NoteBlockAPI.model.Song;
+import com.xxmicloxx.NoteBlockAPI.model.SongInfo;
 
 /**
  * Utils for reading Note Block Studio data
@@ -25,21 +34,83 @@ import com.xxmicloxx.NoteBlockAPI.model.Song;
  */
 public class NBSDecoder {
 
+	private static final int ASYNC_QUEUE_SIZE = 256;
+
+	private static final AtomicInteger decoderThreadCounter = new AtomicInteger();
+	private static volatile Executor executor;
+
 	/**
-	 * Parses a Song from a Note Block Studio project file (.nbs)
+	 * Parses a Song from a Note Block Studio project file (.nbs).
+	 * Valid cache of the file is used instead if there is one.
 	 * @see Song
+	 * @see NBSCache
 	 * @param songFile .nbs file
 	 * @return Song object representing a Note Block Studio project
 	 */
 	public static Song parse(File songFile) {
 		try {
-			return parse(new FileInputStream(songFile), songFile);
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
+			return decode(songFile, null, null);
+		} catch (SongDecodeException e) {
+			report(e);
+		}
+		return null;
+	}
+
+	/**
+	 * Parses a Song from a Note Block Studio project file (.nbs).
+	 * The path can be in any file system, e.g. an entry of a zip file opened as a {@link java.nio.file.FileSystem}.
+	 * Songs read from other than the default file system have no {@link Song#getPath()}.
+	 * @see Song
+	 * @param songPath .nbs file
+	 * @return Song object representing a Note Block Studio project
+	 */
+	public static Song parse(Path songPath) {
+		if (songPath.getFileSystem() == FileSystems.getDefault()) {
+			return parse(songPath.toFile());
+		}
+
+		try {
+			return decode(open(songPath, null, DecodeLimits.UNLIMITED), null, DecodeLimits.UNLIMITED);
+		} catch (SongDecodeException e) {
+			report(e);
+		}
+		return null;
+	}
+
+	/**
+	 * Parses a Song from a Note Block Studio project file (.nbs). If the deduplicator already holds a Song
+	 * with the same notes, layers and instruments, the returned Song shares them and only has its own metadata.
+	 * @see #parse(Path)
+	 * @param songPath .nbs file
+	 * @param deduplicator Songs to share content with
+	 * @return Song object representing a Note Block Studio project
+	 */
+	public static Song parse(Path songPath, SongDeduplicator deduplicator) {
+		try {
+			if (songPath.getFileSystem() == FileSystems.getDefault()) {
+				File songFile = songPath.toFile();
+				return deduplicator.deduplicate(read(songFile, null, null), songFile);
+			}
+			return deduplicator.deduplicate(read(open(songPath, null, DecodeLimits.UNLIMITED), null, DecodeLimits.UNLIMITED), null);
+		} catch (SongDecodeException e) {
+			report(e);
 		}
 		return null;
 	}
 
+	/**
+	 * Parses a Song from a Note Block Studio project file (.nbs) with limits protecting from
+	 * corrupted or malicious files. Cache of the file is not used.
+	 * @see Song
+	 * @param songFile .nbs file
+	 * @param limits limits of the song
+	 * @return Song object representing a Note Block Studio project
+	 * @throws SongDecodeException if the file can't be decoded or exceeds limits
+	 */
+	public static Song parse(File songFile, DecodeLimits limits) throws SongDecodeException {
+		return decode(songFile, new DecodeLimits(limits), null);
+	}
+
 	/**
 	 * Parses a Song from an InputStream
 	 * @see Song
@@ -47,201 +118,398 @@ public class NBSDecoder {
 	 * @return Song object from the InputStream
 	 */
 	public static Song parse(InputStream inputStream) {
-		return parse(inputStream, null); // Source is unknown -> no file
+		try {
+			return decode(NBSReader.open(inputStream), null, DecodeLimits.UNLIMITED); // Source is unknown -> no file
+		} catch (SongDecodeException e) {
+			report(e);
+		}
+		return null;
 	}
 
 	/**
-	 * Parses a Song from an InputStream and a Note Block Studio project file (.nbs)
+	 * Parses a Song from an InputStream with limits protecting from corrupted or malicious files
 	 * @see Song
-	 * @param inputStream of a .nbs file
-	 * @param songFile representing a .nbs file
-	 * @return Song object representing the given .nbs file
+	 * @param inputStream of a Note Block Studio project file (.nbs)
+	 * @param limits limits of the song
+	 * @return Song object from the InputStream
+	 * @throws SongDecodeException if the data can't be decoded or exceeds limits
 	 */
-	private static Song parse(InputStream inputStream, File songFile) {
-		HashMap<Integer, Layer> layerHashMap = new HashMap<Integer, Layer>();
-		byte biggestInstrumentIndex = -1;
-		boolean isStereo = false;
-		try {
-			DataInputStream dataInputStream = new DataInputStream(inputStream);
-			short length = readShort(dataInputStream);
-			int firstcustominstrument = 10; //Backward compatibility - most of songs with old structure are from 1.12
-			int firstcustominstrumentdiff;
-			int nbsversion = 0;
-			if (length == 0) {
-				nbsversion = dataInputStream.readByte();
-				firstcustominstrument = dataInputStream.readByte();
-				if (nbsversion >= 3) {
-					length = readShort(dataInputStream);
+	public static Song parse(InputStream inputStream, DecodeLimits limits) throws SongDecodeException {
+		return decode(NBSReader.open(inputStream), null, new DecodeLimits(limits));
+	}
+
+	/**
+	 * Parses a Song from a Note Block Studio project file (.nbs) on the decoding executor
+	 * @see #setExecutor(Executor)
+	 * @param songFile .nbs file
+	 * @return future of the Song, completed exceptionally with {@link SongDecodeException} if decoding fails.
+	 * Cancelling the future stops decoding.
+	 */
+	public static CompletableFuture<Song> parseAsync(File songFile) {
+		return submit(cancelled -> decode(songFile, null, cancelled));
+	}
+
+	/**
+	 * Parses a Song from a Note Block Studio project file (.nbs) on the decoding executor with limits
+	 * protecting from corrupted or malicious files. Cache of the file is not used.
+	 * @see #setExecutor(Executor)
+	 * @param songFile .nbs file
+	 * @param limits limits of the song
+	 * @return future of the Song, completed exceptionally with {@link SongDecodeException} if decoding fails.
+	 * Cancelling the future stops decoding.
+	 */
+	public static CompletableFuture<Song> parseAsync(File songFile, DecodeLimits limits) {
+		DecodeLimits copy = new DecodeLimits(limits);
+		return submit(cancelled -> decode(songFile, copy, cancelled));
+	}
+
+	/**
+	 * Parses a Song from a Note Block Studio project file (.nbs) on the decoding executor.
+	 * The path can be in any file system.
+	 * @see #setExecutor(Executor)
+	 * @param songPath .nbs file
+	 * @return future of the Song, completed exceptionally with {@link SongDecodeException} if decoding fails.
+	 * Cancelling the future stops decoding.
+	 */
+	public static CompletableFuture<Song> parseAsync(Path songPath) {
+		if (songPath.getFileSystem() == FileSystems.getDefault()) {
+			return parseAsync(songPath.toFile());
+		}
+		return parseAsync(songPath, DecodeLimits.UNLIMITED);
+	}
+
+	/**
+	 * Parses a Song from a Note Block Studio project file (.nbs) on the decoding executor with limits
+	 * protecting from corrupted or malicious files. The path can be in any file system.
+	 * @see #setExecutor(Executor)
+	 * @param songPath .nbs file
+	 * @param limits limits of the song
+	 * @return future of the Song, completed exceptionally with {@link SongDecodeException} if decoding fails.
+	 * Cancelling the future stops decoding.
+	 */
+	public static CompletableFuture<Song> parseAsync(Path songPath, DecodeLimits limits) {
+		DecodeLimits copy = new DecodeLimits(limits);
+		File songFile = songPath.getFileSystem() == FileSystems.getDefault() ? songPath.toFile() : null;
+		return submit(cancelled -> {
+			NBSReader reader = open(songPath, songFile, copy);
+			reader.setCancellation(cancelled);
+			return decode(reader, songFile, copy);
+		});
+	}
+
+	/**
+	 * Parses a Song from an InputStream on the decoding executor.
+	 * The InputStream is not closed and must stay open until the future is completed.
+	 * @see #setExecutor(Executor)
+	 * @param inputStream of a Note Block Studio project file (.nbs)
+	 * @return future of the Song, completed exceptionally with {@link SongDecodeException} if decoding fails.
+	 * Cancelling the future stops decoding.
+	 */
+	public static CompletableFuture<Song> parseAsync(InputStream inputStream) {
+		return parseAsync(inputStream, DecodeLimits.UNLIMITED);
+	}
+
+	/**
+	 * Parses a Song from an InputStream on the decoding executor with limits protecting from
+	 * corrupted or malicious files. The InputStream is not closed and must stay open until the future is completed.
+	 * @see #setExecutor(Executor)
+	 * @param inputStream of a Note Block Studio project file (.nbs)
+	 * @param limits limits of the song
+	 * @return future of the Song, completed exceptionally with {@link SongDecodeException} if decoding fails.
+	 * Cancelling the future stops decoding.
+	 */
+	public static CompletableFuture<Song> parseAsync(InputStream inputStream, DecodeLimits limits) {
+		DecodeLimits copy = new DecodeLimits(limits);
+		return submit(cancelled -> {
+			NBSReader reader = NBSReader.open(inputStream);
+			reader.setCancellation(cancelled);
+			return decode(reader, null, copy);
+		});
+	}
+
+	/**
+	 * Sets the executor used by parseAsync methods. Its number of threads limits how many songs are decoded at once.
+	 * @param executor Executor or null to use the default one, which decodes on half of the available processors
+	 * and fails with {@link SongDecodeException.Reason#OVERLOADED} when more than 256 songs are waiting
+	 */
+	public static void setExecutor(Executor executor) {
+		NBSDecoder.executor = executor;
+	}
+
+	/**
+	 * Returns the executor used by parseAsync methods
+	 * @return Executor
+	 */
+	public static Executor getExecutor() {
+		Executor executor = NBSDecoder.executor;
+		if (executor == null) {
+			synchronized (NBSDecoder.class) {
+				executor = NBSDecoder.executor;
+				if (executor == null) {
+					executor = NBSDecoder.executor = createDefaultExecutor();
 				}
 			}
-			firstcustominstrumentdiff = InstrumentUtils.getCustomInstrumentFirstIndex() - firstcustominstrument;
-			short songHeight = readShort(dataInputStream);
-			String title = readString(dataInputStream);
-			String author = readString(dataInputStream);
-			String originalAuthor = readString(dataInputStream); // original author
-			String description = readString(dataInputStream);
-			float speed = readShort(dataInputStream) / 100f;
-			dataInputStream.readBoolean(); // auto-save
-			dataInputStream.readByte(); // auto-save duration
-			dataInputStream.readByte(); // x/4ths, time signature
-			readInt(dataInputStream); // minutes spent on project
-			readInt(dataInputStream); // left clicks (why?)
-			readInt(dataInputStream); // right clicks (why?)
-			readInt(dataInputStream); // blocks added
-			readInt(dataInputStream); // blocks removed
-			readString(dataInputStream); // .mid/.schematic file name
-			if (nbsversion >= 4) {
-				dataInputStream.readByte(); // loop on/off
-				dataInputStream.readByte(); // max loop count
-				readShort(dataInputStream); // loop start tick
-			}
-			short tick = -1;
-			while (true) {
-				short jumpTicks = readShort(dataInputStream); // jumps till next tick
-				//System.out.println("Jumps to next tick: " + jumpTicks);
-				if (jumpTicks == 0) {
-					break;
+		}
+		return executor;
+	}
+
+	private static Executor createDefaultExecutor() {
+		int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(ASYNC_QUEUE_SIZE), runnable -> {
+					Thread thread = new Thread(runnable, "NoteBlockAPI Song Decoder #" + decoderThreadCounter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	private interface DecodeTask {
+		Song decode(BooleanSupplier cancelled) throws SongDecodeException;
+	}
+
+	private static CompletableFuture<Song> submit(DecodeTask task) {
+		CompletableFuture<Song> future = new CompletableFuture<>();
+		try {
+			getExecutor().execute(() -> {
+				if (future.isDone()) {
+					return; // cancelled while waiting
 				}
-				tick += jumpTicks;
-				//System.out.println("Tick: " + tick);
-				short layer = -1;
-				while (true) {
-					short jumpLayers = readShort(dataInputStream); // jumps till next layer
-					if (jumpLayers == 0) {
-						break;
-					}
-					layer += jumpLayers;
-					//System.out.println("Layer: " + layer);
-					byte instrument = dataInputStream.readByte();
-
-					if (firstcustominstrumentdiff > 0 && instrument >= firstcustominstrument){
-						instrument += firstcustominstrumentdiff;
-					}
-
-					byte key = dataInputStream.readByte();
-					byte velocity = 100;
-					int panning = 100;
-					short pitch = 0;
-					if (nbsversion >= 4) {
-						velocity = dataInputStream.readByte(); // note block velocity
-						panning = 200 - dataInputStream.readUnsignedByte(); // note panning, 0 is right in nbs format
-						pitch = readShort(dataInputStream); // note block pitch
-					}
-
-					if (panning != 100){
-					    isStereo = true;
-                    }
-
-					setNote(layer, tick,
-							new Note(instrument /* instrument */, key/* note */, velocity, panning, pitch),
-							layerHashMap);
+				try {
+					future.complete(task.decode(future::isCancelled));
+				} catch (SongDecodeException | RuntimeException e) {
+					future.completeExceptionally(e);
 				}
-			}
+			});
+		} catch (RejectedExecutionException e) {
+			future.completeExceptionally(new SongDecodeException(SongDecodeException.Reason.OVERLOADED, null, e));
+		}
+		return future;
+	}
 
-			if (nbsversion > 0 && nbsversion < 3) {
-				length = tick;
+	/**
+	 * Decodes a Song from a .nbs file or its cache
+	 * @param songFile .nbs file
+	 * @param limits limits of the song or null for no limits, cache is used only without limits
+	 * @param cancelled returns true when decoding should stop or null
+	 * @return Song
+	 * @throws SongDecodeException
+	 */
+	private static Song decode(File songFile, DecodeLimits limits, BooleanSupplier cancelled) throws SongDecodeException {
+		return createSong(read(songFile, limits, cancelled), songFile);
+	}
+
+	/**
+	 * Reads content of a .nbs file or its cache
+	 * @param songFile .nbs file
+	 * @param limits limits of the song or null for no limits, cache is used only without limits
+	 * @param cancelled returns true when decoding should stop or null
+	 * @return content of the file
+	 * @throws SongDecodeException
+	 */
+	private static NBSData read(File songFile, DecodeLimits limits, BooleanSupplier cancelled) throws SongDecodeException {
+		if (limits == null) {
+			NBSData cached = NBSCache.load(songFile);
+			if (cached != null) {
+				return cached;
 			}
+			limits = DecodeLimits.UNLIMITED;
+		}
 
-			for (int i = 0; i < songHeight; i++) {
-				Layer layer = layerHashMap.get(i);
+		NBSReader reader;
+		try {
+			reader = NBSReader.open(songFile.toPath(), limits.getMaxFileSize());
+		} catch (IOException e) {
+			throw readError(songFile, e);
+		}
+		reader.setCancellation(cancelled);
+		return read(reader, songFile, limits);
+	}
 
-				String name = readString(dataInputStream);
-				if (nbsversion >= 4){
-					dataInputStream.readByte(); // layer lock
-				}
+	private static NBSReader open(Path songPath, File songFile, DecodeLimits limits) throws SongDecodeException {
+		try {
+			return NBSReader.open(songPath, limits.getMaxFileSize());
+		} catch (IOException e) {
+			throw readError(songFile, e);
+		}
+	}
 
-				byte volume = dataInputStream.readByte();
-				int panning = 100;
-				if (nbsversion >= 2){
-					panning = 200 - dataInputStream.readUnsignedByte(); // layer stereo, 0 is right in nbs format
-				}
+	/**
+	 * Decodes a Song from an NBSReader and a Note Block Studio project file (.nbs)
+	 * @see Song
+	 * @param reader of a .nbs file
+	 * @param songFile representing a .nbs file
+	 * @param limits limits of the song
+	 * @return Song object representing the given .nbs file
+	 * @throws SongDecodeException
+	 */
+	private static Song decode(NBSReader reader, File songFile, DecodeLimits limits) throws SongDecodeException {
+		return createSong(read(reader, songFile, limits), songFile);
+	}
+
+	private static NBSData read(NBSReader reader, File songFile, DecodeLimits limits) throws SongDecodeException {
+		try {
+			return NBSData.read(reader, songFile, limits);
+		} catch (IOException e) {
+			throw readError(songFile, e);
+		} catch (RuntimeException e) {
+			throw new SongDecodeException(SongDecodeException.Reason.CORRUPTED, songFile, e);
+		}
+	}
 
-                if (panning != 100){
-                    isStereo = true;
-                }
+	private static SongDecodeException readError(File songFile, IOException e) {
+		SongDecodeException.Reason reason = SongDecodeException.Reason.IO_ERROR;
+		if (e instanceof LimitExceededException) {
+			return new SongDecodeException(SongDecodeException.Reason.LIMIT_EXCEEDED, songFile, e.getMessage(), e);
+		} else if (e instanceof EOFException) {
+			reason = SongDecodeException.Reason.CORRUPTED;
+		} else if (e instanceof NoSuchFileException || e instanceof FileNotFoundException) {
+			reason = SongDecodeException.Reason.NOT_FOUND;
+		}
+		return new SongDecodeException(reason, songFile, e);
+	}
 
-				if (layer != null) {
-					layer.setName(name);
-					layer.setVolume(volume);
-					layer.setPanning(panning);
-				}
+	private static void report(SongDecodeException e) {
+		if (e.getReason() == SongDecodeException.Reason.CORRUPTED) {
+			printCorrupted(e.getFile());
+		} else {
+			e.getCause().printStackTrace();
+		}
+	}
+
+	/**
+	 * Creates a Song from content of a .nbs file, adjusting instruments to the current server version
+	 * @param data content of a .nbs file
+	 * @param songFile representing a .nbs file
+	 * @return Song object representing the given .nbs file
+	 */
+	static Song createSong(NBSData data, File songFile) {
+		HashMap<Integer, Layer> layerHashMap = new HashMap<Integer, Layer>();
+		SongInfo info = data.info;
+		int firstcustominstrument = info.getFirstCustomInstrumentIndex();
+		int firstcustominstrumentdiff = InstrumentUtils.getCustomInstrumentFirstIndex() - firstcustominstrument;
+
+		for (int i = 0; i < data.noteCount; i++) {
+			byte instrument = data.getInstrument(i);
+			if (firstcustominstrumentdiff > 0 && instrument >= firstcustominstrument){
+				instrument += firstcustominstrumentdiff;
 			}
-			//count of custom instruments
-			byte customAmnt = dataInputStream.readByte();
-			CustomInstrument[] customInstrumentsArray = new CustomInstrument[customAmnt];
-
-			for (int index = 0; index < customAmnt; index++) {
-				customInstrumentsArray[index] = new CustomInstrument((byte) index, 
-						readString(dataInputStream), readString(dataInputStream));
-				dataInputStream.readByte();//pitch
-				dataInputStream.readByte();//key
+
+			setNote(data.layers[i], data.ticks[i], instrument, data.getKey(i), data.getVelocity(i),
+					data.getPanning(i), data.getPitch(i), layerHashMap);
+		}
+
+		for (int i = 0; i < data.layerNames.length; i++) {
+			Layer layer = layerHashMap.get(i);
+			if (layer != null) {
+				layer.setName(data.layerNames[i]);
+				layer.setVolume(data.layerVolumes[i]);
+				layer.setPanning(data.layerPanning[i]);
 			}
+		}
+
+		CustomInstrument[] customInstrumentsArray = new CustomInstrument[data.customInstrumentNames.length];
+		for (int index = 0; index < customInstrumentsArray.length; index++) {
+			customInstrumentsArray[index] = new CustomInstrument((byte) index,
+					data.customInstrumentNames[index], data.customInstrumentFiles[index]);
+		}
+
+		if (firstcustominstrumentdiff < 0){
+			ArrayList<CustomInstrument> customInstruments = CompatibilityUtils.getVersionCustomInstrumentsForSong(firstcustominstrument);
+			customInstruments.addAll(Arrays.asList(customInstrumentsArray));
+			customInstrumentsArray = customInstruments.toArray(customInstrumentsArray);
+		} else {
+			firstcustominstrument += firstcustominstrumentdiff;
+		}
 
-			if (firstcustominstrumentdiff < 0){
-				ArrayList<CustomInstrument> customInstruments = CompatibilityUtils.getVersionCustomInstrumentsForSong(firstcustominstrument);
-				customInstruments.addAll(Arrays.asList(customInstrumentsArray));
-				customInstrumentsArray = customInstruments.toArray(customInstrumentsArray);
-			} else {
-				firstcustominstrument += firstcustominstrumentdiff;
+		return new Song(info.getSpeed(), layerHashMap, info.getSongHeight(), info.getLength(), info.getTitle(),
+				info.getAuthor(), info.getOriginalAuthor(), info.getDescription(), songFile, firstcustominstrument,
+				customInstrumentsArray, data.stereo);
+	}
+
+	/**
+	 * Reads metadata of a Note Block Studio project file (.nbs) without loading its notes
+	 * @see SongInfo
+	 * @param songFile .nbs file
+	 * @return SongInfo or null if the file can't be read
+	 */
+	public static SongInfo readMetadata(File songFile) {
+		return readMetadata(songFile, false);
+	}
+
+	/**
+	 * Reads metadata of a Note Block Studio project file (.nbs) without loading its notes
+	 * @see SongInfo
+	 * @param songFile .nbs file
+	 * @param countNotes whether to count notes, the note section is skipped through without creating notes
+	 * @return SongInfo or null if the file can't be read
+	 */
+	public static SongInfo readMetadata(File songFile, boolean countNotes) {
+		try (NBSReader reader = NBSReader.open(songFile, countNotes ? 64 * 1024 : 4 * 1024)) {
+			SongInfo info = NBSData.readHeader(reader, songFile);
+			if (!countNotes) {
+				return info;
 			}
 
-			return new Song(speed, layerHashMap, songHeight, length, title, 
-					author, originalAuthor, description, songFile, firstcustominstrument, customInstrumentsArray, isStereo);
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
-		} catch (EOFException e) {
-			String file = "";
-			if (songFile != null) {
-				file = songFile.getName();
+			int noteSize = info.getVersion() >= 4 ? 6 : 2;
+			int noteCount = 0;
+			short tick = -1;
+			while (true) {
+				short jumpTicks = reader.readShort();
+				if (jumpTicks == 0) {
+					break;
+				}
+				tick += jumpTicks;
+				while (reader.readShort() != 0) {
+					reader.skip(noteSize);
+					noteCount++;
+				}
+			}
+
+			short length = info.getLength();
+			if (info.getVersion() > 0 && info.getVersion() < 3) {
+				length = tick;
 			}
-			Bukkit.getServer().getConsoleSender().sendMessage(ChatColor.RED + "Song is corrupted: " + file);
+			return new SongInfo(songFile, info.getVersion(), info.getFirstCustomInstrumentIndex(), length,
+					info.getSongHeight(), info.getTitle(), info.getAuthor(), info.getOriginalAuthor(),
+					info.getDescription(), info.getSpeed(), info.isLoop(), info.getMaxLoopCount(),
+					info.getLoopStartTick(), noteCount);
+		} catch (EOFException e) {
+			printCorrupted(songFile);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 		return null;
 	}
 
+	private static void printCorrupted(File songFile) {
+		String file = "";
+		if (songFile != null) {
+			file = songFile.getName();
+		}
+		Bukkit.getServer().getConsoleSender().sendMessage(ChatColor.RED + "Song is corrupted: " + file);
+	}
+
 	/**
 	 * Sets a note at a tick in a song
 	 * @param layerIndex
 	 * @param ticks
-	 * @param note
+	 * @param instrument
+	 * @param key
+	 * @param velocity
+	 * @param panning
+	 * @param pitch
 	 * @param layerHashMap
 	 */
-	private static void setNote(int layerIndex, int ticks, Note note, HashMap<Integer, Layer> layerHashMap) {
+	private static void setNote(int layerIndex, int ticks, byte instrument, byte key, byte velocity, int panning,
+								short pitch, HashMap<Integer, Layer> layerHashMap) {
 		Layer layer = layerHashMap.get(layerIndex);
 		if (layer == null) {
 			layer = new Layer();
 			layerHashMap.put(layerIndex, layer);
 		}
-		layer.setNote(ticks, note);
-	}
-
-	private static short readShort(DataInputStream dataInputStream) throws IOException {
-		int byte1 = dataInputStream.readUnsignedByte();
-		int byte2 = dataInputStream.readUnsignedByte();
-		return (short) (byte1 + (byte2 << 8));
+		layer.setNote(ticks, instrument, key, velocity, panning, pitch);
 	}
 
-	private static int readInt(DataInputStream dataInputStream) throws IOException {
-		int byte1 = dataInputStream.readUnsignedByte();
-		int byte2 = dataInputStream.readUnsignedByte();
-		int byte3 = dataInputStream.readUnsignedByte();
-		int byte4 = dataInputStream.readUnsignedByte();
-		return (byte1 + (byte2 << 8) + (byte3 << 16) + (byte4 << 24));
-	}
-
-	private static String readString(DataInputStream dataInputStream) throws IOException {
-		int length = readInt(dataInputStream);
-		StringBuilder builder = new StringBuilder(length);
-		for (; length > 0; --length) {
-			char c = (char) dataInputStream.readByte();
-			if (c == (char) 0x0D) {
-				c = ' ';
-			}
-			builder.append(c);
-		}
-		return builder.toString();
-	}
-	
 }
@@ -0,0 +1,244 @@
+package com.xxmicloxx.NoteBlockAPI.utils;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Reads little-endian Note Block Studio data from a {@link ByteBuffer}.
+ * The buffer either holds the whole file or is a window refilled from a channel.
+ */
+class NBSReader implements Closeable {
+
+	private static final int WINDOW_SIZE = 64 * 1024;
+
+	private final ByteBuffer buffer;
+	private final ReadableByteChannel channel;
+	private final boolean ownsChannel;
+	private BooleanSupplier cancelled;
+	private int maxStringLength = Integer.MAX_VALUE;
+	private long maxSize = Long.MAX_VALUE;
+	private long channelBytes = 0;
+
+	private NBSReader(ByteBuffer buffer, ReadableByteChannel channel, boolean ownsChannel) {
+		this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+		this.channel = channel;
+		this.ownsChannel = ownsChannel;
+	}
+
+	/**
+	 * Reads the whole file into memory, the file can be in any file system
+	 * @param path
+	 * @param maxSize maximal size of the file, checked before it is read
+	 * @return reader of the file content
+	 * @throws IOException
+	 * @throws LimitExceededException if the file is bigger than maxSize
+	 */
+	static NBSReader open(Path path, long maxSize) throws IOException {
+		try (SeekableByteChannel fileChannel = Files.newByteChannel(path, StandardOpenOption.READ)) {
+			long size = fileChannel.size();
+			DecodeLimits.check("File size", size, maxSize);
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("File is too big: " + path);
+			}
+			ByteBuffer buffer = ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining()) {
+				if (fileChannel.read(buffer) < 0) {
+					break; // file was truncated while reading
+				}
+			}
+			buffer.flip();
+			return new NBSReader(buffer, null, false);
+		}
+	}
+
+	/**
+	 * Reads data from the buffer
+	 * @param buffer content of a .nbs file
+	 * @return reader of the buffer
+	 */
+	static NBSReader wrap(ByteBuffer buffer) {
+		return new NBSReader(buffer, null, false);
+	}
+
+	/**
+	 * Reads the file through a buffered window, only the part which is read is loaded.
+	 * The reader has to be closed.
+	 * @param file
+	 * @param windowSize size of the window in bytes
+	 * @return reader of the file
+	 * @throws IOException
+	 */
+	static NBSReader open(File file, int windowSize) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(windowSize);
+		buffer.flip();
+		return new NBSReader(buffer, FileChannel.open(file.toPath(), StandardOpenOption.READ), true);
+	}
+
+	/**
+	 * Reads the InputStream through a buffered window. The InputStream is not closed.
+	 * @param inputStream
+	 * @return reader of the stream
+	 */
+	static NBSReader open(InputStream inputStream) {
+		ByteBuffer buffer = ByteBuffer.allocate(WINDOW_SIZE);
+		buffer.flip();
+		return new NBSReader(buffer, Channels.newChannel(inputStream), false);
+	}
+
+	/**
+	 * Sets condition checked by {@link #checkCancelled()}
+	 * @param cancelled returns true when reading should stop
+	 */
+	void setCancellation(BooleanSupplier cancelled) {
+		this.cancelled = cancelled;
+	}
+
+	/**
+	 * Sets maximal length of strings read by {@link #readString()}
+	 * @param maxStringLength in bytes
+	 */
+	void setMaxStringLength(int maxStringLength) {
+		this.maxStringLength = maxStringLength;
+	}
+
+	/**
+	 * Sets maximal number of bytes read from the channel of a windowed reader
+	 * @param maxSize in bytes
+	 */
+	void setMaxSize(long maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Stops reading if it was cancelled
+	 * @throws InterruptedIOException if reading was cancelled
+	 */
+	void checkCancelled() throws InterruptedIOException {
+		if (cancelled != null && cancelled.getAsBoolean()) {
+			throw new InterruptedIOException("Reading was cancelled");
+		}
+	}
+
+	/**
+	 * Makes sure at least count bytes are available in the buffer
+	 */
+	private void ensure(int count) throws IOException {
+		if (buffer.remaining() >= count) {
+			return;
+		}
+		if (channel == null) {
+			throw new EOFException();
+		}
+
+		buffer.compact();
+		try {
+			while (buffer.position() < count) {
+				int read = channel.read(buffer);
+				if (read < 0) {
+					throw new EOFException();
+				}
+				channelBytes += read;
+				DecodeLimits.check("File size", channelBytes, maxSize);
+			}
+		} finally {
+			buffer.flip();
+		}
+	}
+
+	byte readByte() throws IOException {
+		ensure(1);
+		return buffer.get();
+	}
+
+	int readUnsignedByte() throws IOException {
+		return readByte() & 0xFF;
+	}
+
+	boolean readBoolean() throws IOException {
+		return readByte() != 0;
+	}
+
+	short readShort() throws IOException {
+		ensure(2);
+		return buffer.getShort();
+	}
+
+	int readInt() throws IOException {
+		ensure(4);
+		return buffer.getInt();
+	}
+
+	String readString() throws IOException {
+		int length = readInt();
+		if (length < 0 || (channel == null && length > buffer.remaining())) {
+			throw new EOFException(); // string longer than the rest of the data
+		}
+		DecodeLimits.check("String length", length, maxStringLength);
+
+		StringBuilder builder = new StringBuilder(Math.min(length, WINDOW_SIZE));
+		while (length > 0) {
+			ensure(1);
+			int count = Math.min(length, buffer.remaining());
+			for (int i = 0; i < count; i++) {
+				char c = (char) buffer.get();
+				if (c == (char) 0x0D) {
+					c = ' ';
+				}
+				builder.append(c);
+			}
+			length -= count;
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Skips the given number of bytes
+	 * @param count
+	 * @throws IOException
+	 */
+	void skip(int count) throws IOException {
+		while (count > 0) {
+			ensure(1);
+			int skipped = Math.min(count, buffer.remaining());
+			buffer.position(buffer.position() + skipped);
+			count -= skipped;
+		}
+	}
+
+	/**
+	 * Skips string without creating it
+	 * @throws IOException
+	 */
+	void skipString() throws IOException {
+		int length = readInt();
+		if (length < 0) {
+			throw new EOFException();
+		}
+		skip(length);
+	}
+
+	/**
+	 * Closes the file opened by {@link #open(File, int)}, does nothing otherwise
+	 * @throws IOException
+	 */
+	@Override
+	public void close() throws IOException {
+		if (ownsChannel) {
+			channel.close();
+		}
+	}
+}
@@ -8,6 +8,9 @@ import org.bukkit.plugin.Plugin;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.logging.Level;
@@ -19,6 +22,8 @@ import java.util.logging.Logger;
 public final class Scheduler {
 
     private static final boolean foliaEnvironment;
+    private static final Map<String, Object> foliaSchedulers = new ConcurrentHashMap<>();
+    private static final Map<String, Method> foliaMethods = new ConcurrentHashMap<>();
 
     static {
         boolean foliaDetected;
@@ -48,6 +53,33 @@ public final class Scheduler {
         Bukkit.getScheduler().runTask(getPlugin(), runnable);
     }
 
+    /**
+     * Executes multiple tasks one after another as a single task on the appropriate scheduler.
+     * A failing task does not prevent the remaining tasks from running.
+     *
+     * @param runnables tasks to execute
+     */
+    public static void runBatch(List<? extends Runnable> runnables) {
+        if (runnables.isEmpty()) {
+            return;
+        }
+        run(batch(runnables));
+    }
+
+    /**
+     * Executes multiple tasks one after another as a single task in the region scheduler based on the provided location.
+     * A failing task does not prevent the remaining tasks from running.
+     *
+     * @param location  region location
+     * @param runnables tasks to execute
+     */
+    public static void runBatch(Location location, List<? extends Runnable> runnables) {
+        if (runnables.isEmpty()) {
+            return;
+        }
+        run(location, batch(runnables));
+    }
+
     /**
      * Executes a task after a delay on the appropriate scheduler.
      *
@@ -207,6 +239,19 @@ public final class Scheduler {
     public static void cancelCurrentTask() {
     }
 
+    private static Runnable batch(List<? extends Runnable> runnables) {
+        Runnable[] tasks = runnables.toArray(new Runnable[0]);
+        return () -> {
+            for (Runnable task : tasks) {
+                try {
+                    task.run();
+                } catch (Throwable throwable) {
+                    getLogger().log(Level.SEVERE, "Batched task threw an exception", throwable);
+                }
+            }
+        };
+    }
+
     private static Plugin getPlugin() {
         return NoteBlockAPI.getAPI();
     }
@@ -234,7 +279,7 @@ public final class Scheduler {
             return null;
         }
         try {
-            Method method = scheduler.getClass().getMethod("runDelayed", Plugin.class, Consumer.class, long.class);
+            Method method = getFoliaMethod(scheduler, "runDelayed", Plugin.class, Consumer.class, long.class);
             Consumer<Object> consumer = task -> runnable.run();
             return tryInvoke(method, scheduler, getPlugin(), consumer, delayTicks);
         } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException exception) {
@@ -249,7 +294,7 @@ public final class Scheduler {
             return null;
         }
         try {
-            Method method = scheduler.getClass().getMethod("runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class);
+            Method method = getFoliaMethod(scheduler, "runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class);
             Consumer<Object> consumer = task -> runnable.run();
             long initialDelay = Math.max(1L, delayTicks);
             return tryInvoke(method, scheduler, getPlugin(), consumer, initialDelay, periodTicks);
@@ -265,7 +310,7 @@ public final class Scheduler {
             return false;
         }
         try {
-            Method method = scheduler.getClass().getMethod("execute", Plugin.class, Runnable.class);
+            Method method = getFoliaMethod(scheduler, "execute", Plugin.class, Runnable.class);
             tryInvoke(method, scheduler, getPlugin(), runnable);
             return true;
         } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException exception) {
@@ -280,7 +325,7 @@ public final class Scheduler {
             return null;
         }
         try {
-            Method method = scheduler.getClass().getMethod("runDelayed", Plugin.class, Consumer.class, long.class, TimeUnit.class);
+            Method method = getFoliaMethod(scheduler, "runDelayed", Plugin.class, Consumer.class, long.class, TimeUnit.class);
             Consumer<Object> consumer = task -> runnable.run();
             long delayMillis = delayTicks * 50L;
             return tryInvoke(method, scheduler, getPlugin(), consumer, delayMillis, TimeUnit.MILLISECONDS);
@@ -296,7 +341,7 @@ public final class Scheduler {
             return null;
         }
         try {
-            Method method = scheduler.getClass().getMethod("runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class, TimeUnit.class);
+            Method method = getFoliaMethod(scheduler, "runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class, TimeUnit.class);
             Consumer<Object> consumer = task -> runnable.run();
             long delayMillis = Math.max(1L, delayTicks) * 50L;
             long periodMillis = periodTicks * 50L;
@@ -313,7 +358,7 @@ public final class Scheduler {
             return false;
         }
         try {
-            Method method = scheduler.getClass().getMethod("runNow", Plugin.class, Consumer.class);
+            Method method = getFoliaMethod(scheduler, "runNow", Plugin.class, Consumer.class);
             Consumer<Object> consumer = task -> runnable.run();
             tryInvoke(method, scheduler, getPlugin(), consumer);
             return true;
@@ -329,7 +374,7 @@ public final class Scheduler {
             return false;
         }
         try {
-            Method method = scheduler.getClass().getMethod("execute", Plugin.class, Location.class, Runnable.class);
+            Method method = getFoliaMethod(scheduler, "execute", Plugin.class, Location.class, Runnable.class);
             tryInvoke(method, scheduler, getPlugin(), location, runnable);
             return true;
         } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException exception) {
@@ -344,7 +389,7 @@ public final class Scheduler {
             return null;
         }
         try {
-            Method method = scheduler.getClass().getMethod("runDelayed", Plugin.class, Location.class, Consumer.class, long.class);
+            Method method = getFoliaMethod(scheduler, "runDelayed", Plugin.class, Location.class, Consumer.class, long.class);
             Consumer<Object> consumer = task -> runnable.run();
             return tryInvoke(method, scheduler, getPlugin(), location, consumer, delayTicks);
         } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException exception) {
@@ -359,7 +404,7 @@ public final class Scheduler {
             return null;
         }
         try {
-            Method method = scheduler.getClass().getMethod("runAtFixedRate", Plugin.class, Location.class, Consumer.class, long.class, long.class);
+            Method method = getFoliaMethod(scheduler, "runAtFixedRate", Plugin.class, Location.class, Consumer.class, long.class, long.class);
             Consumer<Object> consumer = task -> runnable.run();
             long initialDelay = Math.max(1L, delayTicks);
             return tryInvoke(method, scheduler, getPlugin(), location, consumer, initialDelay, periodTicks);
@@ -382,15 +427,33 @@ public final class Scheduler {
     }
 
     private static Object getScheduler(String methodName) {
+        Object scheduler = foliaSchedulers.get(methodName);
+        if (scheduler != null) {
+            return scheduler;
+        }
         try {
             Method method = Bukkit.class.getMethod(methodName);
-            return method.invoke(null);
+            scheduler = method.invoke(null);
+            if (scheduler != null) {
+                foliaSchedulers.put(methodName, scheduler);
+            }
+            return scheduler;
         } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException exception) {
             logFoliaFailure(methodName, exception);
             return null;
         }
     }
 
+    private static Method getFoliaMethod(Object scheduler, String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        String key = scheduler.getClass().getName() + '#' + name + '/' + parameterTypes.length;
+        Method method = foliaMethods.get(key);
+        if (method == null) {
+            method = scheduler.getClass().getMethod(name, parameterTypes);
+            foliaMethods.put(key, method);
+        }
+        return method;
+    }
+
     /**
      * Wrapper for scheduled tasks.
      */
@@ -0,0 +1,57 @@
+package com.xxmicloxx.NoteBlockAPI.utils;
+
+import java.io.File;
+
+/**
+ * Thrown when a Note Block Studio project can't be decoded
+ * @see NBSDecoder#parseAsync(File)
+ */
+public class SongDecodeException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Why a song couldn't be decoded
+	 */
+	public enum Reason {
+		/** The file does not exist */
+		NOT_FOUND,
+		/** The file can't be read */
+		IO_ERROR,
+		/** The data is truncated or invalid */
+		CORRUPTED,
+		/** The data exceeds {@link DecodeLimits} */
+		LIMIT_EXCEEDED,
+		/** Too many songs are already waiting to be decoded */
+		OVERLOADED
+	}
+
+	private final Reason reason;
+	private final File file;
+
+	public SongDecodeException(Reason reason, File file, String message, Throwable cause) {
+		super(message, cause);
+		this.reason = reason;
+		this.file = file;
+	}
+
+	public SongDecodeException(Reason reason, File file, Throwable cause) {
+		this(reason, file, reason + (file == null ? "" : ": " + file), cause);
+	}
+
+	/**
+	 * Returns why the song couldn't be decoded
+	 * @return Reason
+	 */
+	public Reason getReason() {
+		return reason;
+	}
+
+	/**
+	 * Returns the file which couldn't be decoded
+	 * @return file or null if the song was not read from a file
+	 */
+	public File getFile() {
+		return file;
+	}
+}
@@ -0,0 +1,119 @@
+package com.xxmicloxx.NoteBlockAPI.utils;
+
+import com.xxmicloxx.NoteBlockAPI.model.Layer;
+import com.xxmicloxx.NoteBlockAPI.model.Song;
+import com.xxmicloxx.NoteBlockAPI.model.SongInfo;
+
+import java.io.File;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shares content of identical songs decoded by {@link NBSDecoder#parse(java.nio.file.Path, SongDeduplicator)}.
+ * <p>
+ * Songs are identified by a SHA-256 hash of their notes, layers and custom instruments computed while decoding.
+ * A song whose content was already decoded doesn't create its own Layers, it shares them with the first Song
+ * and only keeps its own metadata (title, author, description, speed and file), see {@link Song#Song(Song, float,
+ * String, String, String, String, File)}. Songs are held weakly, content no longer used by any Song is released.
+ * <p>
+ * Layers of all Songs created by the deduplicator are frozen, see {@link Layer#freeze()}, so changing one Song
+ * can't change the others. Use {@link com.xxmicloxx.NoteBlockAPI.model.SongSnapshot.Builder} to create a changed copy.
+ */
+public class SongDeduplicator {
+
+	private final Map<ByteBuffer, BodyReference> bodies = new ConcurrentHashMap<>();
+	private final ReferenceQueue<Song> releasedBodies = new ReferenceQueue<>();
+	private final AtomicInteger sharedCount = new AtomicInteger();
+
+	/**
+	 * Creates Song from the content, sharing it with an identical Song decoded before
+	 * @param data content of a .nbs file
+	 * @param songFile representing a .nbs file
+	 * @return new Song
+	 */
+	Song deduplicate(NBSData data, File songFile) {
+		expungeReleased();
+
+		ByteBuffer hash = ByteBuffer.wrap(data.getContentHash());
+		Song body = getBody(hash);
+		if (body != null) {
+			return share(body, data, songFile);
+		}
+
+		Song song = NBSDecoder.createSong(data, songFile);
+		for (Layer layer : song.getLayers().values()) {
+			layer.freeze(); // shared by all Songs with the same content
+		}
+		BodyReference reference = new BodyReference(hash, song, releasedBodies);
+		while (true) {
+			BodyReference existing = bodies.putIfAbsent(hash, reference);
+			if (existing == null) {
+				return song;
+			}
+			body = existing.get();
+			if (body != null) {
+				return share(body, data, songFile); // identical song was decoded concurrently
+			}
+			if (bodies.replace(hash, existing, reference)) {
+				return song;
+			}
+		}
+	}
+
+	private Song getBody(ByteBuffer hash) {
+		BodyReference reference = bodies.get(hash);
+		return reference == null ? null : reference.get();
+	}
+
+	private Song share(Song body, NBSData data, File songFile) {
+		sharedCount.incrementAndGet();
+		SongInfo info = data.info;
+		return new Song(body, info.getSpeed(), info.getTitle(), info.getAuthor(), info.getOriginalAuthor(),
+				info.getDescription(), songFile);
+	}
+
+	private void expungeReleased() {
+		BodyReference reference;
+		while ((reference = (BodyReference) releasedBodies.poll()) != null) {
+			bodies.remove(reference.hash, reference);
+		}
+	}
+
+	/**
+	 * Returns number of distinct song contents currently held
+	 * @return count of song contents
+	 */
+	public int size() {
+		expungeReleased();
+		return bodies.size();
+	}
+
+	/**
+	 * Returns number of Songs which shared content with a Song decoded before
+	 * @return count of deduplicated Songs
+	 */
+	public int getSharedCount() {
+		return sharedCount.get();
+	}
+
+	/**
+	 * Forgets all song contents, Songs decoded afterwards don't share content with the ones decoded before
+	 */
+	public void clear() {
+		bodies.clear();
+	}
+
+	private static final class BodyReference extends WeakReference<Song> {
+
+		private final ByteBuffer hash;
+
+		BodyReference(ByteBuffer hash, Song song, ReferenceQueue<Song> queue) {
+			super(song, queue);
+			this.hash = hash;
+		}
+	}
+}
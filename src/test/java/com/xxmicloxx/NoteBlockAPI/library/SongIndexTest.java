@@ -0,0 +1,112 @@
+package com.xxmicloxx.NoteBlockAPI.library;
+
+import com.xxmicloxx.NoteBlockAPI.model.CustomInstrument;
+import com.xxmicloxx.NoteBlockAPI.model.Song;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SongIndexTest {
+
+	private static Song song(String title, String author, String originalAuthor) {
+		return new Song(10, new HashMap<>(), (short) 0, (short) 0, title, author, originalAuthor, "", null, 16,
+				new CustomInstrument[0], false);
+	}
+
+	@Test
+	public void textIsFoldedToLowerCaseWithoutDiacritics() {
+		assertEquals("beyonce zoe", SongIndex.fold("Beyonc\u00e9 ZO\u00cb"));
+		assertEquals("creme brulee", SongIndex.fold("Cr\u00e8me Br\u00fbl\u00e9e"));
+	}
+
+	@Test
+	public void wordsAreFoundByAnyPart() {
+		SongIndex index = new SongIndex();
+		Song superstition = song("Superstition", "Stevie Wonder", "");
+		Song halo = song("Halo", "Beyonc\u00e9", "");
+		Song cover = song("Cover", "Someone", "Stevie Wonder");
+		index.add(superstition, null);
+		index.add(halo, null);
+		index.add(cover, null);
+
+		assertEquals(Collections.singletonList(superstition), index.search("stition wond", 0, 10));
+		assertEquals(Collections.singletonList(halo), index.search("BEYONCE", 0, 10));
+		assertEquals(Collections.singletonList(halo), index.search("onc\u00e9", 0, 10));
+		assertEquals(Arrays.asList(cover, superstition), index.search("wonder", 0, 10));
+		assertEquals(Arrays.asList(cover, superstition), index.search("st", 0, 10));
+		assertEquals(Collections.singletonList(superstition), index.search("su st", 0, 10));
+		assertTrue(index.search("wonder halo", 0, 10).isEmpty());
+		assertTrue(index.search("xyz", 0, 10).isEmpty());
+		assertEquals(3, index.count(" "));
+	}
+
+	@Test
+	public void fileNameIsUsedWithoutTitle() {
+		SongIndex index = new SongIndex();
+		Song song = song("  ", "Author", "");
+		index.add(song, "Never_Gonna.nbs");
+		assertEquals(Collections.singletonList(song), index.search("gonna", 0, 10));
+		assertEquals(Collections.singletonList("Never_Gonna"), index.completeTitle("never", 10));
+	}
+
+	@Test
+	public void resultsArePagedInOrderOfTitles() {
+		SongIndex index = new SongIndex();
+		List<Song> songs = new ArrayList<>();
+		for (int i = 0; i < 25; i++) {
+			songs.add(song(String.format("Song %02d", i), "Author", ""));
+		}
+		List<Song> shuffled = new ArrayList<>(songs);
+		Collections.shuffle(shuffled, new Random(1));
+		for (Song song : shuffled) {
+			index.add(song, null);
+		}
+
+		assertEquals(25, index.count("song"));
+		assertEquals(songs.subList(0, 10), index.search("song", 0, 10));
+		assertEquals(songs.subList(10, 20), index.search("author", 1, 10));
+		assertEquals(songs.subList(20, 25), index.search("", 2, 10));
+		assertTrue(index.search("song", 3, 10).isEmpty());
+		assertTrue(index.search("song", -1, 10).isEmpty());
+		assertTrue(index.search("song", 0, 0).isEmpty());
+		assertEquals(songs, index.search("song", 0, Integer.MAX_VALUE));
+	}
+
+	@Test
+	public void songsCanBeRemovedAndAddedAgain() {
+		SongIndex index = new SongIndex();
+		Song song = song("Old title", "Author", "");
+		index.add(song, null);
+		index.remove(song);
+		assertEquals(0, index.size());
+		assertTrue(index.search("title", 0, 10).isEmpty());
+		assertTrue(index.completeTitle("old", 10).isEmpty());
+
+		index.add(song, null);
+		index.add(song, null);
+		assertEquals(1, index.size());
+		assertEquals(1, index.count("title"));
+	}
+
+	@Test
+	public void titlesAreCompletedByPrefix() {
+		SongIndex index = new SongIndex();
+		index.add(song("Mario Theme", "", ""), null);
+		index.add(song("Mario Theme", "Other", ""), null);
+		index.add(song("M\u00e1rio Kart", "", ""), null);
+		index.add(song("Zelda", "", ""), null);
+
+		assertEquals(Arrays.asList("M\u00e1rio Kart", "Mario Theme"), index.completeTitle("MARIO", 10));
+		assertEquals(Collections.singletonList("M\u00e1rio Kart"), index.completeTitle("mario", 1));
+		assertEquals(4, index.size());
+		assertEquals(3, index.completeTitle("", 10).size());
+	}
+}
@@ -0,0 +1,149 @@
+package com.xxmicloxx.NoteBlockAPI.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompiledSongTest {
+
+	private static Song song(HashMap<Integer, Layer> layers) {
+		return new Song(10, layers, (short) layers.size(), (short) 0, "Title", "Author", "", "", null, 16,
+				new CustomInstrument[0], false);
+	}
+
+	private static Layer layer(int... ticks) {
+		Layer layer = new Layer();
+		for (int tick : ticks) {
+			layer.setNote(tick, (byte) 1, (byte) tick, (byte) 100, 100, (short) 0);
+		}
+		return layer;
+	}
+
+	@Test
+	public void notesOfEachTickAreOneRangeOrderedByLayer() {
+		HashMap<Integer, Layer> layers = new HashMap<>();
+		layers.put(2, layer(3, 5));
+		layers.put(0, layer(0, 3));
+		CompiledSong compiled = new CompiledSong(song(layers));
+
+		assertEquals(6, compiled.getTickCount());
+		assertEquals(4, compiled.getNoteCount());
+		assertEquals(0, compiled.getNotesStart(0));
+		assertEquals(1, compiled.getNotesEnd(0));
+		assertEquals(1, compiled.getNotesStart(1));
+		assertEquals(1, compiled.getNotesEnd(1));
+		assertEquals(1, compiled.getNotesStart(3));
+		assertEquals(3, compiled.getNotesEnd(3));
+		assertEquals(0, compiled.getLayerIndex(1));
+		assertEquals(2, compiled.getLayerIndex(2));
+		assertEquals(3, compiled.getNotesStart(5));
+		assertEquals(4, compiled.getNotesEnd(5));
+		assertEquals(5, compiled.getKey(3));
+
+		// ticks outside of the Song have no notes
+		assertEquals(0, compiled.getNotesEnd(-1) - compiled.getNotesStart(-1));
+		assertEquals(0, compiled.getNotesEnd(6) - compiled.getNotesStart(6));
+	}
+
+	@Test
+	public void emptySongHasNoTicks() {
+		CompiledSong compiled = new CompiledSong(song(new HashMap<>()));
+		assertEquals(0, compiled.getTickCount());
+		assertEquals(0, compiled.getNoteCount());
+		assertEquals(0, compiled.getNotesEnd(0));
+	}
+
+	@Test
+	public void layerVolumeAndPanningAreMerged() {
+		Layer centered = new Layer();
+		centered.setVolume((byte) 50);
+		centered.setNote(0, (byte) 4, (byte) 45, (byte) 80, 150, (short) -20);
+		Layer left = new Layer();
+		left.setPanning(50);
+		left.setNote(0, (byte) 4, (byte) 45, (byte) 100, 120, (short) 0);
+		HashMap<Integer, Layer> layers = new HashMap<>();
+		layers.put(0, centered);
+		layers.put(1, left);
+		CompiledSong compiled = new CompiledSong(song(layers));
+
+		assertEquals(4, compiled.getInstrument(0));
+		assertEquals(45, compiled.getKey(0));
+		assertEquals(-20, compiled.getPitch(0));
+		assertEquals(50 * 80, compiled.getVolume(0));
+		// without layer panning the note panning counts twice
+		assertEquals(100 / 200f, compiled.getPanning(0));
+		assertEquals(100 * 100, compiled.getVolume(1));
+		assertEquals((50 - 100 + 120 - 100) / 200f, compiled.getPanning(1));
+	}
+
+	@Test
+	public void inaudibleNotesAreLeftOut() {
+		Layer silent = layer(0, 1);
+		silent.setVolume((byte) 0);
+		Layer layer = layer(0);
+		layer.setNote(1, (byte) 1, (byte) 1, (byte) 0, 100, (short) 0);
+		HashMap<Integer, Layer> layers = new HashMap<>();
+		layers.put(0, silent);
+		layers.put(1, layer);
+		CompiledSong compiled = new CompiledSong(song(layers));
+
+		assertEquals(1, compiled.getNoteCount());
+		assertEquals(1, compiled.getLayerIndex(0));
+		assertEquals(0, compiled.getNotesEnd(1) - compiled.getNotesStart(1));
+	}
+
+	@Test
+	public void songIsCompiledAgainAfterChange() {
+		Layer layer = layer(0, 1);
+		HashMap<Integer, Layer> layers = new HashMap<>();
+		layers.put(0, layer);
+		Song song = song(layers);
+		CompiledSong compiled = song.getCompiledSong();
+		assertSame(compiled, song.getCompiledSong());
+
+		layer(0).setNote(7, (byte) 1, (byte) 1, (byte) 100, 100, (short) 0);
+		assertSame(compiled, song.getCompiledSong());
+
+		layer.setNote(4, (byte) 1, (byte) 1, (byte) 100, 100, (short) 0);
+		CompiledSong changed = song.getCompiledSong();
+		assertNotSame(compiled, changed);
+		assertEquals(5, changed.getTickCount());
+
+		song.getLayerHashMap().put(1, layer(9));
+		assertEquals(10, song.getCompiledSong().getTickCount());
+
+		song.getLayerHashMap().remove(0);
+		assertEquals(10, song.getCompiledSong().getTickCount());
+		song.getLayerHashMap().get(1).removeNote(9);
+		assertEquals(0, song.getCompiledSong().getNoteCount());
+	}
+
+	@Test
+	public void arenaStoresSameNotes() {
+		HashMap<Integer, Layer> layers = new HashMap<>();
+		layers.put(0, layer(0, 2, 4));
+		layers.put(3, layer(2));
+		Song song = song(layers);
+		CompiledSong heap = new CompiledSong(song);
+		NoteArena arena = new NoteArena(4096);
+		CompiledSong offHeap = new CompiledSong(song, arena);
+
+		assertTrue(arena.getAllocated() > 0);
+		assertEquals(heap.getTickCount(), offHeap.getTickCount());
+		assertEquals(heap.getNoteCount(), offHeap.getNoteCount());
+		for (int tick = 0; tick < heap.getTickCount(); tick++) {
+			assertEquals(heap.getNotesStart(tick), offHeap.getNotesStart(tick));
+			assertEquals(heap.getNotesEnd(tick), offHeap.getNotesEnd(tick));
+		}
+		for (int i = 0; i < heap.getNoteCount(); i++) {
+			assertEquals(heap.getKey(i), offHeap.getKey(i));
+			assertEquals(heap.getVolume(i), offHeap.getVolume(i));
+			assertEquals(heap.getLayerIndex(i), offHeap.getLayerIndex(i));
+		}
+	}
+}
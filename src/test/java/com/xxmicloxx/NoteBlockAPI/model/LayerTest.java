@@ -0,0 +1,209 @@
+package com.xxmicloxx.NoteBlockAPI.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LayerTest {
+
+	/**
+	 * Returns note which differs from the notes of all other indexes below 2^24
+	 */
+	private static Note distinctNote(int index) {
+		return new Note((byte) 3, (byte) index, (byte) 50, 100 + index % 7, (short) (index >>> 8));
+	}
+
+	private static void assertNote(Note expected, Note actual) {
+		assertEquals(expected.getInstrument(), actual.getInstrument());
+		assertEquals(expected.getKey(), actual.getKey());
+		assertEquals(expected.getVelocity(), actual.getVelocity());
+		assertEquals(expected.getPanning(), actual.getPanning());
+		assertEquals(expected.getPitch(), actual.getPitch());
+	}
+
+	private static void assertNotes(Layer layer, int count) {
+		assertEquals(count, layer.getNoteCount());
+		for (int i = 0; i < count; i++) {
+			assertNote(distinctNote(i), layer.getNote(i * 2));
+		}
+	}
+
+	@Test
+	public void repeatedNotesShareThePalette() {
+		Layer layer = new Layer();
+		for (int tick = 0; tick < 1000; tick++) {
+			layer.setNote(tick, distinctNote(tick % 3));
+		}
+		assertEquals(1000, layer.getNoteCount());
+		assertEquals(3, layer.getDistinctNoteCount());
+		assertNote(distinctNote(2), layer.getNote(998));
+	}
+
+	@Test
+	public void paletteWidensFromBytesToCharsToLongs() {
+		Layer layer = new Layer();
+		for (int i = 0; i < 256; i++) {
+			layer.setNote(i * 2, distinctNote(i));
+		}
+		assertEquals(256, layer.getDistinctNoteCount());
+		assertNotes(layer, 256);
+
+		layer.setNote(256 * 2, distinctNote(256));
+		assertEquals(257, layer.getDistinctNoteCount());
+		assertNotes(layer, 257);
+
+		for (int i = 257; i < 65536; i++) {
+			layer.setNote(i * 2, distinctNote(i));
+		}
+		assertEquals(65536, layer.getDistinctNoteCount());
+		assertNotes(layer, 65536);
+
+		for (int i = 65536; i < 70000; i++) {
+			layer.setNote(i * 2, distinctNote(i));
+		}
+		assertEquals(-1, layer.getDistinctNoteCount());
+		assertNotes(layer, 70000);
+	}
+
+	@Test
+	public void noteInsertedBetweenOthersWidensThePalette() {
+		Layer layer = new Layer();
+		for (int i = 0; i < 256; i++) {
+			layer.setNote(i * 2, distinctNote(i));
+		}
+
+		// the 257th distinct note is inserted in the middle, after the indexes were moved
+		layer.setNote(101, distinctNote(1000));
+		assertEquals(257, layer.getNoteCount());
+		assertNote(distinctNote(50), layer.getNote(100));
+		assertNote(distinctNote(1000), layer.getNote(101));
+		assertNote(distinctNote(51), layer.getNote(102));
+		assertNote(distinctNote(255), layer.getNote(510));
+	}
+
+	@Test
+	public void removedAndReplacedNotesKeepOrder() {
+		Layer layer = new Layer();
+		for (int i = 0; i < 300; i++) {
+			layer.setNote(i * 2, distinctNote(i));
+		}
+		layer.removeNote(0);
+		layer.removeNote(2 * 150);
+		layer.setNote(2 * 299, distinctNote(7));
+
+		assertEquals(298, layer.getNoteCount());
+		assertNull(layer.getNote(0));
+		assertNull(layer.getNote(2 * 150));
+		assertNote(distinctNote(1), layer.getNote(2));
+		assertNote(distinctNote(151), layer.getNote(2 * 151));
+		assertNote(distinctNote(7), layer.getNote(2 * 299));
+	}
+
+	@Test
+	public void copyKeepsNotesOfEachWidth() {
+		for (int count : new int[] {10, 1000, 70000}) {
+			Layer layer = new Layer();
+			for (int i = 0; i < count; i++) {
+				layer.setNote(i * 2, distinctNote(i));
+			}
+			Layer copy = new Layer(layer);
+			assertNotes(copy, count);
+
+			copy.setNote(1, distinctNote(0));
+			assertNull(layer.getNote(1));
+		}
+	}
+
+	@Test
+	public void changingNoteWritesItBack() {
+		Layer layer = new Layer();
+		layer.setNote(4, distinctNote(1));
+		layer.getNote(4).setKey((byte) 60);
+		assertEquals(60, layer.getNote(4).getKey());
+	}
+
+	@Test
+	public void notesAtTicksWriteThrough() {
+		Layer layer = new Layer();
+		layer.setNote(1, distinctNote(1));
+		HashMap<Integer, Note> notes = layer.getNotesAtTicks();
+
+		notes.put(5, distinctNote(5));
+		assertNote(distinctNote(5), layer.getNote(5));
+		assertEquals(2, notes.size());
+
+		notes.remove(1);
+		assertNull(layer.getNote(1));
+
+		notes.put(5, null);
+		assertNull(layer.getNote(5));
+		assertTrue(notes.isEmpty());
+
+		layer.setNote(7, distinctNote(7));
+		assertNote(distinctNote(7), notes.get(7));
+
+		for (Map.Entry<Integer, Note> entry : notes.entrySet()) {
+			entry.setValue(distinctNote(8));
+		}
+		assertNote(distinctNote(8), layer.getNote(7));
+		assertThrows(NullPointerException.class, () -> notes.entrySet().iterator().next().setValue(null));
+
+		Iterator<Integer> ticks = notes.keySet().iterator();
+		ticks.next();
+		ticks.remove();
+		assertEquals(0, layer.getNoteCount());
+
+		layer.setNote(9, distinctNote(9));
+		notes.clear();
+		assertEquals(0, layer.getNoteCount());
+	}
+
+	@Test
+	public void notesAtTicksFailFastAfterChange() {
+		Layer layer = new Layer();
+		layer.setNote(1, distinctNote(1));
+		layer.setNote(2, distinctNote(2));
+		Iterator<Integer> ticks = layer.getNotesAtTicks().keySet().iterator();
+		ticks.next();
+		layer.setNote(3, distinctNote(3));
+		assertThrows(ConcurrentModificationException.class, ticks::next);
+	}
+
+	@Test
+	public void settingNotesAtTicksReplacesAllNotes() {
+		Layer layer = new Layer();
+		layer.setNote(1, distinctNote(1));
+		HashMap<Integer, Note> notes = new HashMap<>();
+		notes.put(20, distinctNote(20));
+		notes.put(10, distinctNote(10));
+		layer.setNotesAtTicks(notes);
+
+		assertEquals(2, layer.getNoteCount());
+		assertNull(layer.getNote(1));
+		assertNote(distinctNote(10), layer.getNote(10));
+
+		// setting the Layer's own view keeps its notes
+		layer.setNotesAtTicks(layer.getNotesAtTicks());
+		assertEquals(2, layer.getNoteCount());
+		assertFalse(layer.getNotesAtTicks().containsKey(1));
+	}
+
+	@Test
+	public void frozenLayerRejectsChanges() {
+		Layer layer = new Layer();
+		layer.setNote(1, distinctNote(1));
+		layer.freeze();
+		assertThrows(UnsupportedOperationException.class, () -> layer.setNote(2, distinctNote(2)));
+		assertThrows(UnsupportedOperationException.class, () -> layer.getNotesAtTicks().remove(1));
+		assertEquals(1, layer.getNoteCount());
+	}
+}
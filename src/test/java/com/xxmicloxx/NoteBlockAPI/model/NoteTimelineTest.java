@@ -0,0 +1,127 @@
+package com.xxmicloxx.NoteBlockAPI.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NoteTimelineTest {
+
+	private static final int SEEK_INTERVAL = 8;
+
+	/**
+	 * Creates Song with notes at random ticks, leaving whole seek blocks without notes
+	 */
+	private static Song randomSong(long seed) {
+		Random random = new Random(seed);
+		HashMap<Integer, Layer> layers = new HashMap<>();
+		for (int layerIndex = 0; layerIndex < 5; layerIndex++) {
+			Layer layer = new Layer();
+			layer.setVolume((byte) (20 + random.nextInt(81)));
+			layer.setPanning(random.nextInt(201));
+			layers.put(layerIndex * 3, layer);
+		}
+		for (int tick = 0; tick < 1000; tick++) {
+			if (tick / SEEK_INTERVAL % 5 == 2 || random.nextInt(3) == 0) {
+				continue;
+			}
+			for (Layer layer : layers.values()) {
+				if (random.nextBoolean()) {
+					layer.setNote(tick, (byte) random.nextInt(16), (byte) (33 + random.nextInt(25)),
+							(byte) random.nextInt(101), random.nextInt(201), (short) (random.nextInt(401) - 200));
+				}
+			}
+		}
+		return new Song(10, layers, (short) layers.size(), (short) 1000, "", "", "", "", null, 16,
+				new CustomInstrument[0], false);
+	}
+
+	private static void assertTick(CompiledSong compiled, NoteTimeline.Cursor cursor, int tick) {
+		int start = compiled.getNotesStart(tick);
+		int end = compiled.getNotesEnd(tick);
+		assertEquals(end - start, cursor.seek(tick), "notes at tick " + tick);
+		for (int i = start; i < end; i++) {
+			assertTrue(cursor.next());
+			assertEquals(tick, cursor.getTick());
+			assertEquals(compiled.getInstrument(i), cursor.getInstrument());
+			assertEquals(compiled.getKey(i), cursor.getKey());
+			assertEquals(compiled.getPitch(i), cursor.getPitch());
+			assertEquals(compiled.getVolume(i), cursor.getVolume());
+			assertEquals(compiled.getPanning(i), cursor.getPanning());
+			assertEquals(compiled.getLayerIndex(i), cursor.getLayerIndex());
+		}
+		assertFalse(cursor.next());
+	}
+
+	@Test
+	public void forwardSeeksReadAllNotes() {
+		CompiledSong compiled = new CompiledSong(randomSong(1));
+		NoteTimeline timeline = new NoteTimeline(compiled, SEEK_INTERVAL);
+		assertEquals(compiled.getTickCount(), timeline.getTickCount());
+		assertEquals(compiled.getNoteCount(), timeline.getNoteCount());
+
+		NoteTimeline.Cursor cursor = timeline.cursor();
+		for (int tick = 0; tick < compiled.getTickCount(); tick++) {
+			assertTick(compiled, cursor, tick);
+		}
+	}
+
+	@Test
+	public void seeksAcrossSeekIndexBoundaries() {
+		CompiledSong compiled = new CompiledSong(randomSong(2));
+		NoteTimeline.Cursor cursor = new NoteTimeline(compiled, SEEK_INTERVAL).cursor();
+		for (int block = compiled.getTickCount() / SEEK_INTERVAL; block >= 0; block--) {
+			int tick = block * SEEK_INTERVAL;
+			assertTick(compiled, cursor, tick);
+			assertTick(compiled, cursor, tick - 1);
+			assertTick(compiled, cursor, tick + SEEK_INTERVAL);
+			assertTick(compiled, cursor, tick + SEEK_INTERVAL - 1);
+		}
+	}
+
+	@Test
+	public void randomSeeksMatchCompiledSong() {
+		CompiledSong compiled = new CompiledSong(randomSong(3));
+		NoteTimeline.Cursor cursor = new NoteTimeline(compiled, SEEK_INTERVAL).cursor();
+		Random random = new Random(3);
+		for (int i = 0; i < 2000; i++) {
+			int tick = random.nextInt(compiled.getTickCount() + 20) - 10;
+			assertTick(compiled, cursor, tick);
+			if (random.nextInt(4) == 0) {
+				assertTick(compiled, cursor, tick); // same tick is read again
+			}
+		}
+	}
+
+	@Test
+	public void cursorsAreIndependent() {
+		NoteTimeline timeline = randomSong(4).getNoteTimeline();
+		CompiledSong compiled = new CompiledSong(randomSong(4));
+		NoteTimeline.Cursor first = timeline.cursor();
+		NoteTimeline.Cursor second = timeline.cursor();
+		for (int tick = 0; tick < compiled.getTickCount(); tick++) {
+			assertTick(compiled, first, tick);
+			assertTick(compiled, second, compiled.getTickCount() - 1 - tick);
+		}
+	}
+
+	@Test
+	public void ticksOutsideOfSongHaveNoNotes() {
+		NoteTimeline.Cursor cursor = randomSong(5).getNoteTimeline().cursor();
+		assertEquals(0, cursor.seek(-1));
+		assertFalse(cursor.next());
+		assertEquals(0, cursor.seek(cursor.getTimeline().getTickCount()));
+		assertFalse(cursor.next());
+	}
+
+	@Test
+	public void seekIntervalMustBePositive() {
+		CompiledSong compiled = new CompiledSong(randomSong(6));
+		assertThrows(IllegalArgumentException.class, () -> new NoteTimeline(compiled, 0));
+	}
+}
@@ -0,0 +1,143 @@
+package com.xxmicloxx.NoteBlockAPI.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DecodeLimitsTest {
+
+	@TempDir
+	Path directory;
+
+	private static DecodeLimits limits() {
+		return new DecodeLimits(100, 10, 100, 100, 2, 10000);
+	}
+
+	private static NBSData read(byte[] bytes, DecodeLimits limits) throws IOException {
+		return NBSData.read(NBSReader.wrap(ByteBuffer.wrap(bytes)), null, limits);
+	}
+
+	private static void assertRejected(String limit, byte[] bytes) {
+		LimitExceededException e = assertThrows(LimitExceededException.class, () -> read(bytes, limits()));
+		assertTrue(e.getMessage().startsWith(limit), e.getMessage());
+		e = assertThrows(LimitExceededException.class,
+				() -> NBSData.read(NBSReader.open(new ByteArrayInputStream(bytes)), null, limits()));
+		assertTrue(e.getMessage().startsWith(limit), e.getMessage());
+	}
+
+	/**
+	 * Returns header of a song with the given number of layers, nothing else follows it
+	 */
+	private static byte[] header(int songHeight) {
+		byte[] bytes = new NBSBuilder(5).songHeight(songHeight).build();
+		int notesStart = bytes.length - 3; // end of notes and count of custom instruments follow the header
+		return Arrays.copyOf(bytes, notesStart);
+	}
+
+	@Test
+	public void songsWithinLimitsAreRead() throws IOException {
+		NBSBuilder builder = new NBSBuilder(5);
+		for (int tick = 0; tick < 100; tick += 2) {
+			builder.note(tick, tick % 10, 0, 45, 100, 100, 0);
+		}
+		for (int layer = 0; layer < 10; layer++) {
+			builder.layer("Layer", 100, 100);
+		}
+		builder.customInstrument("One", "one.ogg").customInstrument("Two", "two.ogg");
+		assertEquals(50, read(builder.build(), limits()).noteCount);
+	}
+
+	@Test
+	public void layerCountIsCheckedBeforeNotesAreRead() {
+		assertRejected("Layer count", header(Short.MAX_VALUE));
+	}
+
+	@Test
+	public void notesAreCheckedBeforeTheyAreStored() {
+		assertRejected("Tick", new NBSBuilder(5).note(101, 0, 0, 45, 100, 100, 0).build());
+		assertRejected("Layer", new NBSBuilder(5).note(0, 10, 0, 45, 100, 100, 0).build());
+
+		NBSBuilder builder = new NBSBuilder(5);
+		for (int tick = 0; tick < 101; tick++) {
+			builder.note(tick / 10, tick % 10, 0, 45, 100, 100, 0);
+		}
+		assertRejected("Note count", builder.build());
+	}
+
+	@Test
+	public void customInstrumentCountIsCheckedBeforeInstrumentsAreRead() {
+		byte[] bytes = new NBSBuilder(5).customInstrument("1", "1.ogg").customInstrument("2", "2.ogg")
+				.customInstrument("3", "3.ogg").build();
+		int instrumentsStart = bytes.length - 3 * (4 + 1 + 4 + 5 + 2); // name, file, pitch and key
+		assertRejected("Custom instrument count", Arrays.copyOf(bytes, instrumentsStart));
+	}
+
+	@Test
+	public void stringLengthIsCheckedBeforeStringIsRead() {
+		ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+		header.putShort((short) 0).put((byte) 5).put((byte) 16).putShort((short) 0).putShort((short) 1);
+		header.putInt(Integer.MAX_VALUE); // length of the title
+		byte[] bytes = header.array();
+		// the stream is read only up to the length, the string itself is never allocated
+		LimitExceededException e = assertThrows(LimitExceededException.class,
+				() -> NBSData.read(NBSReader.open(new ByteArrayInputStream(bytes)), null, limits()));
+		assertTrue(e.getMessage().startsWith("String length"), e.getMessage());
+	}
+
+	@Test
+	public void fileSizeIsCheckedBeforeFileIsRead() throws IOException {
+		Path file = directory.resolve("large.nbs");
+		Files.write(file, new byte[10001]);
+		assertThrows(LimitExceededException.class, () -> NBSReader.open(file, 10000));
+
+		NBSBuilder builder = new NBSBuilder(5);
+		for (int tick = 0; tick < 5000; tick++) {
+			builder.note(tick, 0, 0, 45, 100, 100, 0);
+		}
+		byte[] bytes = builder.build();
+		DecodeLimits limits = new DecodeLimits();
+		limits.setMaxFileSize(bytes.length - 1);
+		assertThrows(LimitExceededException.class,
+				() -> NBSData.read(NBSReader.open(new ByteArrayInputStream(bytes)), null, limits));
+	}
+
+	@Test
+	public void decoderReportsExceededLimits() throws IOException {
+		byte[] bytes = header(Short.MAX_VALUE);
+		SongDecodeException e = assertThrows(SongDecodeException.class,
+				() -> NBSDecoder.parse(new ByteArrayInputStream(bytes), limits()));
+		assertEquals(SongDecodeException.Reason.LIMIT_EXCEEDED, e.getReason());
+
+		File file = directory.resolve("song.nbs").toFile();
+		Files.write(file.toPath(), bytes);
+		e = assertThrows(SongDecodeException.class, () -> NBSDecoder.parse(file, limits()));
+		assertEquals(SongDecodeException.Reason.LIMIT_EXCEEDED, e.getReason());
+		assertEquals(file, e.getFile());
+
+		DecodeLimits limits = limits();
+		limits.setMaxFileSize(bytes.length - 1);
+		e = assertThrows(SongDecodeException.class, () -> NBSDecoder.parse(file, limits));
+		assertEquals(SongDecodeException.Reason.LIMIT_EXCEEDED, e.getReason());
+	}
+
+	@Test
+	public void defaultLimitsFitPlayerSongs() {
+		DecodeLimits limits = new DecodeLimits();
+		assertEquals(32 * 1024 * 1024, limits.getMaxFileSize());
+		assertEquals(1024, limits.getMaxLayers());
+		assertEquals(Short.MAX_VALUE, limits.getMaxTicks());
+		assertEquals(new DecodeLimits(limits).getMaxNotes(), limits.getMaxNotes());
+	}
+}
@@ -0,0 +1,157 @@
+package com.xxmicloxx.NoteBlockAPI.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes Note Block Studio project files (.nbs) of the given format version for tests
+ */
+class NBSBuilder {
+
+	private final int version;
+	private String title = "Title";
+	private String author = "Author";
+	private short speed = 1000;
+	private int songHeight = -1;
+	private final TreeMap<Integer, TreeMap<Integer, int[]>> notes = new TreeMap<>(); // by tick and layer
+	private final List<Object[]> layers = new ArrayList<>();
+	private final List<String[]> customInstruments = new ArrayList<>();
+
+	private ByteArrayOutputStream out;
+
+	NBSBuilder(int version) {
+		this.version = version;
+	}
+
+	NBSBuilder title(String title) {
+		this.title = title;
+		return this;
+	}
+
+	NBSBuilder author(String author) {
+		this.author = author;
+		return this;
+	}
+
+	NBSBuilder speed(short speed) {
+		this.speed = speed;
+		return this;
+	}
+
+	/**
+	 * Overrides number of layers written in the header, by default it's the number of added layers
+	 */
+	NBSBuilder songHeight(int songHeight) {
+		this.songHeight = songHeight;
+		return this;
+	}
+
+	NBSBuilder note(int tick, int layer, int instrument, int key, int velocity, int panning, int pitch) {
+		notes.computeIfAbsent(tick, t -> new TreeMap<>()).put(layer, new int[] {instrument, key, velocity, panning, pitch});
+		return this;
+	}
+
+	NBSBuilder layer(String name, int volume, int panning) {
+		layers.add(new Object[] {name, volume, panning});
+		return this;
+	}
+
+	NBSBuilder customInstrument(String name, String file) {
+		customInstruments.add(new String[] {name, file});
+		return this;
+	}
+
+	byte[] build() {
+		out = new ByteArrayOutputStream();
+		int length = notes.isEmpty() ? 0 : notes.lastKey() + 1;
+		if (version == 0) {
+			writeShort(length);
+		} else {
+			writeShort(0);
+			out.write(version);
+			out.write(16); // first custom instrument
+			if (version >= 3) {
+				writeShort(length);
+			}
+		}
+		writeShort(songHeight >= 0 ? songHeight : layers.size());
+		writeString(title);
+		writeString(author);
+		writeString("Original author");
+		writeString("Description");
+		writeShort(speed);
+		out.write(0); // auto-save
+		out.write(10); // auto-save duration
+		out.write(4); // time signature
+		for (int i = 0; i < 5; i++) {
+			writeInt(i); // statistics
+		}
+		writeString("song.mid");
+		if (version >= 4) {
+			out.write(1); // loop
+			out.write(3); // max loop count
+			writeShort(2); // loop start tick
+		}
+
+		int previousTick = -1;
+		for (Map.Entry<Integer, TreeMap<Integer, int[]>> tick : notes.entrySet()) {
+			writeShort(tick.getKey() - previousTick);
+			previousTick = tick.getKey();
+			int previousLayer = -1;
+			for (Map.Entry<Integer, int[]> layer : tick.getValue().entrySet()) {
+				writeShort(layer.getKey() - previousLayer);
+				previousLayer = layer.getKey();
+				int[] note = layer.getValue();
+				out.write(note[0]);
+				out.write(note[1]);
+				if (version >= 4) {
+					out.write(note[2]);
+					out.write(200 - note[3]); // 0 is right in nbs format
+					writeShort(note[4]);
+				}
+			}
+			writeShort(0);
+		}
+		writeShort(0);
+
+		for (Object[] layer : layers) {
+			writeString((String) layer[0]);
+			if (version >= 4) {
+				out.write(0); // lock
+			}
+			out.write((Integer) layer[1]);
+			if (version >= 2) {
+				out.write(200 - (Integer) layer[2]);
+			}
+		}
+
+		out.write(customInstruments.size());
+		for (String[] instrument : customInstruments) {
+			writeString(instrument[0]);
+			writeString(instrument[1]);
+			out.write(45); // pitch
+			out.write(0); // key
+		}
+		return out.toByteArray();
+	}
+
+	private void writeShort(int value) {
+		out.write(value);
+		out.write(value >>> 8);
+	}
+
+	private void writeInt(int value) {
+		writeShort(value);
+		writeShort(value >>> 16);
+	}
+
+	private void writeString(String value) {
+		writeInt(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			out.write(value.charAt(i));
+		}
+	}
+}
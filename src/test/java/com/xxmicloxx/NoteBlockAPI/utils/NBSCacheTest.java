@@ -0,0 +1,172 @@
+package com.xxmicloxx.NoteBlockAPI.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NBSCacheTest {
+
+	private static final long MODIFIED = 1_600_000_000_000L;
+
+	@TempDir
+	Path directory;
+
+	private static byte[] song(String title) {
+		NBSBuilder builder = new NBSBuilder(5).title(title).author("Author \u00e9").speed((short) 875);
+		for (int tick = 0; tick < 300; tick += 3) {
+			builder.note(tick, tick % 4, tick % 20, 33 + tick % 25, tick % 101, tick % 201, tick * 7 % 2401 - 1200);
+		}
+		for (int layer = 0; layer < 4; layer++) {
+			builder.layer("Layer " + layer, 25 * layer, 50 * layer);
+		}
+		return builder.customInstrument("Bell", "bell.ogg").customInstrument("Drum", "drum.ogg").build();
+	}
+
+	private File write(String name, byte[] bytes) throws IOException {
+		File file = directory.resolve(name).toFile();
+		Files.write(file.toPath(), bytes);
+		assertTrue(file.setLastModified(MODIFIED));
+		return file;
+	}
+
+	private static NBSData read(byte[] bytes) throws IOException {
+		return NBSData.read(NBSReader.wrap(ByteBuffer.wrap(bytes)), null);
+	}
+
+	private static long readStoredModified(File cacheFile) throws IOException {
+		try (DataInputStream in = new DataInputStream(new FileInputStream(cacheFile))) {
+			in.skipBytes(16); // magic, format version and size
+			return in.readLong();
+		}
+	}
+
+	private static void assertSameData(NBSData expected, NBSData actual) {
+		assertNotNull(actual);
+		assertEquals(expected.info.getVersion(), actual.info.getVersion());
+		assertEquals(expected.info.getFirstCustomInstrumentIndex(), actual.info.getFirstCustomInstrumentIndex());
+		assertEquals(expected.info.getLength(), actual.info.getLength());
+		assertEquals(expected.info.getSongHeight(), actual.info.getSongHeight());
+		assertEquals(expected.info.getTitle(), actual.info.getTitle());
+		assertEquals(expected.info.getAuthor(), actual.info.getAuthor());
+		assertEquals(expected.info.getOriginalAuthor(), actual.info.getOriginalAuthor());
+		assertEquals(expected.info.getDescription(), actual.info.getDescription());
+		assertEquals(expected.info.getSpeed(), actual.info.getSpeed());
+		assertEquals(expected.info.isLoop(), actual.info.isLoop());
+		assertEquals(expected.info.getMaxLoopCount(), actual.info.getMaxLoopCount());
+		assertEquals(expected.info.getLoopStartTick(), actual.info.getLoopStartTick());
+		assertEquals(expected.stereo, actual.stereo);
+
+		assertEquals(expected.noteCount, actual.noteCount);
+		assertArrayEquals(Arrays.copyOf(expected.ticks, expected.noteCount), Arrays.copyOf(actual.ticks, actual.noteCount));
+		assertArrayEquals(Arrays.copyOf(expected.notes, expected.noteCount), Arrays.copyOf(actual.notes, actual.noteCount));
+		for (int i = 0; i < expected.noteCount; i++) {
+			assertEquals(expected.layers[i], actual.layers[i]);
+		}
+		assertArrayEquals(expected.layerNames, actual.layerNames);
+		assertArrayEquals(expected.layerVolumes, actual.layerVolumes);
+		assertArrayEquals(expected.layerPanning, actual.layerPanning);
+		assertArrayEquals(expected.customInstrumentNames, actual.customInstrumentNames);
+		assertArrayEquals(expected.customInstrumentFiles, actual.customInstrumentFiles);
+	}
+
+	@Test
+	public void cacheHasSameContentAsFile() throws IOException {
+		byte[] bytes = song("Cached\rsong");
+		File file = write("song.nbs", bytes);
+		assertNull(NBSCache.load(file));
+
+		NBSCache.compile(file);
+		assertTrue(NBSCache.getCacheFile(file).isFile());
+		NBSData data = NBSCache.load(file);
+		assertSameData(read(bytes), data);
+		assertEquals(file, data.info.getPath());
+	}
+
+	@Test
+	public void legacyFormatIsCached() throws IOException {
+		byte[] bytes = new NBSBuilder(0).note(0, 0, 1, 40, 100, 100, 0).note(5, 1, 2, 41, 100, 100, 0)
+				.layer("One", 100, 100).layer("Two", 50, 100).build();
+		File file = write("legacy.nbs", bytes);
+		NBSCache.compile(file);
+		assertSameData(read(bytes), NBSCache.load(file));
+	}
+
+	@Test
+	public void changedFileIsNotLoadedFromCache() throws IOException {
+		File file = write("song.nbs", song("Song"));
+		NBSCache.compile(file);
+
+		write("song.nbs", song("Other song"));
+		assertNull(NBSCache.load(file));
+
+		// same size and modification time are trusted
+		byte[] sameSize = song("Sbng");
+		write("song.nbs", sameSize);
+		assertEquals("Song", NBSCache.load(file).info.getTitle());
+
+		// the checksum is compared when the modification time differs
+		assertTrue(file.setLastModified(MODIFIED + 1000));
+		assertNull(NBSCache.load(file));
+		assertEquals(MODIFIED, readStoredModified(NBSCache.getCacheFile(file)));
+	}
+
+	@Test
+	public void unchangedFileWithNewModificationTimeIsRestamped() throws IOException {
+		byte[] bytes = song("Song");
+		File file = write("song.nbs", bytes);
+		NBSCache.compile(file);
+		File cacheFile = NBSCache.getCacheFile(file);
+		assertEquals(MODIFIED, readStoredModified(cacheFile));
+
+		assertTrue(file.setLastModified(MODIFIED + 5000));
+		assertSameData(read(bytes), NBSCache.load(file));
+		assertEquals(MODIFIED + 5000, readStoredModified(cacheFile));
+		assertSameData(read(bytes), NBSCache.load(file));
+	}
+
+	@Test
+	public void corruptedCacheIsIgnored() throws IOException {
+		File file = write("song.nbs", song("Song"));
+		NBSCache.compile(file);
+		File cacheFile = NBSCache.getCacheFile(file);
+		byte[] cache = Files.readAllBytes(cacheFile.toPath());
+
+		Files.write(cacheFile.toPath(), Arrays.copyOf(cache, cache.length / 2));
+		assertNull(NBSCache.load(file));
+
+		cache[0]++;
+		Files.write(cacheFile.toPath(), cache);
+		assertNull(NBSCache.load(file));
+
+		Files.write(cacheFile.toPath(), new byte[0]);
+		assertNull(NBSCache.load(file));
+	}
+
+	@Test
+	public void directoryIsCompiledWithoutServer() throws IOException, InterruptedException {
+		File first = write("first.nbs", song("First"));
+		Files.createDirectories(directory.resolve("pack"));
+		File second = write("pack/second.NBS", song("Second"));
+		write("notes.txt", new byte[] {1, 2, 3});
+
+		NBSCache.main(new String[] {directory.toString(), "2"});
+		assertEquals("First", NBSCache.load(first).info.getTitle());
+		assertEquals("Second", NBSCache.load(second).info.getTitle());
+		assertFalse(NBSCache.getCacheFile(directory.resolve("notes.txt").toFile()).exists());
+	}
+}
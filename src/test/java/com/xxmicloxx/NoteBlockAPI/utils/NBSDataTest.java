@@ -0,0 +1,164 @@
+package com.xxmicloxx.NoteBlockAPI.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NBSDataTest {
+
+	@TempDir
+	Path directory;
+
+	private static NBSData read(byte[] bytes) throws IOException {
+		return NBSData.read(NBSReader.wrap(ByteBuffer.wrap(bytes)), null);
+	}
+
+	/**
+	 * Creates song large enough to be read through several windows of a windowed reader
+	 */
+	private static byte[] largeSong() {
+		NBSBuilder builder = new NBSBuilder(5).title("Large\rsong");
+		for (int tick = 0; tick < 5000; tick++) {
+			for (int layer = tick % 3; layer < 8; layer += 3) {
+				builder.note(tick, layer, tick % 16, 33 + tick % 25, tick % 101, tick % 201, tick % 401 - 200);
+			}
+		}
+		for (int layer = 0; layer < 8; layer++) {
+			builder.layer("Layer " + layer, 10 * layer, 100 + layer);
+		}
+		return builder.customInstrument("Custom", "custom.ogg").build();
+	}
+
+	private static void assertSameData(NBSData expected, NBSData actual) {
+		assertEquals(expected.info.getTitle(), actual.info.getTitle());
+		assertEquals(expected.info.getLength(), actual.info.getLength());
+		assertEquals(expected.noteCount, actual.noteCount);
+		assertArrayEquals(Arrays.copyOf(expected.ticks, expected.noteCount), Arrays.copyOf(actual.ticks, actual.noteCount));
+		assertArrayEquals(Arrays.copyOf(expected.notes, expected.noteCount), Arrays.copyOf(actual.notes, actual.noteCount));
+		assertArrayEquals(expected.layerNames, actual.layerNames);
+		assertArrayEquals(expected.customInstrumentFiles, actual.customInstrumentFiles);
+		assertArrayEquals(expected.getContentHash(), actual.getContentHash());
+	}
+
+	@Test
+	public void readsCurrentFormat() throws IOException {
+		byte[] bytes = new NBSBuilder(5).title("Song\rtitle").author("Author").speed((short) 1250)
+				.note(0, 0, 1, 45, 100, 100, 0)
+				.note(3, 1, 2, 46, 50, 30, -150)
+				.note(3, 4, 17, 47, 0, 200, 1200)
+				.layer("Piano", 80, 100).layer("Bass", 100, 150).layer("", 100, 100).layer("", 100, 100).layer("", 100, 100)
+				.customInstrument("Bell", "bell.ogg")
+				.build();
+		NBSData data = read(bytes);
+
+		assertEquals(5, data.info.getVersion());
+		assertEquals(16, data.info.getFirstCustomInstrumentIndex());
+		assertEquals("Song title", data.info.getTitle());
+		assertEquals("Author", data.info.getAuthor());
+		assertEquals(12.5f, data.info.getSpeed());
+		assertEquals(4, data.info.getLength());
+		assertEquals(5, data.info.getSongHeight());
+		assertTrue(data.info.isLoop());
+		assertEquals(3, data.info.getMaxLoopCount());
+		assertEquals(2, data.info.getLoopStartTick());
+
+		assertEquals(3, data.noteCount);
+		assertEquals(3, data.ticks[1]);
+		assertEquals(1, data.layers[1]);
+		assertEquals(2, data.getInstrument(1));
+		assertEquals(46, data.getKey(1));
+		assertEquals(50, data.getVelocity(1));
+		assertEquals(30, data.getPanning(1));
+		assertEquals(-150, data.getPitch(1));
+		assertEquals(4, data.layers[2]);
+		assertEquals(17, data.getInstrument(2));
+		assertEquals(1200, data.getPitch(2));
+		assertTrue(data.stereo);
+
+		assertArrayEquals(new String[] {"Piano", "Bass", "", "", ""}, data.layerNames);
+		assertEquals(80, data.layerVolumes[0]);
+		assertEquals(150, data.layerPanning[1]);
+		assertArrayEquals(new String[] {"Bell"}, data.customInstrumentNames);
+		assertArrayEquals(new String[] {"bell.ogg"}, data.customInstrumentFiles);
+	}
+
+	@Test
+	public void readsLegacyFormatWithDefaults() throws IOException {
+		byte[] bytes = new NBSBuilder(0)
+				.note(2, 0, 3, 40, 0, 0, 0)
+				.layer("Layer", 60, 0)
+				.build();
+		NBSData data = read(bytes);
+
+		assertEquals(0, data.info.getVersion());
+		assertEquals(10, data.info.getFirstCustomInstrumentIndex());
+		assertEquals(3, data.info.getLength());
+		assertEquals(1, data.noteCount);
+		assertEquals(3, data.getInstrument(0));
+		assertEquals(40, data.getKey(0));
+		assertEquals(100, data.getVelocity(0));
+		assertEquals(100, data.getPanning(0));
+		assertEquals(0, data.getPitch(0));
+		assertEquals(100, data.layerPanning[0]);
+		assertFalse(data.stereo);
+		assertEquals(0, data.customInstrumentNames.length);
+	}
+
+	@Test
+	public void lengthOfVersionsWithoutItIsTheLastTick() throws IOException {
+		byte[] bytes = new NBSBuilder(2).note(0, 0, 0, 45, 100, 100, 0).note(9, 0, 0, 45, 100, 100, 0)
+				.layer("", 100, 100).build();
+		assertEquals(9, read(bytes).info.getLength());
+	}
+
+	@Test
+	public void truncatedDataFails() {
+		byte[] bytes = largeSong();
+		for (int length : new int[] {0, 1, 40, bytes.length / 2, bytes.length - 1}) {
+			byte[] truncated = Arrays.copyOf(bytes, length);
+			assertThrows(EOFException.class, () -> read(truncated));
+			assertThrows(EOFException.class, () -> NBSData.read(NBSReader.open(new ByteArrayInputStream(truncated)), null));
+		}
+	}
+
+	@Test
+	public void windowedReadersReadSameData() throws IOException {
+		byte[] bytes = largeSong();
+		assertTrue(bytes.length > 64 * 1024);
+		NBSData expected = read(bytes);
+		assertEquals(13334, expected.noteCount);
+
+		assertSameData(expected, NBSData.read(NBSReader.open(new ByteArrayInputStream(bytes)), null));
+
+		File file = directory.resolve("song.nbs").toFile();
+		Files.write(file.toPath(), bytes);
+		try (NBSReader reader = NBSReader.open(file, 7)) {
+			assertSameData(expected, NBSData.read(reader, file));
+		}
+		assertSameData(expected, NBSData.read(NBSReader.open(file.toPath(), Long.MAX_VALUE), file));
+	}
+
+	@Test
+	public void contentHashIgnoresMetadata() throws IOException {
+		NBSBuilder builder = new NBSBuilder(5).note(0, 0, 1, 45, 100, 100, 0).layer("Layer", 100, 100);
+		byte[] hash = read(builder.build()).getContentHash();
+		assertArrayEquals(hash, read(builder.title("Other title").author("Other").build()).getContentHash());
+
+		builder.note(1, 0, 1, 45, 100, 100, 0);
+		assertFalse(Arrays.equals(hash, read(builder.build()).getContentHash()));
+	}
+}